@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package benchmark;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.ValidationReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the verification methods of the cloudDSFPlus. The checks only read the model, thus one
+ * parsed model is shared by all invocations. The relation index the checks share is built during
+ * setup, so only the checks themselves are measured.
+ * 
+ * @author Metz
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckBenchmark {
+  @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.MOCKUP_KNOWLEDGE_BASE, Workbooks.SYNTHETIC_LARGE})
+  public String file;
+
+  private CloudDSF cdsf;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() throws IOException {
+    cdsf = Workbooks.parseCloudDSFPlus(file);
+    // builds the relation index kept by the model as long as the relations do not change
+    cdsf.checkSanity();
+    pool = new ForkJoinPool();
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public boolean checkSanity() {
+    return cdsf.checkSanity();
+  }
+
+  @Benchmark
+  public ValidationReport validate() {
+    return cdsf.validate();
+  }
+
+  @Benchmark
+  public ValidationReport validateConcurrent() throws InterruptedException {
+    return cdsf.validate(pool);
+  }
+
+  @Benchmark
+  public boolean checkRelTypesDecisions() {
+    return cdsf.checkRelTypesDecisions();
+  }
+
+  @Benchmark
+  public boolean checkRelTypesOutcomes() {
+    return cdsf.checkRelTypesOutcomes();
+  }
+
+  @Benchmark
+  public boolean checkDecRelComb() {
+    return cdsf.checkDecRelComb();
+  }
+
+  @Benchmark
+  public boolean checkOutRelAmountForDecRel() {
+    return cdsf.checkOutRelAmountForDecRel();
+  }
+
+  @Benchmark
+  public boolean checkDecRelForOutRel() {
+    return cdsf.checkDecRelForOutRel();
+  }
+
+  @Benchmark
+  public boolean checkOutRelTypeForDecRel() {
+    return cdsf.checkOutRelTypeForDecRel();
+  }
+
+  @Benchmark
+  public boolean checkAffBinDecRelations() {
+    return cdsf.checkAffBinDecRelations("affecting", "binding");
+  }
+
+  @Benchmark
+  public boolean checkAffBinOutRelations() {
+    return cdsf.checkAffBinOutRelations("aff", "eb");
+  }
+
+  @Benchmark
+  public boolean checkInAOutRelations() {
+    return cdsf.checkInAOutRelations("in", "a", "in");
+  }
+
+  @Benchmark
+  public boolean checkXOROutcomes() {
+    return cdsf.checkXOROutcomes();
+  }
+
+  @Benchmark
+  public boolean checkSingleOutcomeRel() {
+    return cdsf.checkSingleOutcomeRel();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package benchmark;
+
+import cloudDSF.CloudDSF;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import parser.CloudDSFParser;
+import parser.CloudDSFPlusParser;
+import parser.KnowledgeBase;
+import parser.StreamingSheetSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the knowledge base into the cloudDSF and the cloudDSFPlus. The workbook
+ * benchmarks start from an already opened workbook, the streaming benchmarks include opening the
+ * file content.
+ * 
+ * @author Metz
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  /**
+   * Knowledge bases usable by the cloudDSFPlus parser.
+   */
+  @State(Scope.Benchmark)
+  public static class PlusWorkbook {
+    @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.MOCKUP_KNOWLEDGE_BASE, Workbooks.SYNTHETIC_SMALL})
+    public String file;
+
+    byte[] content;
+    XSSFWorkbook workbook;
+
+    @Setup
+    public void setUp() throws IOException {
+      content = Workbooks.load(file);
+      workbook = Workbooks.open(content);
+    }
+  }
+
+  /**
+   * Knowledge bases usable by the legacy cloudDSF parser, which needs the task sheet.
+   */
+  @State(Scope.Benchmark)
+  public static class LegacyWorkbook {
+    @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.SYNTHETIC_SMALL})
+    public String file;
+
+    byte[] content;
+    XSSFWorkbook workbook;
+
+    @Setup
+    public void setUp() throws IOException {
+      content = Workbooks.load(file);
+      workbook = Workbooks.open(content);
+    }
+  }
+
+  @Benchmark
+  public CloudDSF cloudDSFPlusReadExcel(PlusWorkbook state) {
+    return new CloudDSFPlusParser(state.workbook).readExcel();
+  }
+
+  @Benchmark
+  public CloudDSF cloudDSFPlusReadExcelStreaming(PlusWorkbook state) throws IOException {
+    StreamingSheetSource source =
+        StreamingSheetSource.open(new ByteArrayInputStream(state.content));
+    try {
+      return new CloudDSFPlusParser(source).readExcel();
+    } finally {
+      source.close();
+    }
+  }
+
+  @Benchmark
+  public CloudDSF cloudDSFReadExcel(LegacyWorkbook state) {
+    return new CloudDSFParser(state.workbook).readExcel();
+  }
+
+  /**
+   * Parses both models from one streamed knowledge base as done by the JsonWriter.
+   */
+  @Benchmark
+  public CloudDSF bothReadExcelStreaming(LegacyWorkbook state) throws IOException {
+    StreamingSheetSource source =
+        StreamingSheetSource.open(new ByteArrayInputStream(state.content));
+    try {
+      KnowledgeBase knowledgeBase = new KnowledgeBase(source);
+      new CloudDSFParser(knowledgeBase).readExcel();
+      return new CloudDSFPlusParser(knowledgeBase).readExcel();
+    } finally {
+      source.close();
+    }
+  }
+}
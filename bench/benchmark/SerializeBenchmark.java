@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package benchmark;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.StreamingJsonWriter;
+import cloudDSF.TaskTree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of the cloudDSF and the cloudDSFPlus json files as written by the
+ * JsonWriter. The json is written into memory, thus file access is not measured.
+ * 
+ * @author Metz
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+
+  /**
+   * Parsed cloudDSFPlus.
+   */
+  @State(Scope.Thread)
+  public static class PlusModel {
+    @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.MOCKUP_KNOWLEDGE_BASE, Workbooks.SYNTHETIC_LARGE})
+    public String file;
+
+    CloudDSF cdsf;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Setup
+    public void setUp() throws IOException {
+      cdsf = Workbooks.parseCloudDSFPlus(file);
+    }
+  }
+
+  /**
+   * Parsed legacy cloudDSF with task tree and all relations in one list.
+   */
+  @State(Scope.Thread)
+  public static class LegacyModel {
+    @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.SYNTHETIC_LARGE})
+    public String file;
+
+    CloudDSF cdsf;
+    TaskTree taskTree;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Setup
+    public void setUp() throws IOException {
+      cdsf = Workbooks.parseCloudDSF(file);
+      taskTree = new TaskTree();
+      taskTree.setTasks(cdsf.getTasks());
+      cdsf.setInfluencingRelations();
+    }
+  }
+
+  @Benchmark
+  public int writeCloudDSFPlus(PlusModel state) throws IOException {
+    state.out.reset();
+    StreamingJsonWriter.writeCloudDSFPlus(state.cdsf, state.out);
+    return state.out.size();
+  }
+
+  @Benchmark
+  public int writeCloudDSF(LegacyModel state) throws IOException {
+    state.out.reset();
+    StreamingJsonWriter.writeCloudDSF(state.cdsf, state.taskTree, state.out);
+    return state.out.size();
+  }
+}
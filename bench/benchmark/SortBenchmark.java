@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package benchmark;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting of the entities and relations of the cloudDSFPlus. The lists are shuffled with
+ * a fixed seed before every invocation, thus sorting of already sorted lists is not measured.
+ * 
+ * @author Metz
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+  @Param({Workbooks.KNOWLEDGE_BASE, Workbooks.MOCKUP_KNOWLEDGE_BASE, Workbooks.SYNTHETIC_LARGE})
+  public String file;
+
+  private CloudDSF cdsf;
+  private Random random;
+
+  @Setup
+  public void setUp() throws IOException {
+    cdsf = Workbooks.parseCloudDSFPlus(file);
+    random = new Random(42);
+  }
+
+  @Setup(Level.Invocation)
+  public void shuffle() {
+    Collections.shuffle(cdsf.getDecisionPoints(), random);
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      Collections.shuffle(dp.getDecisions(), random);
+      for (Decision dec : dp.getDecisions()) {
+        Collections.shuffle(dec.getOutcomes(), random);
+      }
+    }
+    Collections.shuffle(cdsf.getInfluencingDecisions(), random);
+    Collections.shuffle(cdsf.getInfluencingOutcomes(), random);
+  }
+
+  @Benchmark
+  public CloudDSF sortEntities() {
+    cdsf.sortEntities();
+    return cdsf;
+  }
+
+  @Benchmark
+  public CloudDSF sortLists() {
+    cdsf.sortLists();
+    return cdsf;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package benchmark;
+
+import cloudDSF.CloudDSF;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import parser.CloudDSFParser;
+import parser.CloudDSFPlusParser;
+import parser.KnowledgeBaseGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+
+/**
+ * Loads the knowledge bases the benchmarks are executed against.
+ * 
+ * @author Metz
+ *
+ */
+final class Workbooks {
+  /**
+   * Knowledge base containing all sheets needed by both parsers.
+   */
+  static final String KNOWLEDGE_BASE = "KnowledgeBase.xlsx";
+  /**
+   * Knowledge base without task sheet, thus only usable for the cloudDSFPlus.
+   */
+  static final String MOCKUP_KNOWLEDGE_BASE = "MockupKnowledgeBase.xlsx";
+  /**
+   * Small generated knowledge base with 5 decision points, 5 decisions per decision point and 5
+   * outcomes per decision.
+   */
+  static final String SYNTHETIC_SMALL = "synthetic-5x5x5";
+  /**
+   * Generated knowledge base with about 200.000 outcome relations.
+   */
+  static final String SYNTHETIC_LARGE = "synthetic-10x10x10";
+
+  // prefix of generated knowledge bases followed by their size
+  private static final String SYNTHETIC = "synthetic-";
+  // probability of two generated decisions being related
+  private static final double RELATION_DENSITY = 0.3;
+
+  private Workbooks() {
+  }
+
+  /**
+   * Creates the generator of a synthetic knowledge base.
+   * 
+   * @param name name of the knowledge base e.g. synthetic-5x5x5
+   * @return generator or null if the knowledge base is a file
+   */
+  static KnowledgeBaseGenerator getGenerator(String name) {
+    if (name.startsWith(SYNTHETIC) == false) {
+      return null;
+    }
+    String[] size = name.substring(SYNTHETIC.length()).split("x");
+    return new KnowledgeBaseGenerator(Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+        Integer.parseInt(size[2]), RELATION_DENSITY, 1);
+  }
+
+  /**
+   * Reads the content of a knowledge base from the resources folder into memory, thus file access
+   * is not measured. Synthetic knowledge bases are generated and written into memory.
+   * 
+   * @param name file name of the knowledge base or name of a synthetic knowledge base
+   * @return content of the file
+   * @throws IOException Reading of the file fails
+   */
+  static byte[] load(String name) throws IOException {
+    KnowledgeBaseGenerator generator = getGenerator(name);
+    if (generator != null) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      generator.write(out);
+      return out.toByteArray();
+    }
+    InputStream in = Workbooks.class.getClassLoader().getResourceAsStream(name);
+    if (in == null) {
+      throw new IllegalArgumentException("Knowledge base " + name + " does not exist");
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Opens a knowledge base as workbook.
+   * 
+   * @param content content of the file
+   * @return workbook
+   * @throws IOException Reading of the workbook fails
+   */
+  static XSSFWorkbook open(byte[] content) throws IOException {
+    return new XSSFWorkbook(new ByteArrayInputStream(content));
+  }
+
+  /**
+   * Parses the cloudDSFPlus of a knowledge base. Synthetic knowledge bases are created without
+   * workbook.
+   * 
+   * @param name file name of the knowledge base or name of a synthetic knowledge base
+   * @return cloudDSFPlus
+   * @throws IOException Reading of the workbook fails
+   */
+  static CloudDSF parseCloudDSFPlus(String name) throws IOException {
+    KnowledgeBaseGenerator generator = getGenerator(name);
+    if (generator != null) {
+      return generator.createCloudDSFPlus();
+    }
+    return new CloudDSFPlusParser(open(load(name))).readExcel();
+  }
+
+  /**
+   * Parses the legacy cloudDSF of a knowledge base. Synthetic knowledge bases are created without
+   * workbook.
+   * 
+   * @param name file name of the knowledge base or name of a synthetic knowledge base
+   * @return cloudDSF
+   * @throws IOException Reading of the workbook fails
+   */
+  static CloudDSF parseCloudDSF(String name) throws IOException {
+    KnowledgeBaseGenerator generator = getGenerator(name);
+    if (generator != null) {
+      return generator.createCloudDSF();
+    }
+    return new CloudDSFParser(open(load(name))).readExcel();
+  }
+}
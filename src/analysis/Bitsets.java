@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+/**
+ * Operations on fixed size bitsets stored in long arrays. Unlike java.util.BitSet the arrays are
+ * neither resized nor copied, thus the operations of a propagation step allocate nothing. All
+ * bitsets of an operation have the same number of words.
+ * 
+ * @author Metz
+ *
+ */
+final class Bitsets {
+  private Bitsets() {
+  }
+
+  /**
+   * Calculates the number of words of a bitset.
+   * 
+   * @param bits number of bits
+   * @return number of longs holding the bits
+   */
+  static int words(int bits) {
+    return (bits + 63) >>> 6;
+  }
+
+  static boolean get(long[] set, int bit) {
+    return (set[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  static void set(long[] set, int bit) {
+    set[bit >>> 6] |= 1L << bit;
+  }
+
+  static void clear(long[] set, int bit) {
+    set[bit >>> 6] &= ~(1L << bit);
+  }
+
+  /**
+   * Sets the bits from index from (inclusive) to index to (exclusive).
+   */
+  static void setRange(long[] set, int from, int to) {
+    for (int bit = from; bit < to; bit++) {
+      set(set, bit);
+    }
+  }
+
+  /**
+   * Adds all bits of other to set.
+   */
+  static void or(long[] set, long[] other) {
+    for (int i = 0; i < set.length; i++) {
+      set[i] |= other[i];
+    }
+  }
+
+  /**
+   * Keeps only the bits of set which are set in other as well.
+   */
+  static void and(long[] set, long[] other) {
+    for (int i = 0; i < set.length; i++) {
+      set[i] &= other[i];
+    }
+  }
+
+  /**
+   * Removes all bits of other from set.
+   */
+  static void andNot(long[] set, long[] other) {
+    for (int i = 0; i < set.length; i++) {
+      set[i] &= ~other[i];
+    }
+  }
+
+  static boolean intersects(long[] set, long[] other) {
+    for (int i = 0; i < set.length; i++) {
+      if ((set[i] & other[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean isEmpty(long[] set) {
+    for (long word : set) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int cardinality(long[] set) {
+    int count = 0;
+    for (long word : set) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Finds the next set bit.
+   * 
+   * @param set bitset
+   * @param from first bit to check
+   * @return index of the next set bit or -1 if none exists
+   */
+  static int nextSetBit(long[] set, int from) {
+    int i = from >>> 6;
+    if (i >= set.length) {
+      return -1;
+    }
+    long word = set[i] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++i == set.length) {
+        return -1;
+      }
+      word = set[i];
+    }
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.ValidationReport;
+import parser.KnowledgeBaseParser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates logged configurations of outcomes against the outcome relations of a cloudDSFPlus.
+ * Every line of the input holds the ids of the chosen outcomes of one configuration separated by
+ * commas or whitespace. The configurations are evaluated in batches by a fixed number of threads
+ * while the input is streamed, thus the memory needed does not depend on the size of the input.
+ * Every non-empty line results in one line of the output in input order consisting of the line
+ * number, the status (ok, conflict or invalid) and the conflicting outcome ids or the error,
+ * separated by tabs.
+ * 
+ * @author Metz
+ *
+ */
+public class ConfigurationEvaluator {
+  private static final int BATCH_SIZE = 4096;
+
+  private final OutcomeConstraints constraints;
+  private final int threads;
+
+  /**
+   * Default constructor.
+   * 
+   * @param constraints constraints of the cloudDSFPlus
+   * @param threads number of threads evaluating the configurations
+   */
+  public ConfigurationEvaluator(OutcomeConstraints constraints, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required");
+    }
+    this.constraints = constraints;
+    this.threads = threads;
+  }
+
+  /**
+   * Evaluates a file of configurations against a knowledge base.
+   * 
+   * <p>
+   * Usage: ConfigurationEvaluator [-threads n] file.xlsx configurations output
+   * </p>
+   * 
+   * @param args optional number of threads, knowledge base, configurations and output file
+   * @throws IOException Reading or writing of a file fails
+   * @throws InterruptedException Waiting for the evaluation is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    int index = 0;
+    if (args.length > 1 && args[0].equals("-threads")) {
+      threads = Integer.parseInt(args[1]);
+      index = 2;
+    }
+    if (args.length - index != 3) {
+      System.out.println("Usage: ConfigurationEvaluator [-threads n] file.xlsx configurations "
+          + "output");
+      return;
+    }
+    CloudDSF cdsfPlus = new KnowledgeBaseParser().parse(new File(args[index])).getCloudDSFPlus();
+    ValidationReport report = cdsfPlus.validate();
+    if (report.isValid() == false) {
+      System.out.println("The knowledge base is not valid");
+      System.out.println(report);
+      return;
+    }
+    ConfigurationEvaluator evaluator =
+        new ConfigurationEvaluator(new OutcomeConstraints(cdsfPlus), threads);
+    long start = System.nanoTime();
+    Reader in = new InputStreamReader(new FileInputStream(args[index + 1]),
+        StandardCharsets.UTF_8);
+    Summary summary;
+    try {
+      Writer out = new OutputStreamWriter(new FileOutputStream(args[index + 2]),
+          StandardCharsets.UTF_8);
+      try {
+        summary = evaluator.evaluate(in, out);
+      } finally {
+        out.close();
+      }
+    } finally {
+      in.close();
+    }
+    System.out.println(summary + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+  }
+
+  /**
+   * Evaluates all configurations of the input. Neither stream is closed.
+   * 
+   * @param in configurations, one per line
+   * @param out receives one result per configuration in input order
+   * @return numbers of evaluated, conflicting and invalid configurations
+   * @throws IOException Reading or writing fails
+   * @throws InterruptedException Waiting for the evaluation is interrupted
+   */
+  public Summary evaluate(Reader in, Writer out) throws IOException, InterruptedException {
+    BufferedReader reader = new BufferedReader(in);
+    BufferedWriter writer = new BufferedWriter(out);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // batches in input order, bounded to keep the memory independent of the input size
+    ArrayDeque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+    Summary summary = new Summary();
+    try {
+      long lineNumber = 0;
+      boolean end = false;
+      while (end == false) {
+        final long firstLine = lineNumber + 1;
+        final List<String> lines = new ArrayList<String>(BATCH_SIZE);
+        String line;
+        while (lines.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+          lines.add(line);
+        }
+        end = lines.size() < BATCH_SIZE;
+        lineNumber += lines.size();
+        if (lines.isEmpty()) {
+          break;
+        }
+        if (pending.size() >= 2 * threads) {
+          write(pending.poll(), writer, summary);
+        }
+        pending.add(executor.submit(new Callable<Batch>() {
+          @Override
+          public Batch call() {
+            return evaluate(lines, firstLine);
+          }
+        }));
+      }
+      while (pending.isEmpty() == false) {
+        write(pending.poll(), writer, summary);
+      }
+      writer.flush();
+      return summary;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for a batch and writes its results.
+   */
+  private static void write(Future<Batch> future, Writer writer, Summary summary)
+      throws IOException, InterruptedException {
+    Batch batch;
+    try {
+      batch = future.get();
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+          : new IllegalStateException("Configurations could not be evaluated", e.getCause());
+    }
+    writer.write(batch.results.toString());
+    summary.configurations += batch.configurations;
+    summary.conflicts += batch.conflicts;
+    summary.invalid += batch.invalid;
+  }
+
+  /**
+   * Evaluates the configurations of a batch of lines.
+   * 
+   * @param lines lines of the input
+   * @param firstLine line number of the first line
+   * @return results of the batch
+   */
+  private Batch evaluate(List<String> lines, long firstLine) {
+    Batch batch = new Batch();
+    StringBuilder sb = batch.results;
+    int[] ids = new int[16];
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      int count = 0;
+      String error = null;
+      // parse the ids without splitting the line
+      int pos = 0;
+      while (pos < line.length()) {
+        char c = line.charAt(pos);
+        if (c == ',' || Character.isWhitespace(c)) {
+          pos++;
+          continue;
+        }
+        int start = pos;
+        while (pos < line.length() && line.charAt(pos) != ','
+            && Character.isWhitespace(line.charAt(pos)) == false) {
+          pos++;
+        }
+        if (count == ids.length) {
+          ids = Arrays.copyOf(ids, count * 2);
+        }
+        try {
+          ids[count++] = Integer.parseInt(line.substring(start, pos));
+        } catch (NumberFormatException e) {
+          error = "Outcome id " + line.substring(start, pos) + " is not a number";
+          break;
+        }
+      }
+      if (count == 0 && error == null) {
+        continue;
+      }
+      batch.configurations++;
+      sb.append(firstLine + i).append('\t');
+      if (error == null) {
+        try {
+          OutcomeConstraints.Selection selection =
+              constraints.select(Arrays.copyOf(ids, count));
+          if (selection.isConsistent()) {
+            sb.append("ok\n");
+            continue;
+          }
+          batch.conflicts++;
+          sb.append("conflict\t");
+          int[] conflicts = selection.getConflicts();
+          for (int j = 0; j < conflicts.length; j++) {
+            sb.append(j == 0 ? "" : ",").append(conflicts[j]);
+          }
+          sb.append('\n');
+          continue;
+        } catch (IllegalArgumentException e) {
+          error = e.getMessage();
+        }
+      }
+      batch.invalid++;
+      sb.append("invalid\t").append(error).append('\n');
+    }
+    return batch;
+  }
+
+  /**
+   * Results of a batch of configurations.
+   */
+  private static class Batch {
+    private final StringBuilder results = new StringBuilder();
+    private int configurations;
+    private int conflicts;
+    private int invalid;
+  }
+
+  /**
+   * Numbers of the evaluated configurations.
+   */
+  public static class Summary {
+    private long configurations;
+    private long conflicts;
+    private long invalid;
+
+    public long getConfigurations() {
+      return configurations;
+    }
+
+    public long getConflicts() {
+      return conflicts;
+    }
+
+    public long getInvalid() {
+      return invalid;
+    }
+
+    @Override
+    public String toString() {
+      return configurations + " configurations evaluated, " + conflicts + " with conflicts, "
+          + invalid + " invalid";
+    }
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.DecisionRelation;
+import cloudDSF.RelationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Graph of the decisions of a cloudDSFPlus connected by decision relations of selected types e.g.
+ * requiring. The graph provides the strongly connected components, a topological order and the
+ * transitive closure of the decisions. The closure holds one bit row per component which is the
+ * union of the rows of its successors, thus the components are processed from the sinks upwards
+ * and the rows of components with the same distance to the sinks are calculated concurrently. The
+ * graph is a snapshot of the cloudDSF at construction time and can be queried concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public class DecisionGraph {
+  // components whose rows are calculated by one task
+  private static final int ROW_BLOCK = 64;
+  // graphs of frozen cloudDSFs by relation types, released with the cloudDSF
+  private static final Map<CloudDSF, Map<Set<RelationType>, DecisionGraph>> CACHE =
+      new WeakHashMap<CloudDSF, Map<Set<RelationType>, DecisionGraph>>();
+
+  // decision ids by index in model order
+  private final int[] ids;
+  private final Map<Integer, Integer> indexes = new HashMap<Integer, Integer>();
+  // targets of the relations of decision i are targets[offsets[i]] to targets[offsets[i + 1] - 1]
+  private final int[] offsets;
+  private final int[] targets;
+  // decision indexes of the components in topological order
+  private final int[][] components;
+  // component of every decision
+  private final int[] componentOf;
+  // decisions reachable from the decisions of a component by component
+  private final long[][] reach;
+
+  /**
+   * Builds the graph and its closure on the calling thread.
+   * 
+   * @param cdsf cloudDSFPlus whose decisions and decision relations are used
+   * @param types types of the relations forming the edges e.g. requiring
+   */
+  public DecisionGraph(CloudDSF cdsf, Set<RelationType> types) {
+    this(cdsf, types, true);
+  }
+
+  /**
+   * Builds the graph and calculates the rows of the closure concurrently.
+   * 
+   * @param cdsf cloudDSFPlus whose decisions and decision relations are used
+   * @param types types of the relations forming the edges e.g. requiring
+   * @param executor executor calculating blocks of rows
+   * @throws InterruptedException Waiting for the rows is interrupted
+   */
+  public DecisionGraph(CloudDSF cdsf, Set<RelationType> types, ExecutorService executor)
+      throws InterruptedException {
+    this(cdsf, types, false);
+    calculateClosure(executor);
+  }
+
+  /**
+   * Builds the graph and its components.
+   * 
+   * @param sequential true to calculate the closure on the calling thread
+   */
+  private DecisionGraph(CloudDSF cdsf, Set<RelationType> types, boolean sequential) {
+    List<Integer> idList = new ArrayList<Integer>();
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      for (Decision decision : dp.getDecisions()) {
+        // the first decision with an id is used like by the lookups of the cloudDSF
+        if (indexes.containsKey(decision.getId()) == false) {
+          indexes.put(decision.getId(), idList.size());
+          idList.add(decision.getId());
+        }
+      }
+    }
+    int size = idList.size();
+    ids = new int[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = idList.get(i);
+    }
+    // adjacency in compressed rows, the relations of a decision keep their list order
+    List<DecisionRelation> relations = cdsf.getInfluencingDecisions();
+    int[] sources = new int[relations.size()];
+    int[] relationTargets = new int[relations.size()];
+    int edges = 0;
+    offsets = new int[size + 1];
+    for (DecisionRelation relation : relations) {
+      Integer source = indexes.get(relation.getSource());
+      Integer target = indexes.get(relation.getTarget());
+      if (source != null && target != null
+          && types.contains(RelationType.fromLabel(relation.getType()))) {
+        sources[edges] = source;
+        relationTargets[edges++] = target;
+        offsets[source + 1]++;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    targets = new int[edges];
+    int[] next = Arrays.copyOf(offsets, size);
+    for (int i = 0; i < edges; i++) {
+      targets[next[sources[i]]++] = relationTargets[i];
+    }
+    components = findComponents();
+    componentOf = new int[size];
+    for (int c = 0; c < components.length; c++) {
+      for (int v : components[c]) {
+        componentOf[v] = c;
+      }
+    }
+    reach = new long[components.length][];
+    if (sequential) {
+      // successors precede in reverse topological order
+      for (int c = components.length - 1; c >= 0; c--) {
+        calculateRow(c);
+      }
+    }
+  }
+
+  /**
+   * Gets the graph of a frozen cloudDSF. The graph is built once per cloudDSF and types and kept as
+   * long as the cloudDSF is referenced.
+   * 
+   * @param cdsf frozen cloudDSFPlus
+   * @param types types of the relations forming the edges e.g. requiring
+   * @return graph of the cloudDSF
+   * @throws IllegalArgumentException if the cloudDSF is not frozen
+   */
+  public static DecisionGraph of(CloudDSF cdsf, Set<RelationType> types) {
+    if (cdsf.isFrozen() == false) {
+      throw new IllegalArgumentException("Only graphs of frozen cloudDSFs are cached");
+    }
+    Set<RelationType> key = Collections.unmodifiableSet(EnumSet.copyOf(types));
+    synchronized (CACHE) {
+      Map<Set<RelationType>, DecisionGraph> graphs = CACHE.get(cdsf);
+      if (graphs != null && graphs.containsKey(key)) {
+        return graphs.get(key);
+      }
+    }
+    // built outside of the lock, thus graphs of other cloudDSFs are not blocked
+    DecisionGraph graph = new DecisionGraph(cdsf, key);
+    synchronized (CACHE) {
+      Map<Set<RelationType>, DecisionGraph> graphs = CACHE.get(cdsf);
+      if (graphs == null) {
+        graphs = new HashMap<Set<RelationType>, DecisionGraph>();
+        CACHE.put(cdsf, graphs);
+      }
+      if (graphs.containsKey(key)) {
+        return graphs.get(key);
+      }
+      graphs.put(key, graph);
+      return graph;
+    }
+  }
+
+  /**
+   * Finds the strongly connected components with the algorithm of Tarjan. The recursion is
+   * replaced by an explicit stack, thus long chains of relations do not overflow the stack.
+   * 
+   * @return decision indexes of the components in topological order
+   */
+  private int[][] findComponents() {
+    int size = ids.length;
+    int[] index = new int[size];
+    Arrays.fill(index, -1);
+    int[] low = new int[size];
+    boolean[] onStack = new boolean[size];
+    int[] stack = new int[size];
+    int stackSize = 0;
+    int[] calls = new int[size];
+    int[] edges = new int[size];
+    int callSize = 0;
+    int counter = 0;
+    // components are found in reverse topological order
+    List<int[]> found = new ArrayList<int[]>();
+    for (int root = 0; root < size; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      index[root] = low[root] = counter++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      calls[callSize] = root;
+      edges[callSize++] = offsets[root];
+      while (callSize > 0) {
+        int v = calls[callSize - 1];
+        if (edges[callSize - 1] < offsets[v + 1]) {
+          int w = targets[edges[callSize - 1]++];
+          if (index[w] == -1) {
+            index[w] = low[w] = counter++;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+            calls[callSize] = w;
+            edges[callSize++] = offsets[w];
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], index[w]);
+          }
+          continue;
+        }
+        callSize--;
+        if (callSize > 0) {
+          int u = calls[callSize - 1];
+          low[u] = Math.min(low[u], low[v]);
+        }
+        if (low[v] == index[v]) {
+          int start = stackSize;
+          do {
+            onStack[stack[--start]] = false;
+          } while (stack[start] != v);
+          int[] component = Arrays.copyOfRange(stack, start, stackSize);
+          // members in model order
+          Arrays.sort(component);
+          found.add(component);
+          stackSize = start;
+        }
+      }
+    }
+    Collections.reverse(found);
+    return found.toArray(new int[found.size()][]);
+  }
+
+  /**
+   * Calculates the rows of the closure level by level. The level of a component is its longest
+   * distance to a component without successors, thus the rows of a level only depend on rows of
+   * lower levels.
+   */
+  private void calculateClosure(ExecutorService executor) throws InterruptedException {
+    int[] level = new int[components.length];
+    int levels = 0;
+    for (int c = components.length - 1; c >= 0; c--) {
+      for (int v : components[c]) {
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int successor = componentOf[targets[e]];
+          if (successor != c) {
+            level[c] = Math.max(level[c], level[successor] + 1);
+          }
+        }
+      }
+      levels = Math.max(levels, level[c] + 1);
+    }
+    // components of every level
+    int[][] byLevel = new int[levels][];
+    int[] counts = new int[levels];
+    for (int c = 0; c < components.length; c++) {
+      counts[level[c]]++;
+    }
+    for (int l = 0; l < levels; l++) {
+      byLevel[l] = new int[counts[l]];
+      counts[l] = 0;
+    }
+    for (int c = 0; c < components.length; c++) {
+      byLevel[level[c]][counts[level[c]]++] = c;
+    }
+    for (final int[] componentsOfLevel : byLevel) {
+      List<Callable<Void>> blocks = new ArrayList<Callable<Void>>();
+      for (int from = 0; from < componentsOfLevel.length; from += ROW_BLOCK) {
+        final int start = from;
+        final int end = Math.min(from + ROW_BLOCK, componentsOfLevel.length);
+        blocks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int i = start; i < end; i++) {
+              calculateRow(componentsOfLevel[i]);
+            }
+            return null;
+          }
+        });
+      }
+      // the rows of the next level read the rows of this level
+      for (Future<Void> future : executor.invokeAll(blocks)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+              : new IllegalStateException("Closure could not be calculated", e.getCause());
+        }
+      }
+    }
+  }
+
+  /**
+   * Calculates the row of a component from the rows of its successors.
+   */
+  private void calculateRow(int component) {
+    long[] row = new long[Bitsets.words(ids.length)];
+    for (int v : components[component]) {
+      for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+        int w = targets[e];
+        // members of a cycle are set by the relations within the component
+        Bitsets.set(row, w);
+        int successor = componentOf[w];
+        if (successor != component) {
+          Bitsets.or(row, reach[successor]);
+        }
+      }
+    }
+    reach[component] = row;
+  }
+
+  /**
+   * Gets the number of decisions.
+   * 
+   * @return number of decisions
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Gets all decisions reachable from a decision over one or more relations e.g. everything it
+   * transitively requires.
+   * 
+   * @param decisionId id of the decision
+   * @return ids of the reachable decisions in model order, containing the decision itself only if
+   *         it is part of a cycle
+   * @throws IllegalArgumentException if the id is not a decision
+   */
+  public int[] getReachable(int decisionId) {
+    long[] row = reach[componentOf[indexOf(decisionId)]];
+    int[] result = new int[Bitsets.cardinality(row)];
+    int i = 0;
+    for (int index = Bitsets.nextSetBit(row, 0); index >= 0;
+        index = Bitsets.nextSetBit(row, index + 1)) {
+      result[i++] = ids[index];
+    }
+    return result;
+  }
+
+  /**
+   * Checks if a decision is reachable from another one over one or more relations.
+   * 
+   * @param sourceId id of the source decision
+   * @param targetId id of the target decision
+   * @return true if a path from source to target exists
+   * @throws IllegalArgumentException if an id is not a decision
+   */
+  public boolean isReachable(int sourceId, int targetId) {
+    return Bitsets.get(reach[componentOf[indexOf(sourceId)]], indexOf(targetId));
+  }
+
+  /**
+   * Gets the strongly connected components of the decisions.
+   * 
+   * @return decision ids of every component, the components in topological order and their
+   *         decisions in model order
+   */
+  public List<int[]> getComponents() {
+    List<int[]> result = new ArrayList<int[]>(components.length);
+    for (int[] component : components) {
+      result.add(toIds(component));
+    }
+    return result;
+  }
+
+  /**
+   * Gets the cycles of the decisions. Every cycle is a component with more than one decision or a
+   * decision with a relation to itself.
+   * 
+   * @return decision ids of the cycles in topological order of their components
+   */
+  public List<int[]> getCycles() {
+    List<int[]> result = new ArrayList<int[]>();
+    for (int c = 0; c < components.length; c++) {
+      if (isCycle(c)) {
+        result.add(toIds(components[c]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks if any decision is part of a cycle.
+   * 
+   * @return true if the relations contain a cycle
+   */
+  public boolean hasCycles() {
+    for (int c = 0; c < components.length; c++) {
+      if (isCycle(c)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the decisions in topological order, thus the source of every relation precedes its target
+   * unless both are part of the same cycle. The decisions of a cycle are adjacent.
+   * 
+   * @return decision ids in topological order
+   */
+  public int[] getTopologicalOrder() {
+    int[] result = new int[ids.length];
+    int i = 0;
+    for (int[] component : components) {
+      for (int v : component) {
+        result[i++] = ids[v];
+      }
+    }
+    return result;
+  }
+
+  private boolean isCycle(int component) {
+    int v = components[component][0];
+    return components[component].length > 1 || Bitsets.get(reach[component], v);
+  }
+
+  private int indexOf(int decisionId) {
+    Integer index = indexes.get(decisionId);
+    if (index == null) {
+      throw new IllegalArgumentException("Decision " + decisionId + " does not exist");
+    }
+    return index;
+  }
+
+  private int[] toIds(int[] indexes) {
+    int[] result = new int[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      result[i] = ids[indexes[i]];
+    }
+    return result;
+  }
+}
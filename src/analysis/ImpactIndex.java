@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.CloudDSFEntity;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.DecisionRelation;
+import cloudDSF.Outcome;
+import cloudDSF.OutcomeRelation;
+import cloudDSF.Relation;
+import cloudDSF.Task;
+import cloudDSF.TaskRelation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers impact queries over the entities and relations of a cloudDSF e.g. before an entity is
+ * removed or renamed. The relations of every entity are indexed in both directions in compressed
+ * rows, thus a query only visits the relations it returns or traverses instead of all relations.
+ * The index refers to the relation lists of the cloudDSF, which therefore must not be modified
+ * afterwards e.g. by building the index from a frozen cloudDSF. Queries can run concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public class ImpactIndex {
+  private final List<DecisionRelation> decisionRelations;
+  private final List<OutcomeRelation> outcomeRelations;
+  private final List<TaskRelation> taskRelations;
+
+  // entity ids by index, decision points, decisions, outcomes and tasks in model order
+  private final int[] ids;
+  // indexes of the entities by id per kind, ids of different kinds may be equal
+  private final Map<Integer, Integer> decisionPoints = new HashMap<Integer, Integer>();
+  private final Map<Integer, Integer> decisions = new HashMap<Integer, Integer>();
+  private final Map<Integer, Integer> outcomes = new HashMap<Integer, Integer>();
+  private final Map<Integer, Integer> tasks = new HashMap<Integer, Integer>();
+  // entity index of the decision point of every entity, -1 for tasks
+  private final int[] decisionPointOf;
+  // outcome entity indexes of a decision by its entity index
+  private final Map<Integer, int[]> outcomesOf = new HashMap<Integer, int[]>();
+
+  // relations are numbered decision relations first, then outcome and task relations
+  private final int[] sources;
+  private final int[] targets;
+  // relations by source entity in forwardRelations[forwardOffsets[i]] to
+  // forwardRelations[forwardOffsets[i + 1] - 1], likewise by target entity
+  private final int[] forwardOffsets;
+  private final int[] forwardRelations;
+  private final int[] reverseOffsets;
+  private final int[] reverseRelations;
+
+  /**
+   * Default constructor.
+   * 
+   * @param cdsf cloudDSF which is not modified afterwards
+   */
+  public ImpactIndex(CloudDSF cdsf) {
+    decisionRelations = cdsf.getInfluencingDecisions();
+    outcomeRelations = cdsf.getInfluencingOutcomes();
+    taskRelations = cdsf.getInfluencingTasks();
+    List<Integer> idList = new ArrayList<Integer>();
+    List<Integer> dpList = new ArrayList<Integer>();
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      int dpIndex = add(decisionPoints, dp, idList);
+      dpList.add(dpIndex);
+      for (Decision decision : dp.getDecisions()) {
+        int decisionIndex = add(decisions, decision, idList);
+        dpList.add(dpIndex);
+        int[] outcomeIndexes = new int[decision.getOutcomes().size()];
+        for (int i = 0; i < outcomeIndexes.length; i++) {
+          outcomeIndexes[i] = add(outcomes, decision.getOutcomes().get(i), idList);
+          dpList.add(dpIndex);
+        }
+        if (outcomesOf.containsKey(decisionIndex) == false) {
+          outcomesOf.put(decisionIndex, outcomeIndexes);
+        }
+      }
+    }
+    for (Task task : cdsf.getTasks()) {
+      add(tasks, task, idList);
+      dpList.add(-1);
+    }
+    int entities = idList.size();
+    ids = new int[entities];
+    decisionPointOf = new int[entities];
+    for (int i = 0; i < entities; i++) {
+      ids[i] = idList.get(i);
+      decisionPointOf[i] = dpList.get(i);
+    }
+
+    int count = decisionRelations.size() + outcomeRelations.size() + taskRelations.size();
+    sources = new int[count];
+    targets = new int[count];
+    int r = 0;
+    for (DecisionRelation relation : decisionRelations) {
+      sources[r] = lookup(decisions, relation.getSource());
+      targets[r++] = lookup(decisions, relation.getTarget());
+    }
+    for (OutcomeRelation relation : outcomeRelations) {
+      sources[r] = lookup(outcomes, relation.getSource());
+      targets[r++] = lookup(outcomes, relation.getTarget());
+    }
+    for (TaskRelation relation : taskRelations) {
+      // task relations point from the task to the decision or backwards
+      if (relation.isFromTask()) {
+        sources[r] = lookup(tasks, relation.getSource());
+        targets[r++] = lookup(decisions, relation.getTarget());
+      } else {
+        sources[r] = lookup(decisions, relation.getSource());
+        targets[r++] = lookup(tasks, relation.getTarget());
+      }
+    }
+    forwardOffsets = new int[entities + 1];
+    forwardRelations = group(sources, forwardOffsets);
+    reverseOffsets = new int[entities + 1];
+    reverseRelations = group(targets, reverseOffsets);
+  }
+
+  /**
+   * Adds an entity unless an entity of the same kind and id exists.
+   * 
+   * @return index of the entity
+   */
+  private static int add(Map<Integer, Integer> kind, CloudDSFEntity entity, List<Integer> idList) {
+    Integer index = kind.get(entity.getId());
+    if (index == null) {
+      // duplicates share the index of the first entity like with the lookups of the cloudDSF
+      index = idList.size();
+      kind.put(entity.getId(), index);
+    }
+    // every entity gets a slot, thus the parallel lists stay aligned
+    idList.add(entity.getId());
+    return index;
+  }
+
+  private static int lookup(Map<Integer, Integer> kind, int id) {
+    Integer index = kind.get(id);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Groups the relations by entity with a counting sort, thus the relations of an entity keep
+   * their order.
+   * 
+   * @param entities entity index of every relation, -1 if the entity does not exist
+   * @param offsets receives the start of the relations of every entity
+   * @return relation numbers grouped by entity
+   */
+  private static int[] group(int[] entities, int[] offsets) {
+    int count = 0;
+    for (int entity : entities) {
+      if (entity >= 0) {
+        offsets[entity + 1]++;
+        count++;
+      }
+    }
+    for (int i = 1; i < offsets.length; i++) {
+      offsets[i] += offsets[i - 1];
+    }
+    int[] grouped = new int[count];
+    int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+    for (int r = 0; r < entities.length; r++) {
+      if (entities[r] >= 0) {
+        grouped[next[entities[r]]++] = r;
+      }
+    }
+    return grouped;
+  }
+
+  /**
+   * Gets all relations touching an entity i.e. the relations starting at the entity followed by
+   * the relations ending at it. All entities with the id are considered e.g. a decision and a task
+   * with the same id.
+   * 
+   * @param entityId id of a decision, outcome or task
+   * @return relations in the order of their relation lists, empty if none exists
+   */
+  public List<Relation> getRelations(int entityId) {
+    List<Relation> result = new ArrayList<Relation>();
+    for (int entity : indexesOf(entityId)) {
+      for (int i = forwardOffsets[entity]; i < forwardOffsets[entity + 1]; i++) {
+        result.add(getRelation(forwardRelations[i]));
+      }
+      for (int i = reverseOffsets[entity]; i < reverseOffsets[entity + 1]; i++) {
+        int r = reverseRelations[i];
+        // relations to itself have already been added
+        if (sources[r] != entity) {
+          result.add(getRelation(r));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the outcomes affected by the removal of a decision, which are its own outcomes and the
+   * outcomes having an outcome relation to or from one of them.
+   * 
+   * @param decisionId id of the decision
+   * @return outcome ids in model order
+   * @throws IllegalArgumentException if the id is not a decision
+   */
+  public int[] getAffectedOutcomes(int decisionId) {
+    Integer decision = decisions.get(decisionId);
+    if (decision == null) {
+      throw new IllegalArgumentException("Decision " + decisionId + " does not exist");
+    }
+    Set<Integer> affected = new HashSet<Integer>();
+    for (int outcome : outcomesOf.get(decision)) {
+      affected.add(outcome);
+      for (int i = forwardOffsets[outcome]; i < forwardOffsets[outcome + 1]; i++) {
+        addOutcome(affected, targets[forwardRelations[i]], forwardRelations[i]);
+      }
+      for (int i = reverseOffsets[outcome]; i < reverseOffsets[outcome + 1]; i++) {
+        addOutcome(affected, sources[reverseRelations[i]], reverseRelations[i]);
+      }
+    }
+    return toIds(affected);
+  }
+
+  /**
+   * Gets the decision points whose outcomes are reachable from an outcome over one or more outcome
+   * relations. The query visits the reachable outcomes and their relations only.
+   * 
+   * @param outcomeId id of the outcome
+   * @return decision point ids in model order
+   * @throws IllegalArgumentException if the id is not an outcome
+   */
+  public int[] getReachableDecisionPoints(int outcomeId) {
+    Integer start = outcomes.get(outcomeId);
+    if (start == null) {
+      throw new IllegalArgumentException("Outcome " + outcomeId + " does not exist");
+    }
+    Set<Integer> visited = new HashSet<Integer>();
+    Set<Integer> reached = new HashSet<Integer>();
+    ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+    queue.add(start);
+    while (queue.isEmpty() == false) {
+      int outcome = queue.poll();
+      for (int i = forwardOffsets[outcome]; i < forwardOffsets[outcome + 1]; i++) {
+        int r = forwardRelations[i];
+        int target = targets[r];
+        if (isOutcomeRelation(r) && target >= 0 && visited.add(target)) {
+          reached.add(decisionPointOf[target]);
+          queue.add(target);
+        }
+      }
+    }
+    return toIds(reached);
+  }
+
+  private void addOutcome(Set<Integer> affected, int outcome, int relation) {
+    if (isOutcomeRelation(relation) && outcome >= 0) {
+      affected.add(outcome);
+    }
+  }
+
+  private boolean isOutcomeRelation(int relation) {
+    return relation >= decisionRelations.size()
+        && relation < decisionRelations.size() + outcomeRelations.size();
+  }
+
+  /**
+   * Gets the relation of a relation number.
+   */
+  private Relation getRelation(int relation) {
+    if (relation < decisionRelations.size()) {
+      return decisionRelations.get(relation);
+    }
+    relation -= decisionRelations.size();
+    if (relation < outcomeRelations.size()) {
+      return outcomeRelations.get(relation);
+    }
+    return taskRelations.get(relation - outcomeRelations.size());
+  }
+
+  /**
+   * Gets the indexes of all entities with the id.
+   */
+  private List<Integer> indexesOf(int entityId) {
+    List<Integer> result = new ArrayList<Integer>(1);
+    for (Map<Integer, Integer> kind : Arrays.asList(decisionPoints, decisions, outcomes, tasks)) {
+      Integer index = kind.get(entityId);
+      if (index != null) {
+        result.add(index);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Converts entity indexes into ids in model order.
+   */
+  private int[] toIds(Set<Integer> indexes) {
+    int[] sorted = new int[indexes.size()];
+    int i = 0;
+    for (int index : indexes) {
+      sorted[i++] = index;
+    }
+    Arrays.sort(sorted);
+    for (i = 0; i < sorted.length; i++) {
+      sorted[i] = ids[sorted[i]];
+    }
+    return sorted;
+  }
+}
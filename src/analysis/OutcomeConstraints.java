@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.Outcome;
+import cloudDSF.OutcomeRelation;
+import cloudDSF.RelationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a selection of outcomes against the outcome relations of a cloudDSFPlus. Selected
+ * outcomes enforce the targets of their including (in) and binding (eb) relations, which are
+ * selected as well, and exclude the targets of their excluding (ex) relations together with the
+ * other outcomes of their decision. The relations of every outcome are precomputed as bitsets over
+ * the outcomes, thus each propagation step is a word-wise OR. The constraints are a snapshot of the
+ * cloudDSF at construction time and can be evaluated concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public class OutcomeConstraints {
+  // outcome ids by index in model order
+  private final int[] ids;
+  private final Map<Integer, Integer> indexes = new HashMap<Integer, Integer>();
+  // targets of in and eb relations by outcome index
+  private final long[][] enforces;
+  // targets of ex relations and outcomes of the same decision by outcome index
+  private final long[][] excludes;
+
+  /**
+   * Default constructor.
+   * 
+   * @param cdsf cloudDSFPlus whose outcomes and outcome relations are evaluated
+   */
+  public OutcomeConstraints(CloudDSF cdsf) {
+    List<Outcome> outcomes = new ArrayList<Outcome>();
+    // index ranges of the outcomes of every decision, the outcomes of a decision are consecutive
+    List<int[]> ranges = new ArrayList<int[]>();
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      for (Decision decision : dp.getDecisions()) {
+        int start = outcomes.size();
+        for (Outcome outcome : decision.getOutcomes()) {
+          // the first outcome with an id is used like by the lookups of the cloudDSF
+          if (indexes.containsKey(outcome.getId()) == false) {
+            indexes.put(outcome.getId(), outcomes.size());
+            outcomes.add(outcome);
+          }
+        }
+        ranges.add(new int[] {start, outcomes.size()});
+      }
+    }
+    int size = outcomes.size();
+    int words = Bitsets.words(size);
+    ids = new int[size];
+    enforces = new long[size][words];
+    excludes = new long[size][words];
+    for (int i = 0; i < size; i++) {
+      ids[i] = outcomes.get(i).getId();
+    }
+    // outcomes of a decision exclude each other
+    for (int[] range : ranges) {
+      for (int i = range[0]; i < range[1]; i++) {
+        Bitsets.setRange(excludes[i], range[0], range[1]);
+        Bitsets.clear(excludes[i], i);
+      }
+    }
+    for (OutcomeRelation relation : cdsf.getInfluencingOutcomes()) {
+      Integer source = indexes.get(relation.getSource());
+      Integer target = indexes.get(relation.getTarget());
+      if (source == null || target == null) {
+        continue;
+      }
+      RelationType type = RelationType.fromLabel(relation.getType());
+      if (type == RelationType.INCLUDING || type == RelationType.BINDING_OUTCOME) {
+        Bitsets.set(enforces[source], target);
+      } else if (type == RelationType.EXCLUDING) {
+        Bitsets.set(excludes[source], target);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of outcomes.
+   * 
+   * @return number of outcomes
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Evaluates the selection of outcomes.
+   * 
+   * @param outcomeIds ids of the chosen outcomes
+   * @return chosen, enforced, excluded and allowed outcomes
+   * @throws IllegalArgumentException if an id is not an outcome
+   */
+  public Selection select(int... outcomeIds) {
+    long[] chosen = new long[Bitsets.words(ids.length)];
+    for (int id : outcomeIds) {
+      Bitsets.set(chosen, indexOf(id));
+    }
+    return select(chosen);
+  }
+
+  /**
+   * Evaluates the selection of outcomes given as bitset over the outcome indexes.
+   * 
+   * @param chosen bitset of the chosen outcomes, not modified
+   * @return chosen, enforced, excluded and allowed outcomes
+   */
+  Selection select(long[] chosen) {
+    int words = chosen.length;
+    long[] selected = chosen.clone();
+    long[] excluded = new long[words];
+    long[] frontier = chosen.clone();
+    long[] next = new long[words];
+    // every outcome joins the frontier once, thus the loop ends after at most size steps
+    while (Bitsets.isEmpty(frontier) == false) {
+      for (int w = 0; w < words; w++) {
+        long word = frontier[w];
+        while (word != 0) {
+          int index = (w << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          Bitsets.or(next, enforces[index]);
+          Bitsets.or(excluded, excludes[index]);
+        }
+      }
+      Bitsets.andNot(next, selected);
+      Bitsets.or(selected, next);
+      long[] swap = frontier;
+      frontier = next;
+      next = swap;
+      Arrays.fill(next, 0L);
+    }
+    return new Selection(this, chosen.clone(), selected, excluded);
+  }
+
+  /**
+   * Gets the index of an outcome.
+   * 
+   * @param outcomeId id of the outcome
+   * @return index of the outcome in model order
+   * @throws IllegalArgumentException if the id is not an outcome
+   */
+  int indexOf(int outcomeId) {
+    Integer index = indexes.get(outcomeId);
+    if (index == null) {
+      throw new IllegalArgumentException("Outcome " + outcomeId + " does not exist");
+    }
+    return index;
+  }
+
+  /**
+   * Gets the id of an outcome.
+   * 
+   * @param index index of the outcome in model order
+   * @return id of the outcome
+   */
+  int idOf(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Result of the evaluation of a selection. Outcomes are returned in model order.
+   */
+  public static class Selection {
+    private final OutcomeConstraints constraints;
+    private final long[] chosen;
+    private final long[] selected;
+    private final long[] excluded;
+
+    Selection(OutcomeConstraints constraints, long[] chosen, long[] selected, long[] excluded) {
+      this.constraints = constraints;
+      this.chosen = chosen;
+      this.selected = selected;
+      this.excluded = excluded;
+    }
+
+    /**
+     * Gets the outcomes chosen by the user.
+     * 
+     * @return ids of the chosen outcomes
+     */
+    public int[] getChosen() {
+      return toIds(chosen);
+    }
+
+    /**
+     * Gets the outcomes enforced by the chosen outcomes directly or transitively.
+     * 
+     * @return ids of the enforced outcomes which are not chosen
+     */
+    public int[] getEnforced() {
+      long[] enforced = selected.clone();
+      Bitsets.andNot(enforced, chosen);
+      return toIds(enforced);
+    }
+
+    /**
+     * Gets the outcomes excluded by the chosen or enforced outcomes.
+     * 
+     * @return ids of the excluded outcomes, including conflicting selected ones
+     */
+    public int[] getExcluded() {
+      return toIds(excluded);
+    }
+
+    /**
+     * Gets the outcomes which can still be chosen.
+     * 
+     * @return ids of the outcomes neither selected nor excluded
+     */
+    public int[] getAllowed() {
+      long[] allowed = new long[selected.length];
+      Bitsets.setRange(allowed, 0, constraints.size());
+      Bitsets.andNot(allowed, selected);
+      Bitsets.andNot(allowed, excluded);
+      return toIds(allowed);
+    }
+
+    /**
+     * Gets the outcomes which are selected and excluded at the same time.
+     * 
+     * @return ids of the conflicting outcomes
+     */
+    public int[] getConflicts() {
+      long[] conflicts = selected.clone();
+      Bitsets.and(conflicts, excluded);
+      return toIds(conflicts);
+    }
+
+    /**
+     * Checks if no selected outcome is excluded.
+     * 
+     * @return true if the selection has no conflicts
+     */
+    public boolean isConsistent() {
+      return Bitsets.intersects(selected, excluded) == false;
+    }
+
+    /**
+     * Checks if an outcome is chosen or enforced.
+     * 
+     * @param outcomeId id of the outcome
+     * @return true if the outcome is selected
+     * @throws IllegalArgumentException if the id is not an outcome
+     */
+    public boolean isSelected(int outcomeId) {
+      return Bitsets.get(selected, constraints.indexOf(outcomeId));
+    }
+
+    /**
+     * Checks if an outcome is excluded.
+     * 
+     * @param outcomeId id of the outcome
+     * @return true if the outcome is excluded
+     * @throws IllegalArgumentException if the id is not an outcome
+     */
+    public boolean isExcluded(int outcomeId) {
+      return Bitsets.get(excluded, constraints.indexOf(outcomeId));
+    }
+
+    /**
+     * Gets the bitset of the chosen and enforced outcomes.
+     * 
+     * @return bitset over the outcome indexes, must not be modified
+     */
+    long[] getSelectedBits() {
+      return selected;
+    }
+
+    /**
+     * Gets the bitset of the excluded outcomes.
+     * 
+     * @return bitset over the outcome indexes, must not be modified
+     */
+    long[] getExcludedBits() {
+      return excluded;
+    }
+
+    private int[] toIds(long[] bits) {
+      int[] result = new int[Bitsets.cardinality(bits)];
+      int i = 0;
+      for (int index = Bitsets.nextSetBit(bits, 0); index >= 0;
+          index = Bitsets.nextSetBit(bits, index + 1)) {
+        result[i++] = constraints.idOf(index);
+      }
+      return result;
+    }
+  }
+}
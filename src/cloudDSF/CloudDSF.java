@@ -17,14 +17,20 @@ package cloudDSF;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import cloudDSF.ValidationReport.CheckResult;
+
 import util.CloudDSFEntityComparator;
 import util.RelationComparator;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Represents the coudDSF(Plus) object with decision points, decisions, outcomes and their
@@ -34,6 +40,10 @@ import java.util.Set;
  */
 
 public class CloudDSF extends CloudDSFEntity {
+  /**
+   * Default number of relations checked by one task of the concurrent sanity check.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 512;
   /**
    * Contains all decision points of the clouddsf.
    */
@@ -41,11 +51,12 @@ public class CloudDSF extends CloudDSFEntity {
   /**
    * contains all relations between decisions (i.e. requiring, influencing, binding, affecting)
    */
-  private List<DecisionRelation> influencingDecisions = new ArrayList<DecisionRelation>();
+  private RelationStore<DecisionRelation> influencingDecisions =
+      new RelationStore.DecisionRelations();
   /**
    * contain all relations between decisions (i.e. aff, eb, a, ex, in)
    */
-  private List<OutcomeRelation> influencingOutcomes = new ArrayList<OutcomeRelation>();
+  private RelationStore<OutcomeRelation> influencingOutcomes = new RelationStore.OutcomeRelations();
   /**
    * contains all relations between tasks and decisions, null in case of cloudDSFPlus.
    */
@@ -59,6 +70,48 @@ public class CloudDSF extends CloudDSFEntity {
    * cloudDSFVisualizations, null for cloudDSFPlus.
    */
   private List<Relation> influencingRelations = new ArrayList<Relation>();
+  /**
+   * Index of all decision points by name. Kept up to date by addDecisionPoint.
+   */
+  @JsonIgnore
+  private Map<String, DecisionPoint> decisionPointsByLabel = new HashMap<String, DecisionPoint>();
+  /**
+   * Index of all decisions by name. Kept up to date by the decision points of the cloudDSF.
+   */
+  @JsonIgnore
+  private Map<String, Decision> decisionsByLabel = new HashMap<String, Decision>();
+  /**
+   * Index of all decisions by id.
+   */
+  @JsonIgnore
+  private Map<Integer, Decision> decisionsById = new HashMap<Integer, Decision>();
+  /**
+   * Index of all outcomes by name. Kept up to date by the decisions of the cloudDSF.
+   */
+  @JsonIgnore
+  private Map<String, Outcome> outcomesByLabel = new HashMap<String, Outcome>();
+  /**
+   * Index of all outcomes by id.
+   */
+  @JsonIgnore
+  private Map<Integer, Outcome> outcomesById = new HashMap<Integer, Outcome>();
+  /**
+   * Index of all tasks by name. Kept up to date by addTask.
+   */
+  @JsonIgnore
+  private Map<String, Task> tasksByLabel = new HashMap<String, Task>();
+  /**
+   * Index over the relations, null until it is needed by a check.
+   */
+  @JsonIgnore
+  private RelationIndex relationIndex;
+  /**
+   * Versions of the decision and outcome relations the index has been built from.
+   */
+  @JsonIgnore
+  private int indexedDecisionsVersion;
+  @JsonIgnore
+  private int indexedOutcomesVersion;
 
   /**
    * Default constructor.
@@ -85,7 +138,30 @@ public class CloudDSF extends CloudDSFEntity {
       String explanation) {
     int source = getDecision(startDecision).getId();
     int target = getDecision(endDecision).getId();
-    influencingDecisions.add(new DecisionRelation(source, target, type, explanation));
+    // explanation is not part of the model yet
+    setDecisionRelation(source, target, type);
+  }
+
+  /**
+   * Adds new entry into influencingDecisions for the CloudDSFPlus.
+   * 
+   * @param source id of source decision
+   * @param target id of target decision
+   * @param type relationship type
+   */
+  public void setDecisionRelation(int source, int target, String type) {
+    influencingDecisions.add(source, target, type.toLowerCase());
+  }
+
+  /**
+   * Adds new entry into influencingDecisions for the CloudDSFPlus without converting the type.
+   * 
+   * @param source id of source decision
+   * @param target id of target decision
+   * @param type relationship type
+   */
+  public void setDecisionRelation(int source, int target, RelationType type) {
+    influencingDecisions.add(source, target, type);
   }
 
   /**
@@ -98,7 +174,17 @@ public class CloudDSF extends CloudDSFEntity {
   public void setLegacyDecisionRelation(String startDecision, String endDecision) {
     int source = getDecision(startDecision).getId();
     int target = getDecision(endDecision).getId();
-    influencingDecisions.add(new DecisionRelation(source, target));
+    setLegacyDecisionRelation(source, target);
+  }
+
+  /**
+   * Adds new entry into influencingDecisions for the CloudDSF.
+   * 
+   * @param source id of source decision
+   * @param target id of target decision
+   */
+  public void setLegacyDecisionRelation(int source, int target) {
+    influencingDecisions.add(source, target, RelationType.LEGACY_DECISION.getLabel());
   }
 
   /**
@@ -115,7 +201,30 @@ public class CloudDSF extends CloudDSFEntity {
       String explanation, String additionalInfo) {
     int source = getOutcome(startOutcome).getId();
     int target = getOutcome(endOutcome).getId();
-    influencingOutcomes.add(new OutcomeRelation(source, target, type, explanation));
+    // explanation is not part of the model yet
+    setOutcomeRelation(source, target, type);
+  }
+
+  /**
+   * Adds new entry to influencingOutcomes.
+   * 
+   * @param source id of source outcome
+   * @param target id of target outcome
+   * @param type relationship type of outcome e.g. ex, in, a
+   */
+  public void setOutcomeRelation(int source, int target, String type) {
+    influencingOutcomes.add(source, target, type);
+  }
+
+  /**
+   * Adds new entry to influencingOutcomes without converting the type.
+   * 
+   * @param source id of source outcome
+   * @param target id of target outcome
+   * @param type relationship type of outcome
+   */
+  public void setOutcomeRelation(int source, int target, RelationType type) {
+    influencingOutcomes.add(source, target, type);
   }
 
   /**
@@ -126,30 +235,43 @@ public class CloudDSF extends CloudDSFEntity {
    * @param dir direction of relationship
    */
   public void setTaskRelation(String sourceDesc, String targetDesc, String dir) {
+    setTaskRelation(getTask(sourceDesc).getId(), getDecision(targetDesc).getId(), dir);
+  }
+
+  /**
+   * Sets task relation according to the specified type.
+   * 
+   * @param taskId id of the task
+   * @param decisionId id of the decision
+   * @param dir direction of relationship
+   */
+  public void setTaskRelation(int taskId, int decisionId, String dir) {
     int source = 0;
     int target = 0;
+    boolean fromTask = true;
     // depending on direction different relation has to be set.
     switch (dir) {
       case "oneWay":
-        source = getTask(sourceDesc).getId();
-        target = getDecision(targetDesc).getId();
+        source = taskId;
+        target = decisionId;
         dir = "auto";
         break;
       case "twoWay":
-        source = getTask(sourceDesc).getId();
-        target = getDecision(targetDesc).getId();
+        source = taskId;
+        target = decisionId;
         dir = "both";
         break;
       // switch of source and target
       case "backwards":
-        source = getDecision(targetDesc).getId();
-        target = getTask(sourceDesc).getId();
+        source = decisionId;
+        target = taskId;
+        fromTask = false;
         dir = "auto";
         break;
     // no default always has to have a specified direction
     }
     // add new task relation
-    TaskRelation tr = new TaskRelation(source, target, dir);
+    TaskRelation tr = new TaskRelation(source, target, dir, fromTask);
     influencingTasks.add(tr);
   }
 
@@ -160,12 +282,40 @@ public class CloudDSF extends CloudDSFEntity {
    * @return decision point or null if decision point does not exist
    */
   public DecisionPoint getDecisionPoint(String decisionPointName) {
-    for (DecisionPoint decisionPoint : decisionPoints) {
-      if (decisionPoint.getLabel().equals(decisionPointName)) {
-        return decisionPoint;
-      }
-    }
-    return null;
+    return decisionPointsByLabel.get(decisionPointName);
+  }
+
+  /**
+   * Retrieves the id of a decision by name.
+   * 
+   * @param decisionName name of desired decision
+   * @return id of the decision or -1 if decision does not exist
+   */
+  public int getDecisionId(String decisionName) {
+    Decision decision = getDecision(decisionName);
+    return decision == null ? -1 : decision.getId();
+  }
+
+  /**
+   * Retrieves the id of an outcome by name.
+   * 
+   * @param outcomeName name of desired outcome
+   * @return id of the outcome or -1 if outcome does not exist
+   */
+  public int getOutcomeId(String outcomeName) {
+    Outcome outcome = getOutcome(outcomeName);
+    return outcome == null ? -1 : outcome.getId();
+  }
+
+  /**
+   * Retrieves the id of a task by name.
+   * 
+   * @param taskName name of desired task
+   * @return id of the task or -1 if task does not exist
+   */
+  public int getTaskId(String taskName) {
+    Task task = getTask(taskName);
+    return task == null ? -1 : task.getId();
   }
 
   /**
@@ -175,13 +325,7 @@ public class CloudDSF extends CloudDSFEntity {
    * @return decision or null if decision does not exist
    */
   private Decision getDecision(String decisionName) {
-    for (DecisionPoint dp : decisionPoints) {
-      Decision dec = dp.getDecision(decisionName);
-      if (dec != null) {
-        return dec;
-      }
-    }
-    return null;
+    return decisionsByLabel.get(decisionName);
   }
 
   /**
@@ -191,13 +335,7 @@ public class CloudDSF extends CloudDSFEntity {
    * @return decision or null if decision does not exist
    */
   private Decision getDecision(int decisionId) {
-    for (DecisionPoint dp : decisionPoints) {
-      Decision dec = dp.getDecision(decisionId);
-      if (dec != null) {
-        return dec;
-      }
-    }
-    return null;
+    return decisionsById.get(decisionId);
   }
 
   /**
@@ -207,15 +345,7 @@ public class CloudDSF extends CloudDSFEntity {
    * @return outcome or null if outcome does not exist
    */
   private Outcome getOutcome(String outcomeName) {
-    for (DecisionPoint dp : decisionPoints) {
-      for (Decision d : dp.getDecisions()) {
-        Outcome out = d.getOutcome(outcomeName);
-        if (out != null) {
-          return out;
-        }
-      }
-    }
-    return null;
+    return outcomesByLabel.get(outcomeName);
   }
 
   /**
@@ -225,15 +355,7 @@ public class CloudDSF extends CloudDSFEntity {
    * @return outcome or null if outcome does not exist
    */
   private Outcome getOutcome(int outcomeId) {
-    for (DecisionPoint dp : decisionPoints) {
-      for (Decision d : dp.getDecisions()) {
-        Outcome out = d.getOutcome(outcomeId);
-        if (out != null) {
-          return out;
-        }
-      }
-    }
-    return null;
+    return outcomesById.get(outcomeId);
   }
 
   /**
@@ -243,22 +365,56 @@ public class CloudDSF extends CloudDSFEntity {
    * @return task or null if task does not exist
    */
   private Task getTask(String taskName) {
-    for (Task t : tasks) {
-      if (t.getLabel().equals(taskName)) {
-        return t;
-      }
+    return tasksByLabel.get(taskName);
+  }
+
+  /**
+   * Adds a decision and its outcomes to the lookup indexes. Called by the decision points of this
+   * cloudDSF whenever a decision is added to them.
+   * 
+   * @param decision decision to index
+   */
+  void registerDecision(Decision decision) {
+    decision.setCloudDSF(this);
+    putFirst(decisionsByLabel, decision.getLabel(), decision);
+    putFirst(decisionsById, decision.getId(), decision);
+    for (Outcome outcome : decision.getOutcomes()) {
+      registerOutcome(outcome);
+    }
+  }
+
+  /**
+   * Adds an outcome to the lookup indexes. Called by the decisions of this cloudDSF whenever an
+   * outcome is added to them.
+   * 
+   * @param outcome outcome to index
+   */
+  void registerOutcome(Outcome outcome) {
+    putFirst(outcomesByLabel, outcome.getLabel(), outcome);
+    putFirst(outcomesById, outcome.getId(), outcome);
+  }
+
+  /**
+   * Puts value into the index unless the key is already present. Thus the first entity with a
+   * certain name or id is found like with the traversal of the lists.
+   * 
+   * @param index index to add the value to
+   * @param key name or id of the entity
+   * @param value entity
+   */
+  private static <K, V> void putFirst(Map<K, V> index, K key, V value) {
+    if (index.containsKey(key) == false) {
+      index.put(key, value);
     }
-    return null;
   }
 
   /**
    * Sort of all relations to produce sorted output in id ascending order of the source.
    */
   public void sortLists() {
-    RelationComparator rc = new RelationComparator();
-    Collections.sort(influencingDecisions, rc);
-    Collections.sort(influencingOutcomes, rc);
-    Collections.sort(influencingTasks, rc);
+    influencingDecisions.sortBySource();
+    influencingOutcomes.sortBySource();
+    Collections.sort(influencingTasks, new RelationComparator());
   }
 
   /**
@@ -284,12 +440,28 @@ public class CloudDSF extends CloudDSFEntity {
     Collections.sort(influencingRelations, new RelationComparator());
   }
 
+  /**
+   * Adds decision point and indexes it together with its decisions and outcomes.
+   * 
+   * @param dp decision point to add
+   */
   public void addDecisionPoint(DecisionPoint dp) {
     decisionPoints.add(dp);
+    dp.setCloudDSF(this);
+    putFirst(decisionPointsByLabel, dp.getLabel(), dp);
+    for (Decision decision : dp.getDecisions()) {
+      registerDecision(decision);
+    }
   }
 
+  /**
+   * Adds task and indexes it by its name.
+   * 
+   * @param task task to add
+   */
   public void addTask(Task task) {
     tasks.add(task);
+    putFirst(tasksByLabel, task.getLabel(), task);
   }
 
   @JsonIgnore
@@ -297,6 +469,15 @@ public class CloudDSF extends CloudDSFEntity {
     return influencingTasks;
   }
 
+  /**
+   * Gets the relations between outcomes. The list stores the source, target and type of each
+   * relation only, thus every element access creates a new relation object which cannot be
+   * modified and throws an UnsupportedOperationException on every setter. A relation is changed by
+   * replacing it with set. Relations passed to add or set are not kept, only their source, target
+   * and type are copied into the list.
+   * 
+   * @return list of the relations between outcomes
+   */
   @JsonIgnore
   public List<OutcomeRelation> getInfluencingOutcomes() {
     return influencingOutcomes;
@@ -307,11 +488,30 @@ public class CloudDSF extends CloudDSFEntity {
     return decisionPoints;
   }
 
+  /**
+   * Gets the relations between decisions. The list stores the source, target and type of each
+   * relation only, thus every element access creates a new relation object which cannot be
+   * modified and throws an UnsupportedOperationException on every setter. A relation is changed by
+   * replacing it with set. Relations passed to add or set are not kept, only their source, target
+   * and type are copied into the list.
+   * 
+   * @return list of the relations between decisions
+   */
   @JsonIgnore
   public List<DecisionRelation> getInfluencingDecisions() {
     return influencingDecisions;
   }
 
+  // package private getters are not used by the object mapper
+
+  RelationStore<DecisionRelation> getDecisionRelationStore() {
+    return influencingDecisions;
+  }
+
+  RelationStore<OutcomeRelation> getOutcomeRelationStore() {
+    return influencingOutcomes;
+  }
+
   @JsonIgnore
   public List<Task> getTasks() {
     return tasks;
@@ -324,8 +524,12 @@ public class CloudDSF extends CloudDSFEntity {
 
   /**
    * Adds all relations from the task, decision and outcome list to the relations list for CloudDSF.
+   * The list of a frozen cloudDSF has already been built by freeze, thus it is left unchanged.
    */
   public void setInfluencingRelations() {
+    if (isFrozen()) {
+      return;
+    }
     influencingRelations.clear();
     influencingRelations.addAll(influencingDecisions);
     influencingRelations.addAll(influencingTasks);
@@ -333,6 +537,76 @@ public class CloudDSF extends CloudDSFEntity {
     sortInfluencingRelations();
   }
 
+  /**
+   * Creates an immutable snapshot of the cloudDSF. All lists of the snapshot are unmodifiable,
+   * the relations are stored in arrays trimmed to their size and the relation index used by the
+   * checks is built once. Thus any number of threads can query, validate and serialize the
+   * snapshot concurrently without locking, provided it is published safely e.g. through a volatile
+   * field. The relations list for the legacy visualizations is built if the cloudDSF has tasks.
+   * Modifications of the snapshot throw an UnsupportedOperationException. The snapshot is a deep
+   * copy with all attributes of the entities and relations, thus this cloudDSF stays modifiable and
+   * independent of the snapshot.
+   * 
+   * @return frozen copy or this cloudDSF if it is already frozen
+   */
+  public CloudDSF freeze() {
+    if (isFrozen()) {
+      return this;
+    }
+    // deep copy of all entities and relations, frozen afterwards
+    CloudDSF snapshot = new CloudDSF(getId(), getType(), getLabel());
+    snapshot.copyAttributes(this);
+    for (DecisionPoint dp : decisionPoints) {
+      snapshot.addDecisionPoint(dp.copy());
+    }
+    for (Task task : tasks) {
+      snapshot.addTask(task.copy());
+    }
+    snapshot.influencingDecisions.appendColumns(influencingDecisions);
+    snapshot.influencingOutcomes.appendColumns(influencingOutcomes);
+    for (TaskRelation taskRel : influencingTasks) {
+      snapshot.influencingTasks.add(taskRel.copy());
+    }
+    snapshot.freezeSnapshot();
+    return snapshot;
+  }
+
+  /**
+   * Prevents any further modification of this cloudDSF and its entities and relations.
+   */
+  private void freezeSnapshot() {
+    if (tasks.isEmpty() == false || influencingTasks.isEmpty() == false) {
+      setInfluencingRelations();
+    }
+    for (DecisionPoint dp : decisionPoints) {
+      dp.freeze();
+    }
+    for (Task task : tasks) {
+      task.markFrozen();
+    }
+    for (TaskRelation taskRel : influencingTasks) {
+      taskRel.markFrozen();
+    }
+    for (Relation relation : influencingRelations) {
+      relation.markFrozen();
+    }
+    decisionPoints = Collections.unmodifiableList(new ArrayList<DecisionPoint>(decisionPoints));
+    tasks = Collections.unmodifiableList(new ArrayList<Task>(tasks));
+    influencingTasks = Collections.unmodifiableList(new ArrayList<TaskRelation>(influencingTasks));
+    influencingRelations =
+        Collections.unmodifiableList(new ArrayList<Relation>(influencingRelations));
+    influencingDecisions.freeze();
+    influencingOutcomes.freeze();
+    decisionPointsByLabel = Collections.unmodifiableMap(decisionPointsByLabel);
+    decisionsByLabel = Collections.unmodifiableMap(decisionsByLabel);
+    decisionsById = Collections.unmodifiableMap(decisionsById);
+    outcomesByLabel = Collections.unmodifiableMap(outcomesByLabel);
+    outcomesById = Collections.unmodifiableMap(outcomesById);
+    tasksByLabel = Collections.unmodifiableMap(tasksByLabel);
+    createRelationIndex();
+    markFrozen();
+  }
+
   /**
    * Helper Method to print out content of cloudDSF Object to check content.
    */
@@ -543,17 +817,188 @@ public class CloudDSF extends CloudDSFEntity {
   }
 
   /**
-   * Executes all verification methods and returns the result.
+   * Executes all verification methods one after another and returns the result. Stops after the
+   * first failing check.
    * 
    * @return true if all checks are successfull otherwise false
    */
   public boolean checkSanity() {
-    return (checkAffBinDecRelations("affecting", "binding")
-        && checkAffBinDecRelations("binding", "affecting") && checkAffBinOutRelations("aff", "eb")
-        && checkAffBinOutRelations("eb", "aff") && checkDecRelComb() && checkDecRelForOutRel()
-        && checkInAOutRelations("in", "a", "in") && checkInAOutRelations("a", "a", "in")
-        && checkOutRelAmountForDecRel() && checkOutRelTypeForDecRel() && checkRelTypesDecisions()
-        && checkRelTypesOutcomes() && checkSingleOutcomeRel() && checkXOROutcomes());
+    return validate(true).isValid();
+  }
+
+  /**
+   * Executes all verification methods concurrently with the default chunk size.
+   * 
+   * @param executor executor running the checks e.g. a ForkJoinPool
+   * @return true if all checks are successfull otherwise false
+   * @throws InterruptedException Waiting for the checks is interrupted
+   * @see #validate(ExecutorService, int)
+   */
+  public boolean checkSanity(ExecutorService executor) throws InterruptedException {
+    return validate(executor, DEFAULT_CHUNK_SIZE).isValid();
+  }
+
+  /**
+   * Executes all verification methods concurrently.
+   * 
+   * @param executor executor running the checks e.g. a ForkJoinPool
+   * @param chunkSize maximum number of relations checked by one task
+   * @return true if all checks are successfull otherwise false
+   * @throws InterruptedException Waiting for the checks is interrupted
+   * @throws IllegalArgumentException if the chunk size is less than one
+   * @see #validate(ExecutorService, int)
+   */
+  public boolean checkSanity(ExecutorService executor, int chunkSize)
+      throws InterruptedException {
+    return validate(executor, chunkSize).isValid();
+  }
+
+  /**
+   * Executes all verification methods one after another and collects all violations.
+   * 
+   * @return report with the violations and execution times of all checks
+   */
+  public ValidationReport validate() {
+    return validate(false);
+  }
+
+  /**
+   * Executes all verification methods one after another.
+   * 
+   * @param stopAtFailure true if no further check is executed after a failing check
+   * @return report of the executed checks
+   */
+  private ValidationReport validate(boolean stopAtFailure) {
+    // index is built once and shared by all checks
+    RelationIndex index = createRelationIndex();
+    ValidationReport report = new ValidationReport();
+    for (SanityCheck check : SanityCheck.values()) {
+      CheckResult result = report.addCheckResult(check.getName());
+      check.execute(this, index, 0, check.size(this), result);
+      if (stopAtFailure && result.isValid() == false) {
+        break;
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Executes the verification methods affected by changed relations and takes over the results of
+   * all other methods from a previous report of this cloudDSF. The decision points, decisions and
+   * outcomes must not have changed since the previous report.
+   * 
+   * @param previous report of a previous validation
+   * @param decisionRelationsChanged true if decision relations have been changed
+   * @param outcomeRelationsChanged true if outcome relations have been changed
+   * @return report with the violations of all checks
+   */
+  public ValidationReport validateChanges(ValidationReport previous,
+      boolean decisionRelationsChanged, boolean outcomeRelationsChanged) {
+    Map<String, CheckResult> previousResults = new HashMap<String, CheckResult>();
+    for (CheckResult result : previous.getCheckResults()) {
+      previousResults.put(result.getCheck(), result);
+    }
+    // index is only built if a check has to be executed
+    RelationIndex index = null;
+    ValidationReport report = new ValidationReport();
+    for (SanityCheck check : SanityCheck.values()) {
+      CheckResult previousResult = previousResults.get(check.getName());
+      if (previousResult != null
+          && check.dependsOn(decisionRelationsChanged, outcomeRelationsChanged) == false) {
+        report.putCheckResult(previousResult);
+        continue;
+      }
+      if (index == null) {
+        index = createRelationIndex();
+      }
+      check.execute(this, index, 0, check.size(this), report.addCheckResult(check.getName()));
+    }
+    return report;
+  }
+
+  /**
+   * Executes all verification methods concurrently with the default chunk size.
+   * 
+   * @param executor executor running the checks e.g. a ForkJoinPool
+   * @return report with the violations and execution times of all checks
+   * @throws InterruptedException Waiting for the checks is interrupted
+   * @see #validate(ExecutorService, int)
+   */
+  public ValidationReport validate(ExecutorService executor) throws InterruptedException {
+    return validate(executor, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Executes all verification methods concurrently. Every check is split into chunks of the
+   * relation list it traverses and all chunks of all checks are submitted to the executor. The
+   * checks only read the cloudDSF, thus it must not be modified while they are running.
+   * 
+   * @param executor executor running the checks e.g. a ForkJoinPool
+   * @param chunkSize maximum number of relations checked by one task
+   * @return report with the violations and execution times of all checks
+   * @throws InterruptedException Waiting for the checks is interrupted
+   * @throws IllegalArgumentException if the chunk size is less than one
+   */
+  public ValidationReport validate(ExecutorService executor, int chunkSize)
+      throws InterruptedException {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("At least one relation per chunk is required");
+    }
+    final RelationIndex index = createRelationIndex();
+    ValidationReport report = new ValidationReport();
+    List<Callable<Void>> chunks = new ArrayList<Callable<Void>>();
+    for (final SanityCheck check : SanityCheck.values()) {
+      // create results in order of the checks
+      final CheckResult result = report.addCheckResult(check.getName());
+      int size = check.size(this);
+      for (int from = 0; from < size; from += chunkSize) {
+        final int start = from;
+        final int end = Math.min(size, from + chunkSize);
+        chunks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            check.execute(CloudDSF.this, index, start, end, result);
+            return null;
+          }
+        });
+      }
+    }
+    for (Future<Void> chunk : executor.invokeAll(chunks)) {
+      try {
+        chunk.get();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Sanity check could not be executed", e.getCause());
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Gets the index over the current decision and outcome relations. The index is kept until the
+   * relations change, thus consecutive checks share it.
+   * 
+   * @return relation index
+   */
+  private synchronized RelationIndex createRelationIndex() {
+    int decisionsVersion = influencingDecisions.getVersion();
+    int outcomesVersion = influencingOutcomes.getVersion();
+    if (relationIndex == null || decisionsVersion != indexedDecisionsVersion
+        || outcomesVersion != indexedOutcomesVersion) {
+      relationIndex = new RelationIndex(influencingDecisions, influencingOutcomes);
+      indexedDecisionsVersion = decisionsVersion;
+      indexedOutcomesVersion = outcomesVersion;
+    }
+    return relationIndex;
+  }
+
+  /**
+   * Creates result for the execution of a single check.
+   * 
+   * @param check name of the check
+   * @return empty result
+   */
+  private static CheckResult createCheckResult(String check) {
+    return new CheckResult(check);
   }
 
   /**
@@ -562,24 +1007,26 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkRelTypesDecisions() {
-    for (DecisionRelation decRel : influencingDecisions) {
-      switch (decRel.getType()) {
-        case "influencing":
-          break;
-        case "requiring":
-          break;
-        case "affecting":
-          break;
-        case "binding":
-          break;
-        default:
-          System.out.println("Fail: Wrong decision relation type " + decRel.getType()
-              + " found from " + decRel.getSource() + " to " + decRel.getTarget());
-          return false;
+    CheckResult result = createCheckResult("checkRelTypesDecisions");
+    checkRelTypesDecisions(0, influencingDecisions.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the decision relations from index from (inclusive) to index to (exclusive) of
+   * influencingDecisions for valid relationship types.
+   */
+  void checkRelTypesDecisions(int from, int to, CheckResult result) {
+    RelationStore<DecisionRelation> decRels = influencingDecisions;
+    for (int i = from; i < to; i++) {
+      RelationType type = decRels.getType(i);
+      if (type == null || type.isDecisionType() == false) {
+        int source = decRels.getSource(i);
+        int target = decRels.getTarget(i);
+        result.addViolation(source, target, "Wrong decision relation type "
+            + decRels.getTypeLabel(i) + " found from " + source + " to " + target);
       }
     }
-    System.out.println("Success: All decision relationship types are valid");
-    return true;
   }
 
   /**
@@ -588,26 +1035,26 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkRelTypesOutcomes() {
-    for (OutcomeRelation outRel : influencingOutcomes) {
-      switch (outRel.getType()) {
-        case "eb":
-          break;
-        case "in":
-          break;
-        case "a":
-          break;
-        case "ex":
-          break;
-        case "aff":
-          break;
-        default:
-          System.out.println("Fail: Wrong outcome relation type " + outRel.getType()
-              + " found from " + outRel.getSource() + " to " + outRel.getTarget());
-          return false;
+    CheckResult result = createCheckResult("checkRelTypesOutcomes");
+    checkRelTypesOutcomes(0, influencingOutcomes.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes for valid relationship types.
+   */
+  void checkRelTypesOutcomes(int from, int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    for (int i = from; i < to; i++) {
+      RelationType type = outRels.getType(i);
+      if (type == null || type.isOutcomeType() == false) {
+        int source = outRels.getSource(i);
+        int target = outRels.getTarget(i);
+        result.addViolation(source, target, "Wrong outcome relation type "
+            + outRels.getTypeLabel(i) + " found from " + source + " to " + target);
       }
     }
-    System.out.println("Success: All outcome relationship types are valid");
-    return true;
   }
 
   /**
@@ -617,49 +1064,58 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkDecRelComb() {
-    for (DecisionRelation decRel : influencingDecisions) {
+    CheckResult result = createCheckResult("checkDecRelComb");
+    checkDecRelComb(createRelationIndex(), 0, influencingDecisions.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the combinations of the decision relations from index from (inclusive) to index to
+   * (exclusive) of influencingDecisions. Each wrong combination is reported by the relation with
+   * the lexicographically smaller type.
+   */
+  void checkDecRelComb(RelationIndex index, int from, int to, CheckResult result) {
+    RelationStore<DecisionRelation> decRels = influencingDecisions;
+    RelationIndex.Adjacency decIndex = index.getDecisionRelations();
+    for (int i = from; i < to; i++) {
+      int source = decRels.getSource(i);
+      int target = decRels.getTarget(i);
       // type of first decisions
-      String relType = decRel.getType();
-      for (DecisionRelation decRelComp : influencingDecisions) {
-        if (decRelComp.getSource() == decRel.getSource()
-            && decRelComp.getTarget() == decRel.getTarget()) {
-          // another relation exists between the same two decisions
-          String relTypeComp = decRelComp.getType();
-          // both relations have the same type thus it is the same
-          // relations (or a duplicate)
-          if (relType.equals(relTypeComp)) {
-            continue;
-          } else {
-            // initial relation is requiring and compared relations
-            // is one of the other
-            if (relType.equals("requiring")
-                && (relTypeComp.equals("influencing") || relTypeComp.equals("affecting") || relTypeComp
-                    .equals("binding"))) {
-              continue;
-            }
-            // compared relationship is requiring and the initial
-            // rel is one of the other types
-            else if (relTypeComp.equals("requiring")
-                && (relType.equals("influencing") || relType.equals("affecting") || relType
-                    .equals("binding"))) {
-              continue;
-            }
-            // both relations are not requiring and thus an error
-            // exists
-            else {
-              System.out.println("Fail: Wrong decision relation combination between "
-                  + decRel.getSource() + " to " + decRel.getTarget() + " with relation type "
-                  + relType + " and " + relTypeComp);
-              return false;
-            }
-          }
+      int relType = decRels.getTypeCode(i);
+      // all relations between the same two decisions
+      for (int k = decIndex.find(source, target); decIndex.matches(k, source, target); k++) {
+        int j = decIndex.getPosition(k);
+        int relTypeComp = decRels.getTypeCode(j);
+        // both relations have the same type thus it is the same
+        // relations (or a duplicate)
+        if (relType == relTypeComp) {
+          continue;
+        }
+        // one relation is requiring and the other one of the other types
+        if (isRequiringCombination(decRels.getType(i), decRels.getType(j))
+            || isRequiringCombination(decRels.getType(j), decRels.getType(i))) {
+          continue;
+        }
+        // both relations are not requiring and thus an error
+        // exists, the reverse comparison reports nothing
+        String relLabel = decRels.getTypeLabel(i);
+        String relLabelComp = decRels.getTypeLabel(j);
+        if (relLabel.compareTo(relLabelComp) < 0) {
+          result.addViolation(source, target, "Wrong decision relation combination between "
+              + source + " to " + target + " with relation type " + relLabel + " and "
+              + relLabelComp);
         }
-        // otherweise relation is not between same decisions and is skipped
       }
     }
-    System.out
-        .println("Success: All decision relations are only existing in the only valid combination (requiring + any other)");
-    return true;
+  }
+
+  /**
+   * Checks if a requiring relation is combined with an influencing, affecting or binding relation.
+   */
+  private static boolean isRequiringCombination(RelationType type, RelationType typeComp) {
+    return type == RelationType.REQUIRING
+        && (typeComp == RelationType.INFLUENCING || typeComp == RelationType.AFFECTING
+            || typeComp == RelationType.BINDING);
   }
 
   /**
@@ -668,38 +1124,42 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkOutRelAmountForDecRel() {
-    for (DecisionRelation decRel : influencingDecisions) {
-      if (decRel.getType().equals("requiring") == false) {
+    CheckResult result = createCheckResult("checkOutRelAmountForDecRel");
+    checkOutRelAmountForDecRel(createRelationIndex(), 0, influencingDecisions.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the amount of outcome relations for the decision relations from index from (inclusive)
+   * to index to (exclusive) of influencingDecisions.
+   */
+  void checkOutRelAmountForDecRel(RelationIndex index, int from, int to, CheckResult result) {
+    RelationStore<DecisionRelation> decRels = influencingDecisions;
+    RelationIndex.Adjacency outIndex = index.getOutcomeRelations();
+    for (int i = from; i < to; i++) {
+      if (decRels.getType(i) != RelationType.REQUIRING) {
+        int source = decRels.getSource(i);
+        int target = decRels.getTarget(i);
         // set source and target outcome to check
-        Decision sourceDecision = getDecision(decRel.getSource());
-        Decision targetDecision = getDecision(decRel.getTarget());
+        Decision sourceDecision = getDecision(source);
+        Decision targetDecision = getDecision(target);
         // traverse starting outcomes
         int foundRelations =
             sourceDecision.getOutcomes().size() * targetDecision.getOutcomes().size();
         for (Outcome outSource : sourceDecision.getOutcomes()) {
           // traverse target outcomes
           for (Outcome outTarget : targetDecision.getOutcomes()) {
-            // traverse outcomeRelations
-            for (OutcomeRelation outRel : influencingOutcomes) {
-              // if source and target are found than a
-              // corresponding
-              // relation exists
-              if (outSource.getId() == outRel.getSource()
-                  && outTarget.getId() == outRel.getTarget()) {
-                foundRelations--;
-              }
-            }
+            // every relation between source and target is a corresponding relation
+            foundRelations -= outIndex.count(outSource.getId(), outTarget.getId());
           }
         }
         if (foundRelations != 0) {
-          System.out.println("Fail: There are " + foundRelations + " missing outcome relations");
-          return false;
+          result.addViolation(source, target, "There are " + foundRelations
+              + " missing outcome relations for the " + decRels.getTypeLabel(i)
+              + " relation from " + source + " to " + target);
         }
       }
     }
-    System.out
-        .println("Success: There are the exactly necessary amount of relations between outcomes per decision relation");
-    return true;
   }
 
   /**
@@ -708,25 +1168,32 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkDecRelForOutRel() {
+    CheckResult result = createCheckResult("checkDecRelForOutRel");
+    checkDecRelForOutRel(createRelationIndex(), 0, influencingOutcomes.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes for corresponding decision relations.
+   */
+  void checkDecRelForOutRel(RelationIndex index, int from, int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
     // iterate over all outcome relations
-    for (OutcomeRelation outRel : influencingOutcomes) {
+    for (int i = from; i < to; i++) {
+      int source = outRels.getSource(i);
+      int target = outRels.getTarget(i);
       // get decision for outcome relation
-      Decision decSource = getDecision(getOutcome(outRel.getSource()).getParent());
-      Decision decTarget = getDecision(getOutcome(outRel.getTarget()).getParent());
-      boolean found = false;
+      Decision decSource = getDecision(getOutcome(source).getParent());
+      Decision decTarget = getDecision(getOutcome(target).getParent());
       // check decision relations if relationship exists
-      for (DecisionRelation decRel : influencingDecisions) {
-        if (decSource.getId() == decRel.getSource() && decTarget.getId() == decRel.getTarget()) {
-          found = true;
-          break;
-        }
-      }
-      if (!found) {
+      if (index.getDecisionRelations().count(decSource.getId(), decTarget.getId()) == 0) {
         // no relation between decision for an outcome relation was found
-        return false;
+        result.addViolation(source, target, "Outcome relation from " + source + " to " + target
+            + " has no relation between its decisions " + decSource.getId() + " and "
+            + decTarget.getId());
       }
     }
-    return true;
   }
 
   /**
@@ -736,49 +1203,58 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkOutRelTypeForDecRel() {
-    for (DecisionRelation decRel : influencingDecisions) {
-      if (decRel.getType().equals("requiring") == false) {
+    CheckResult result = createCheckResult("checkOutRelTypeForDecRel");
+    checkOutRelTypeForDecRel(createRelationIndex(), 0, influencingDecisions.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relation types for the decision relations from index from (inclusive) to
+   * index to (exclusive) of influencingDecisions.
+   */
+  void checkOutRelTypeForDecRel(RelationIndex index, int from, int to, CheckResult result) {
+    RelationStore<DecisionRelation> decRels = influencingDecisions;
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    RelationIndex.Adjacency outIndex = index.getOutcomeRelations();
+    for (int i = from; i < to; i++) {
+      RelationType decType = decRels.getType(i);
+      if (decType != RelationType.REQUIRING) {
         // set source and target outcome to check
-        Decision sourceDecision = getDecision(decRel.getSource());
-        Decision targetDecision = getDecision(decRel.getTarget());
+        Decision sourceDecision = getDecision(decRels.getSource(i));
+        Decision targetDecision = getDecision(decRels.getTarget(i));
         // traverse starting outcomes
         for (Outcome outSource : sourceDecision.getOutcomes()) {
           // traverse target outcomes
           for (Outcome outTarget : targetDecision.getOutcomes()) {
-            // traverse outcomeRelations
-            for (OutcomeRelation outRel : influencingOutcomes) {
-              // if source and target are found than a
-              // corresponding relation exists
-              if (outSource.getId() == outRel.getSource()
-                  && outTarget.getId() == outRel.getTarget()) {
-                if (decRel.getType().equals("affecting")) {
-                  if (outRel.getType().equals("aff") == false) {
-                    System.out.println("Fail: An outcome relation (" + outRel.getType()
-                        + ") does not match with its affecting decision relation");
-                    return false;
-                  }
-                } else if (decRel.getType().equals("binding")) {
-                  if (outRel.getType().equals("eb") == false) {
-                    System.out.println("Fail: An outcome relation (" + outRel.getType()
-                        + ") does not match with its binding decision relation");
-                    return false;
-                  }
-                } else if (decRel.getType().equals("influencing")) {
-                  if (outRel.getType().equals("aff") || outRel.getType().equals("eb")) {
-                    System.out.println("Fail: An outcome relation (" + outRel.getType()
-                        + ") does not match with its influecing decision relation");
-                    return false;
-                  }
-                }
+            int outSourceId = outSource.getId();
+            int outTargetId = outTarget.getId();
+            // traverse corresponding outcome relations
+            for (int k = outIndex.find(outSourceId, outTargetId);
+                outIndex.matches(k, outSourceId, outTargetId); k++) {
+              int j = outIndex.getPosition(k);
+              RelationType outType = outRels.getType(j);
+              boolean valid = true;
+              if (decType == RelationType.AFFECTING) {
+                valid = outType == RelationType.AFFECTING_OUTCOME;
+              } else if (decType == RelationType.BINDING) {
+                valid = outType == RelationType.BINDING_OUTCOME;
+              } else if (decType == RelationType.INFLUENCING) {
+                valid = outType != RelationType.AFFECTING_OUTCOME
+                    && outType != RelationType.BINDING_OUTCOME;
+              }
+              if (valid == false) {
+                int source = outRels.getSource(j);
+                int target = outRels.getTarget(j);
+                result.addViolation(source, target, "An outcome relation ("
+                    + outRels.getTypeLabel(j) + ") from " + source + " to " + target
+                    + " does not match with its " + decRels.getTypeLabel(i)
+                    + " decision relation");
               }
             }
           }
         }
       }
     }
-    System.out
-        .println("Success: All outcome relations are valid corresponding to their decision relation");
-    return true;
   }
 
   /**
@@ -790,33 +1266,42 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkAffBinDecRelations(String type1, String type2) {
-    int aff = 0;
-    int bin = 0;
-    for (DecisionRelation decRel : influencingDecisions) {
+    CheckResult result = createCheckResult("checkAffBinDecRelations");
+    checkAffBinDecRelations(createRelationIndex(), type1, type2, 0, influencingDecisions.size(),
+        result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the decision relations from index from (inclusive) to index to (exclusive) of
+   * influencingDecisions for reverse relations.
+   */
+  void checkAffBinDecRelations(RelationIndex index, String type1, String type2, int from,
+      int to, CheckResult result) {
+    RelationStore<DecisionRelation> decRels = influencingDecisions;
+    // types are compared by their code, no relation has a type without code
+    int code1 = decRels.findTypeCode(type1);
+    int code2 = decRels.findTypeCode(type2);
+    RelationIndex.Adjacency decIndex = index.getDecisionRelations();
+    for (int i = from; i < to; i++) {
       // filter affecting relations only
-      if (decRel.getType().equals(type1)) {
-        aff++;
-        for (DecisionRelation decRelComp : influencingDecisions) {
-          // find relation for reverse case
-          if (decRel.getSource() == decRelComp.getTarget()
-              && decRel.getTarget() == decRelComp.getSource()) {
-            if (decRelComp.getType().equals(type2)) {
-              bin++;
-              break;
-            }
+      if (decRels.getTypeCode(i) == code1) {
+        int source = decRels.getSource(i);
+        int target = decRels.getTarget(i);
+        boolean found = false;
+        // find relation for reverse case
+        for (int k = decIndex.find(target, source); decIndex.matches(k, target, source); k++) {
+          if (decRels.getTypeCode(decIndex.getPosition(k)) == code2) {
+            found = true;
+            break;
           }
         }
+        if (found == false) {
+          result.addViolation(source, target, "The " + type1 + " decision relation from "
+              + source + " to " + target + " has no " + type2 + " relation in the reverse case");
+        }
       }
     }
-    if (aff != bin) {
-      // unequal amount of binding and affecting relations for decisions
-      System.out.println("Fail: There are not the same amount of " + type1 + " to " + type2
-          + " decision relations");
-      return false;
-    }
-    System.out.println("Success: There are the same amount of " + type1 + " to " + type2
-        + " decisions relations");
-    return true;
   }
 
   /**
@@ -828,33 +1313,42 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkAffBinOutRelations(String type1, String type2) {
-    int aff = 0;
-    int bin = 0;
-    for (OutcomeRelation outRel : influencingOutcomes) {
+    CheckResult result = createCheckResult("checkAffBinOutRelations");
+    checkAffBinOutRelations(createRelationIndex(), type1, type2, 0, influencingOutcomes.size(),
+        result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes for reverse relations.
+   */
+  void checkAffBinOutRelations(RelationIndex index, String type1, String type2, int from,
+      int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    // types are compared by their code, no relation has a type without code
+    int code1 = outRels.findTypeCode(type1);
+    int code2 = outRels.findTypeCode(type2);
+    RelationIndex.Adjacency outIndex = index.getOutcomeRelations();
+    for (int i = from; i < to; i++) {
       // filter affecting relations only
-      if (outRel.getType().equals(type1)) {
-        aff++;
-        for (OutcomeRelation outRelComp : influencingOutcomes) {
-          // find relation for reverse case
-          if (outRel.getSource() == outRelComp.getTarget()
-              && outRel.getTarget() == outRelComp.getSource()) {
-            if (outRelComp.getType().equals(type2)) {
-              bin++;
-              break;
-            }
+      if (outRels.getTypeCode(i) == code1) {
+        int source = outRels.getSource(i);
+        int target = outRels.getTarget(i);
+        boolean found = false;
+        // find relation for reverse case
+        for (int k = outIndex.find(target, source); outIndex.matches(k, target, source); k++) {
+          if (outRels.getTypeCode(outIndex.getPosition(k)) == code2) {
+            found = true;
+            break;
           }
         }
+        if (found == false) {
+          result.addViolation(source, target, "The " + type1 + " outcome relation from "
+              + source + " to " + target + " has no " + type2 + " relation in the reverse case");
+        }
       }
     }
-    if (aff != bin) {
-      // unequal amount of binding and affecting relations
-      System.out.println("Fail: There are not the same amount of " + type1 + " to " + type2
-          + " outcome relations");
-      return false;
-    }
-    System.out.println("Success: There are the same amount of " + type1 + " to " + type2
-        + " outcome relations");
-    return true;
   }
 
   /**
@@ -867,26 +1361,41 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkInAOutRelations(String type1, String type2, String type3) {
-    for (OutcomeRelation outRel : influencingOutcomes) {
-      if (outRel.getType().equals(type1)) {
-        for (OutcomeRelation outRelComp : influencingOutcomes) {
-          // find relation for reverse case
-          if (outRel.getSource() == outRelComp.getTarget()
-              && outRel.getTarget() == outRelComp.getSource()) {
-            if (outRelComp.getType().equals(type2) || outRelComp.getType().equals(type3)) {
-              break;
-            } else {
-              System.out
-                  .println("Fail: There is a conflict between two (vice versa) outcome relationship types");
-              return false;
-            }
+    CheckResult result = createCheckResult("checkInAOutRelations");
+    checkInAOutRelations(createRelationIndex(), type1, type2, type3, 0,
+        influencingOutcomes.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes against their reverse relations.
+   */
+  void checkInAOutRelations(RelationIndex index, String type1, String type2, String type3,
+      int from, int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    // types are compared by their code, no relation has a type without code
+    int code1 = outRels.findTypeCode(type1);
+    int code2 = outRels.findTypeCode(type2);
+    int code3 = outRels.findTypeCode(type3);
+    RelationIndex.Adjacency outIndex = index.getOutcomeRelations();
+    for (int i = from; i < to; i++) {
+      if (outRels.getTypeCode(i) == code1) {
+        int source = outRels.getSource(i);
+        int target = outRels.getTarget(i);
+        // find relation for reverse case, only the first one in list order is compared
+        int k = outIndex.find(target, source);
+        if (outIndex.matches(k, target, source)) {
+          int reverse = outIndex.getPosition(k);
+          int codeComp = outRels.getTypeCode(reverse);
+          if (codeComp != code2 && codeComp != code3) {
+            result.addViolation(source, target, "There is a conflict between the outcome "
+                + "relation (" + type1 + ") from " + source + " to " + target
+                + " and its reverse relation (" + outRels.getTypeLabel(reverse) + ")");
           }
         }
       }
     }
-    System.out
-        .println("Success: All outcome relations do not have an ex to in/a relation combination in the reverse case");
-    return true;
   }
 
   /**
@@ -895,29 +1404,34 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkXOROutcomes() {
-    // iterate all outcomes
-    for (DecisionPoint decisionPoint : decisionPoints) {
-      for (Decision decision : decisionPoint.getDecisions()) {
-        for (Outcome outcome : decision.getOutcomes()) {
-          // iterate over outcome relations for each outcome
-          for (OutcomeRelation outRel : influencingOutcomes) {
-            if (outcome.getId() == outRel.getSource()) {
-              if (outcome.getId() == outRel.getTarget()) {
-                // if target and source are equal
-                System.out.println("Fail: Outcome has a relation to itself");
-                return false;
-              } else if (outcome.getParent() == getOutcome(outRel.getTarget()).getParent()) {
-                // parental decision of both outcomes are similar
-                System.out.println("Fail: Outcome has relations towards outcome of same decision");
-                return false;
-              }
-            }
-          }
-        }
+    CheckResult result = createCheckResult("checkXOROutcomes");
+    checkXOROutcomes(0, influencingOutcomes.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes for relations within the same decision. Relations whose source is not an
+   * outcome of the cloudDSF are skipped.
+   */
+  void checkXOROutcomes(int from, int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    for (int i = from; i < to; i++) {
+      int source = outRels.getSource(i);
+      int target = outRels.getTarget(i);
+      Outcome outcome = getOutcome(source);
+      if (outcome == null) {
+        continue;
+      }
+      if (source == target) {
+        // if target and source are equal
+        result.addViolation(source, target, "Outcome " + source + " has a relation to itself");
+      } else if (outcome.getParent() == getOutcome(target).getParent()) {
+        // parental decision of both outcomes are similar
+        result.addViolation(source, target, "Outcome " + source
+            + " has relations towards outcome " + target + " of same decision");
       }
     }
-    System.out.println("Success: All outcomes satisfy the XOR rule");
-    return true;
   }
 
   /**
@@ -926,27 +1440,26 @@ public class CloudDSF extends CloudDSFEntity {
    * @return true if check successful otherwise false
    */
   public boolean checkSingleOutcomeRel() {
-    // traverse all outcomes
-    for (DecisionPoint decisionPoint : decisionPoints) {
-      for (Decision decision : decisionPoint.getDecisions()) {
-        for (Outcome outcome : decision.getOutcomes()) {
-          // set for target Ids
-          Set<Integer> uniqueTargets = new HashSet<Integer>();
-          for (OutcomeRelation outRel : influencingOutcomes) {
-            if (outcome.getId() == outRel.getSource()) {
-              // if adding returns false value is already in set thus
-              // a target has been twice in the target list for the respective outcome.
-              if (uniqueTargets.add(outRel.getTarget()) == false) {
-                System.out
-                    .println("Fail: One outcome has several relations towards another outcome");
-                return false;
-              }
-            }
-          }
-        }
+    CheckResult result = createCheckResult("checkSingleOutcomeRel");
+    checkSingleOutcomeRel(createRelationIndex(), 0, influencingOutcomes.size(), result);
+    return result.isValid();
+  }
+
+  /**
+   * Checks the outcome relations from index from (inclusive) to index to (exclusive) of
+   * influencingOutcomes for further relations between the same outcomes. Relations whose source is
+   * not an outcome of the cloudDSF are skipped.
+   */
+  void checkSingleOutcomeRel(RelationIndex index, int from, int to, CheckResult result) {
+    RelationStore<OutcomeRelation> outRels = influencingOutcomes;
+    for (int i = from; i < to; i++) {
+      int source = outRels.getSource(i);
+      int target = outRels.getTarget(i);
+      if (getOutcome(source) != null && index.getOutcomeRelations().count(source, target) > 1) {
+        // a target is twice in the target list for the respective outcome.
+        result.addViolation(source, target, "Outcome " + source
+            + " has several relations towards outcome " + target);
       }
     }
-    System.out.println("Success: All outcomes have only one relation towards other outcomes");
-    return true;
   }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a cloudDSF(Plus) containing all entities with their attributes in list
+ * order as well as the decision, outcome and task relations. Reading a written cloudDSF results
+ * in the same json output, thus it is used to cache parsed knowledge bases.
+ * 
+ * @author Metz
+ *
+ */
+public final class CloudDSFCodec {
+  /**
+   * Version of the binary format, increased whenever the format changes.
+   */
+  public static final int VERSION = 2;
+
+  private CloudDSFCodec() {
+  }
+
+  /**
+   * Writes a cloudDSF.
+   * 
+   * @param cdsf cloudDSF or cloudDSFPlus
+   * @param out target of the binary form
+   * @throws IOException Writing fails
+   */
+  public static void write(CloudDSF cdsf, DataOutput out) throws IOException {
+    writeEntity(cdsf, out);
+    out.writeInt(cdsf.getDecisionPoints().size());
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      writeEntity(dp, out);
+      out.writeInt(dp.getDecisions().size());
+      for (Decision decision : dp.getDecisions()) {
+        writeEntity(decision, out);
+        out.writeInt(decision.getOutcomes().size());
+        for (Outcome outcome : decision.getOutcomes()) {
+          writeEntity(outcome, out);
+        }
+      }
+    }
+    out.writeInt(cdsf.getTasks().size());
+    for (Task task : cdsf.getTasks()) {
+      writeEntity(task, out);
+    }
+    writeRelations(cdsf.getDecisionRelationStore(), out);
+    writeRelations(cdsf.getOutcomeRelationStore(), out);
+    out.writeInt(cdsf.getInfluencingTasks().size());
+    for (TaskRelation taskRel : cdsf.getInfluencingTasks()) {
+      out.writeInt(taskRel.getSource());
+      out.writeInt(taskRel.getTarget());
+      writeString(taskRel.getDir(), out);
+      out.writeBoolean(taskRel.isFromTask());
+    }
+  }
+
+  /**
+   * Reads a cloudDSF written by {@link #write(CloudDSF, DataOutput)}.
+   * 
+   * @param in source of the binary form
+   * @return cloudDSF or cloudDSFPlus
+   * @throws IOException Reading fails or the content is incomplete
+   */
+  public static CloudDSF read(DataInput in) throws IOException {
+    CloudDSF cdsf = new CloudDSF(in.readInt(), readString(in), readString(in));
+    readAttributes(cdsf, in);
+    int dpCount = in.readInt();
+    for (int i = 0; i < dpCount; i++) {
+      DecisionPoint dp = new DecisionPoint(null, in.readInt(), null);
+      readEntity(dp, in);
+      int decCount = in.readInt();
+      for (int j = 0; j < decCount; j++) {
+        Decision decision = new Decision(null, null, in.readInt(), 0);
+        readEntity(decision, in);
+        int outCount = in.readInt();
+        for (int k = 0; k < outCount; k++) {
+          Outcome outcome = new Outcome(null, in.readInt(), 0);
+          readEntity(outcome, in);
+          decision.addOutcome(outcome);
+        }
+        dp.addDecision(decision);
+      }
+      cdsf.addDecisionPoint(dp);
+    }
+    int taskCount = in.readInt();
+    for (int i = 0; i < taskCount; i++) {
+      Task task = new Task(in.readInt(), null);
+      readEntity(task, in);
+      cdsf.addTask(task);
+    }
+    List<String> decisionTypes = readTypes(in);
+    int decRelCount = in.readInt();
+    for (int i = 0; i < decRelCount; i++) {
+      cdsf.getDecisionRelationStore().add(in.readInt(), in.readInt(),
+          decisionTypes.get(in.readUnsignedByte()));
+    }
+    List<String> outcomeTypes = readTypes(in);
+    int outRelCount = in.readInt();
+    for (int i = 0; i < outRelCount; i++) {
+      cdsf.getOutcomeRelationStore().add(in.readInt(), in.readInt(),
+          outcomeTypes.get(in.readUnsignedByte()));
+    }
+    int taskRelCount = in.readInt();
+    for (int i = 0; i < taskRelCount; i++) {
+      cdsf.getInfluencingTasks().add(new TaskRelation(in.readInt(), in.readInt(), readString(in),
+          in.readBoolean()));
+    }
+    return cdsf;
+  }
+
+  /**
+   * Writes id, type, label and all other attributes of an entity.
+   */
+  private static void writeEntity(CloudDSFEntity entity, DataOutput out) throws IOException {
+    out.writeInt(entity.getId());
+    writeString(entity.getType(), out);
+    writeString(entity.getLabel(), out);
+    out.writeInt(entity.getParent());
+    writeString(entity.getClassification(), out);
+    out.writeInt(entity.getCluster());
+    writeString(entity.getGroup(), out);
+    writeString(entity.getDescription(), out);
+    writeString(entity.getAdditionalInfo(), out);
+    writeString(entity.getAbbrev(), out);
+  }
+
+  /**
+   * Reads type, label and all other attributes of an entity whose id has already been read.
+   */
+  private static void readEntity(CloudDSFEntity entity, DataInput in) throws IOException {
+    entity.setType(readString(in));
+    entity.setLabel(readString(in));
+    readAttributes(entity, in);
+  }
+
+  /**
+   * Reads the attributes following the label of an entity.
+   */
+  private static void readAttributes(CloudDSFEntity entity, DataInput in) throws IOException {
+    entity.setParent(in.readInt());
+    entity.setClassification(readString(in));
+    entity.setCluster(in.readInt());
+    entity.setGroup(readString(in));
+    entity.setDescription(readString(in));
+    entity.setAdditionalInfo(readString(in));
+    entity.setAbbrev(readString(in));
+  }
+
+  /**
+   * Writes the labels of the types used by the relations followed by the relations referring to
+   * them by index.
+   */
+  private static void writeRelations(RelationStore<?> relations, DataOutput out)
+      throws IOException {
+    List<String> types = new ArrayList<String>();
+    Map<String, Integer> codes = new HashMap<String, Integer>();
+    byte[] typeCodes = new byte[relations.size()];
+    for (int i = 0; i < relations.size(); i++) {
+      String type = relations.getTypeLabel(i);
+      Integer code = codes.get(type);
+      if (code == null) {
+        code = types.size();
+        codes.put(type, code);
+        types.add(type);
+      }
+      typeCodes[i] = (byte) code.intValue();
+    }
+    out.writeInt(types.size());
+    for (String type : types) {
+      writeString(type, out);
+    }
+    out.writeInt(relations.size());
+    for (int i = 0; i < relations.size(); i++) {
+      out.writeInt(relations.getSource(i));
+      out.writeInt(relations.getTarget(i));
+      out.writeByte(typeCodes[i]);
+    }
+  }
+
+  /**
+   * Reads the labels of the types of the following relations.
+   */
+  private static List<String> readTypes(DataInput in) throws IOException {
+    int count = in.readInt();
+    List<String> types = new ArrayList<String>(count);
+    for (int i = 0; i < count; i++) {
+      types.add(readString(in));
+    }
+    return types;
+  }
+
+  /**
+   * Writes a string as length followed by its utf-8 bytes, null as length -1.
+   */
+  private static void writeString(String value, DataOutput out) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by writeString.
+   */
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -14,6 +14,8 @@
 
 package cloudDSF;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Superclass for all entities of the cloudDSF(Plus).
  * 
@@ -21,7 +23,7 @@ package cloudDSF;
  *
  */
 public class CloudDSFEntity {
-  // Basic Information. Omitted getter for serialization purposes
+  // Basic Information. Omitted public getter for serialization purposes
   // unique id
   private int id;
   // name of object
@@ -33,20 +35,18 @@ public class CloudDSFEntity {
   // classification (legacy)
   private String classification;
   // decision point group e.g. 1, 2, 3, 4
-  @SuppressWarnings("unused")
   private int cluster;
   // type and cluster e.g. out1, dp4
-  @SuppressWarnings("unused")
   private String group;
   // description of the object
-  @SuppressWarnings("unused")
   private String description;
   // additional information
-  @SuppressWarnings("unused")
   private String additionalInfo;
   // short string for visualization purposes
-  @SuppressWarnings("unused")
   private String abbrev;
+  // true if the entity is part of a frozen cloudDSF
+  @JsonIgnore
+  private boolean frozen;
 
   /**
    * Default constructor for the CloudDSFEntity with the three basic information attributes.
@@ -66,6 +66,7 @@ public class CloudDSFEntity {
   }
 
   public void setId(int id) {
+    checkModifiable();
     this.id = id;
   }
 
@@ -74,6 +75,7 @@ public class CloudDSFEntity {
   }
 
   public void setLabel(String label) {
+    checkModifiable();
     this.label = label;
   }
 
@@ -82,14 +84,17 @@ public class CloudDSFEntity {
   }
 
   public void setType(String type) {
+    checkModifiable();
     this.type = type;
   }
 
   public void setParent(int parent) {
+    checkModifiable();
     this.parent = parent;
   }
 
   public void setClassification(String classification) {
+    checkModifiable();
     this.classification = classification;
   }
 
@@ -98,18 +103,22 @@ public class CloudDSFEntity {
   }
 
   public void setCluster(int cluster) {
+    checkModifiable();
     this.cluster = cluster;
   }
 
   public void setGroup(String group) {
+    checkModifiable();
     this.group = group;
   }
 
   public void setDescription(String description) {
+    checkModifiable();
     this.description = description;
   }
 
   public void setAdditionalInfo(String additionalInfo) {
+    checkModifiable();
     this.additionalInfo = additionalInfo;
   }
 
@@ -118,6 +127,77 @@ public class CloudDSFEntity {
   }
 
   public void setAbbrev(String abbrev) {
+    checkModifiable();
     this.abbrev = abbrev;
   }
+
+  /**
+   * Checks if the entity is part of a frozen cloudDSF and thus cannot be modified.
+   * 
+   * @return true if the entity is frozen
+   */
+  @JsonIgnore
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Prevents any further modification of the entity.
+   */
+  void markFrozen() {
+    frozen = true;
+  }
+
+  /**
+   * Copies all attributes of another entity into this entity, used to create copies of the
+   * entities of a cloudDSF.
+   * 
+   * @param entity entity whose attributes are copied
+   */
+  void copyAttributes(CloudDSFEntity entity) {
+    checkModifiable();
+    id = entity.id;
+    label = entity.label;
+    type = entity.type;
+    parent = entity.parent;
+    classification = entity.classification;
+    cluster = entity.cluster;
+    group = entity.group;
+    description = entity.description;
+    additionalInfo = entity.additionalInfo;
+    abbrev = entity.abbrev;
+  }
+
+  /**
+   * Checks that the entity can be modified.
+   * 
+   * @throws UnsupportedOperationException if the entity is frozen
+   */
+  private void checkModifiable() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Entity " + label + " is frozen");
+    }
+  }
+
+  // package private getters are not used by the object mapper
+
+  int getCluster() {
+    return cluster;
+  }
+
+  String getGroup() {
+    return group;
+  }
+
+  String getDescription() {
+    return description;
+  }
+
+  String getAdditionalInfo() {
+    return additionalInfo;
+  }
+
+  String getAbbrev() {
+    return abbrev;
+  }
 }
@@ -14,6 +14,7 @@
 
 package cloudDSF;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import util.CloudDSFEntityComparator;
@@ -34,6 +35,11 @@ public class Decision extends CloudDSFEntity {
    * List with all outcomes of the decision.
    */
   private List<Outcome> outcomes = new ArrayList<Outcome>();
+  /**
+   * CloudDSF the decision belongs to, null as long as it is not added to one.
+   */
+  @JsonIgnore
+  private CloudDSF cdsf;
 
   /**
    * Decision constructor for the cloudDSFPlus.
@@ -81,8 +87,45 @@ public class Decision extends CloudDSFEntity {
     Collections.sort(outcomes, new CloudDSFEntityComparator());
   }
 
+  /**
+   * Adds outcome and registers it at the cloudDSF if the decision already belongs to one.
+   * 
+   * @param outcome outcome to add
+   */
   public void addOutcome(Outcome outcome) {
     outcomes.add(outcome);
+    if (cdsf != null) {
+      cdsf.registerOutcome(outcome);
+    }
+  }
+
+  void setCloudDSF(CloudDSF cdsf) {
+    this.cdsf = cdsf;
+  }
+
+  /**
+   * Creates a modifiable copy of the decision and its outcomes.
+   * 
+   * @return copy with all attributes and copies of all outcomes of the decision
+   */
+  Decision copy() {
+    Decision copy = new Decision(getLabel(), getClassification(), getId(), getParent());
+    copy.copyAttributes(this);
+    for (Outcome outcome : outcomes) {
+      copy.addOutcome(outcome.copy());
+    }
+    return copy;
+  }
+
+  /**
+   * Prevents any further modification of the decision and its outcomes.
+   */
+  void freeze() {
+    for (Outcome outcome : outcomes) {
+      outcome.markFrozen();
+    }
+    outcomes = Collections.unmodifiableList(new ArrayList<Outcome>(outcomes));
+    markFrozen();
   }
 
   @JsonProperty("children")
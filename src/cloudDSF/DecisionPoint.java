@@ -14,6 +14,7 @@
 
 package cloudDSF;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import util.CloudDSFEntityComparator;
@@ -34,6 +35,11 @@ public class DecisionPoint extends CloudDSFEntity {
    * List with all decisions of the decision point.
    */
   private List<Decision> decisions = new ArrayList<Decision>();
+  /**
+   * CloudDSF the decision point belongs to, null as long as it is not added to one.
+   */
+  @JsonIgnore
+  private CloudDSF cdsf;
 
   /**
    * Decision point constructor for the cloudDSFPlus.
@@ -83,8 +89,45 @@ public class DecisionPoint extends CloudDSFEntity {
     return decisions;
   }
 
+  /**
+   * Adds decision and registers it at the cloudDSF if the decision point already belongs to one.
+   * 
+   * @param decision decision to add
+   */
   public void addDecision(Decision decision) {
     this.decisions.add(decision);
+    if (cdsf != null) {
+      cdsf.registerDecision(decision);
+    }
+  }
+
+  void setCloudDSF(CloudDSF cdsf) {
+    this.cdsf = cdsf;
+  }
+
+  /**
+   * Creates a modifiable copy of the decision point and its decisions.
+   * 
+   * @return copy with all attributes and copies of all decisions of the decision point
+   */
+  DecisionPoint copy() {
+    DecisionPoint copy = new DecisionPoint(getLabel(), getId(), getClassification());
+    copy.copyAttributes(this);
+    for (Decision decision : decisions) {
+      copy.addDecision(decision.copy());
+    }
+    return copy;
+  }
+
+  /**
+   * Prevents any further modification of the decision point and its decisions.
+   */
+  void freeze() {
+    for (Decision decision : decisions) {
+      decision.freeze();
+    }
+    decisions = Collections.unmodifiableList(new ArrayList<Decision>(decisions));
+    markFrozen();
   }
 
   /**
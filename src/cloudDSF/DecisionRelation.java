@@ -35,6 +35,19 @@ public class DecisionRelation extends Relation {
     // this.setExplanation(explanation);
   }
 
+  /**
+   * Decision relation constructor for a type label which is already in lower case, e.g. a label of
+   * a relation store.
+   * 
+   * @param source id of source decision
+   * @param target id of target decision
+   * @param type relationship type in lower case
+   */
+  DecisionRelation(int source, int target, String type) {
+    super(source, target, type);
+    this.setRelationGroup("decRel");
+  }
+
   /**
    * Decision relation constructor for cloudDSF.
    * 
@@ -55,4 +55,15 @@ public class Outcome extends CloudDSFEntity {
     super(id, "outcome", label);
     this.setParent(parent);
   }
+
+  /**
+   * Creates a modifiable copy of the outcome.
+   * 
+   * @return copy with all attributes of the outcome
+   */
+  Outcome copy() {
+    Outcome copy = new Outcome(getLabel(), getId(), getParent());
+    copy.copyAttributes(this);
+    return copy;
+  }
 }
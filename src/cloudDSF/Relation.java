@@ -1,5 +1,7 @@
 package cloudDSF;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Superclass for relations between entities in the cloudDSF and cloudDSFPlus.
  * 
@@ -31,6 +33,11 @@ public class Relation {
    * Additional info if necessary.
    */
   private String explanation;
+  /**
+   * Reason why the relation cannot be modified, null as long as it can be modified.
+   */
+  @JsonIgnore
+  private String readOnly;
 
   /**
    * Constructor for Relation.
@@ -50,6 +57,7 @@ public class Relation {
   }
 
   public void setTarget(int target) {
+    checkModifiable();
     this.target = target;
   }
 
@@ -58,6 +66,7 @@ public class Relation {
   }
 
   public void setSource(int source) {
+    checkModifiable();
     this.source = source;
   }
 
@@ -66,6 +75,7 @@ public class Relation {
   }
 
   public void setDir(String dir) {
+    checkModifiable();
     this.dir = dir;
   }
 
@@ -74,6 +84,7 @@ public class Relation {
   }
 
   public void setType(String type) {
+    checkModifiable();
     this.type = type;
   }
 
@@ -82,6 +93,7 @@ public class Relation {
   }
 
   public void setExplanation(String explanation) {
+    checkModifiable();
     this.explanation = explanation;
   }
 
@@ -90,6 +102,51 @@ public class Relation {
   }
 
   public void setRelationGroup(String relationGroup) {
+    checkModifiable();
     this.relationGroup = relationGroup;
   }
+
+  /**
+   * Copies all attributes of another relation into this relation, used to create copies of the
+   * relations of a cloudDSF.
+   * 
+   * @param relation relation whose attributes are copied
+   */
+  void copyAttributes(Relation relation) {
+    checkModifiable();
+    source = relation.source;
+    target = relation.target;
+    dir = relation.dir;
+    relationGroup = relation.relationGroup;
+    type = relation.type;
+    explanation = relation.explanation;
+  }
+
+  /**
+   * Prevents any further modification of the relation.
+   */
+  void markFrozen() {
+    readOnly = "Relation is frozen";
+  }
+
+  /**
+   * Prevents modifications of a relation created for an element of a relation list. Changes to
+   * such a relation would not be written back, thus the element has to be replaced instead.
+   */
+  void markDetached() {
+    if (readOnly == null) {
+      readOnly = "Relation is a copy of a list element, replace the element instead";
+    }
+  }
+
+  /**
+   * Checks that the relation can be modified.
+   * 
+   * @throws UnsupportedOperationException if the relation is frozen or a copy of a list element
+   */
+  private void checkModifiable() {
+    if (readOnly != null) {
+      throw new UnsupportedOperationException(readOnly);
+    }
+  }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import java.util.Arrays;
+
+/**
+ * Index over the decision and outcome relations of a cloudDSF. The packed source and target ids of
+ * the relations are sorted and grouped by source, thus the relations between two entities are found
+ * by a binary search within the relations of the source. The positions of the relations in their
+ * relation store keep the order of the store for each source and target. The index is a snapshot
+ * of the stores at construction time.
+ * 
+ * @author Metz
+ *
+ */
+class RelationIndex {
+  private final Adjacency decisionRelations;
+  private final Adjacency outcomeRelations;
+
+  /**
+   * Builds the index for the given relations.
+   * 
+   * @param influencingDecisions all relations between decisions
+   * @param influencingOutcomes all relations between outcomes
+   */
+  RelationIndex(RelationStore<DecisionRelation> influencingDecisions,
+      RelationStore<OutcomeRelation> influencingOutcomes) {
+    decisionRelations = new Adjacency(influencingDecisions);
+    outcomeRelations = new Adjacency(influencingOutcomes);
+  }
+
+  /**
+   * Packs source and target id into one key.
+   * 
+   * @param source id of source entity
+   * @param target id of target entity
+   * @return key of the relation
+   */
+  static long key(int source, int target) {
+    return ((long) source << 32) | (target & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Gets the index of the relations between decisions.
+   * 
+   * @return index of the decision relations
+   */
+  Adjacency getDecisionRelations() {
+    return decisionRelations;
+  }
+
+  /**
+   * Gets the index of the relations between outcomes.
+   * 
+   * @return index of the outcome relations
+   */
+  Adjacency getOutcomeRelations() {
+    return outcomeRelations;
+  }
+
+  /**
+   * Relations of one store in compressed rows. The keys of the relations of the i-th source are
+   * keys[offsets[i]] to keys[offsets[i + 1] - 1] in ascending order, the relations with equal keys
+   * are ordered by their position in the store. The relations between two entities are iterated
+   * by their slots:
+   * 
+   * <pre>
+   * for (int k = relations.find(source, target); relations.matches(k, source, target); k++) {
+   *   int position = relations.getPosition(k);
+   * }
+   * </pre>
+   */
+  static final class Adjacency {
+    // distinct source ids in ascending order
+    private final int[] sources;
+    private final int[] offsets;
+    private final long[] keys;
+    // positions in the relation store by slot
+    private final int[] positions;
+
+    private Adjacency(RelationStore<?> relations) {
+      int size = relations.size();
+      long[] relationKeys = new long[size];
+      for (int i = 0; i < size; i++) {
+        relationKeys[i] = key(relations.getSource(i), relations.getTarget(i));
+      }
+      keys = Arrays.copyOf(relationKeys, size);
+      Arrays.sort(keys);
+      // relations are placed after the relations with the same key and a lower position
+      positions = new int[size];
+      int[] filled = new int[size];
+      for (int i = 0; i < size; i++) {
+        int first = lowerBound(keys, 0, size, relationKeys[i]);
+        positions[first + filled[first]++] = i;
+      }
+      int sourceCount = 0;
+      for (int k = 0; k < size; k++) {
+        if (k == 0 || getSource(k) != getSource(k - 1)) {
+          sourceCount++;
+        }
+      }
+      sources = new int[sourceCount];
+      offsets = new int[sourceCount + 1];
+      int row = -1;
+      for (int k = 0; k < size; k++) {
+        if (k == 0 || getSource(k) != getSource(k - 1)) {
+          sources[++row] = getSource(k);
+          offsets[row] = k;
+        }
+      }
+      offsets[sourceCount] = size;
+    }
+
+    /**
+     * Finds the slot of the first relation between two entities.
+     * 
+     * @param source id of source entity
+     * @param target id of target entity
+     * @return slot of the first relation, a slot not matching the ids if none exists
+     */
+    int find(int source, int target) {
+      int row = Arrays.binarySearch(sources, source);
+      if (row < 0) {
+        return keys.length;
+      }
+      return lowerBound(keys, offsets[row], offsets[row + 1], key(source, target));
+    }
+
+    /**
+     * Checks if the slot holds a relation between two entities.
+     * 
+     * @param slot slot returned by find or following it
+     * @param source id of source entity
+     * @param target id of target entity
+     * @return true if the relation of the slot is between the entities
+     */
+    boolean matches(int slot, int source, int target) {
+      return slot < keys.length && keys[slot] == key(source, target);
+    }
+
+    /**
+     * Gets the position of the relation of a slot in the relation store.
+     * 
+     * @param slot slot of the relation
+     * @return position in the relation store
+     */
+    int getPosition(int slot) {
+      return positions[slot];
+    }
+
+    /**
+     * Counts the relations between two entities.
+     * 
+     * @param source id of source entity
+     * @param target id of target entity
+     * @return number of relations
+     */
+    int count(int source, int target) {
+      int first = find(source, target);
+      int slot = first;
+      while (matches(slot, source, target)) {
+        slot++;
+      }
+      return slot - first;
+    }
+
+    /**
+     * Gets the source id of the relation of a slot.
+     */
+    private int getSource(int slot) {
+      return (int) (keys[slot] >> 32);
+    }
+
+    /**
+     * Gets the first index from from (inclusive) to to (exclusive) whose key is not less than the
+     * given key, to if there is none.
+     */
+    private static int lowerBound(long[] keys, int from, int to, long key) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (keys[mid] < key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
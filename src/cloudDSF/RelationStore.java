@@ -0,0 +1,354 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column oriented list of relations storing source id, target id and a type code per relation in
+ * primitive arrays. Relation objects are only created when elements are accessed through the list
+ * interface, thus those objects cannot be modified and elements are changed by replacing them with
+ * {@link #set(int, Relation)}. All other attributes of a relation are derived from its kind and
+ * type.
+ * 
+ * @author Metz
+ *
+ * @param <R> kind of relation
+ */
+abstract class RelationStore<R extends Relation> extends AbstractList<R> implements RandomAccess {
+  private static final RelationType[] TYPES = RelationType.values();
+  // type codes are stored as unsigned bytes
+  private static final int MAX_TYPES = 256;
+
+  private int[] sources = new int[16];
+  private int[] targets = new int[16];
+  private byte[] types = new byte[16];
+  private int size;
+  // labels by type code, known types in order of RelationType followed by unknown labels
+  private final List<String> typeLabels = new ArrayList<String>();
+  // true if the store cannot be modified anymore
+  private boolean frozen;
+  // incremented on every change of a relation, unlike modCount also by set
+  private int version;
+
+  RelationStore() {
+    for (RelationType type : TYPES) {
+      typeLabels.add(type.getLabel());
+    }
+  }
+
+  /**
+   * Creates the relation object for an element of the store.
+   * 
+   * @param source id of source entity
+   * @param target id of target entity
+   * @param type label of the relationship type
+   * @return relation
+   */
+  abstract R createRelation(int source, int target, String type);
+
+  /**
+   * Appends a relation without creating a relation object.
+   * 
+   * @param source id of source entity
+   * @param target id of target entity
+   * @param type label of the relationship type
+   */
+  void add(int source, int target, String type) {
+    // checked before an unknown label is added
+    checkModifiable();
+    insert(size, source, target, getOrAddTypeCode(type));
+  }
+
+  /**
+   * Appends a relation of a known type without looking up its label.
+   * 
+   * @param source id of source entity
+   * @param target id of target entity
+   * @param type relationship type
+   */
+  void add(int source, int target, RelationType type) {
+    // the labels of the known types have the ordinals as codes
+    insert(size, source, target, (byte) type.ordinal());
+  }
+
+  int getSource(int index) {
+    checkIndex(index);
+    return sources[index];
+  }
+
+  int getTarget(int index) {
+    checkIndex(index);
+    return targets[index];
+  }
+
+  /**
+   * Gets the code of the relationship type of a relation. Equal codes denote equal types.
+   * 
+   * @param index index of the relation
+   * @return type code
+   */
+  int getTypeCode(int index) {
+    checkIndex(index);
+    return types[index] & 0xFF;
+  }
+
+  /**
+   * Gets the relationship type of a relation.
+   * 
+   * @param index index of the relation
+   * @return type or null if the relation has an unknown type
+   */
+  RelationType getType(int index) {
+    int code = getTypeCode(index);
+    return code < TYPES.length ? TYPES[code] : null;
+  }
+
+  /**
+   * Gets the label of the relationship type of a relation.
+   * 
+   * @param index index of the relation
+   * @return label of the type as added
+   */
+  String getTypeLabel(int index) {
+    return typeLabels.get(getTypeCode(index));
+  }
+
+  /**
+   * Gets the code of a type label without adding it.
+   * 
+   * @param type label of the relationship type
+   * @return type code or -1 if no relation has been added with the type
+   */
+  int findTypeCode(String type) {
+    RelationType known = RelationType.fromLabel(type);
+    if (known != null) {
+      return known.ordinal();
+    }
+    for (int code = TYPES.length; code < typeLabels.size(); code++) {
+      String label = typeLabels.get(code);
+      if (label == null ? type == null : label.equals(type)) {
+        return code;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the version of the relations, which changes whenever a relation is added, removed or
+   * replaced.
+   * 
+   * @return version
+   */
+  int getVersion() {
+    return version;
+  }
+
+  /**
+   * Sorts the relations by ascending source id. Relations with the same source keep their order.
+   */
+  void sortBySource() {
+    checkModifiable();
+    // source in the upper and original index in the lower half makes all keys unique
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) sources[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+    int[] sortedSources = new int[sources.length];
+    int[] sortedTargets = new int[targets.length];
+    byte[] sortedTypes = new byte[types.length];
+    for (int i = 0; i < size; i++) {
+      int index = (int) keys[i];
+      sortedSources[i] = sources[index];
+      sortedTargets[i] = targets[index];
+      sortedTypes[i] = types[index];
+    }
+    sources = sortedSources;
+    targets = sortedTargets;
+    types = sortedTypes;
+    modCount++;
+    version++;
+  }
+
+  @Override
+  public R get(int index) {
+    checkIndex(index);
+    R relation =
+        createRelation(sources[index], targets[index], typeLabels.get(types[index] & 0xFF));
+    if (frozen) {
+      relation.markFrozen();
+    } else {
+      relation.markDetached();
+    }
+    return relation;
+  }
+
+  @Override
+  public R set(int index, R relation) {
+    checkModifiable();
+    R old = get(index);
+    sources[index] = relation.getSource();
+    targets[index] = relation.getTarget();
+    types[index] = getOrAddTypeCode(relation.getType());
+    version++;
+    return old;
+  }
+
+  @Override
+  public void add(int index, R relation) {
+    // checked before an unknown label is added
+    checkModifiable();
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    insert(index, relation.getSource(), relation.getTarget(),
+        getOrAddTypeCode(relation.getType()));
+  }
+
+  @Override
+  public R remove(int index) {
+    checkModifiable();
+    R old = get(index);
+    int moved = size - index - 1;
+    System.arraycopy(sources, index + 1, sources, index, moved);
+    System.arraycopy(targets, index + 1, targets, index, moved);
+    System.arraycopy(types, index + 1, types, index, moved);
+    size--;
+    modCount++;
+    version++;
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    checkModifiable();
+    size = 0;
+    modCount++;
+    version++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Inserts a relation at the given index.
+   */
+  private void insert(int index, int source, int target, byte code) {
+    checkModifiable();
+    if (size == sources.length) {
+      int capacity = sources.length * 2;
+      sources = Arrays.copyOf(sources, capacity);
+      targets = Arrays.copyOf(targets, capacity);
+      types = Arrays.copyOf(types, capacity);
+    }
+    int moved = size - index;
+    System.arraycopy(sources, index, sources, index + 1, moved);
+    System.arraycopy(targets, index, targets, index + 1, moved);
+    System.arraycopy(types, index, types, index + 1, moved);
+    sources[index] = source;
+    targets[index] = target;
+    types[index] = code;
+    size++;
+    modCount++;
+    version++;
+  }
+
+  /**
+   * Gets the code of a type label and assigns a new code to unknown labels.
+   */
+  private byte getOrAddTypeCode(String type) {
+    int code = findTypeCode(type);
+    if (code < 0) {
+      if (typeLabels.size() == MAX_TYPES) {
+        throw new IllegalStateException("Too many different relationship types");
+      }
+      code = typeLabels.size();
+      typeLabels.add(type);
+    }
+    return (byte) code;
+  }
+
+  /**
+   * Appends all relations of another store of the same kind by copying its columns. Type labels
+   * are looked up once per code of the other store.
+   * 
+   * @param relations relations to copy
+   */
+  void appendColumns(RelationStore<R> relations) {
+    checkModifiable();
+    int[] codes = new int[relations.typeLabels.size()];
+    Arrays.fill(codes, -1);
+    for (int i = 0; i < relations.size; i++) {
+      int code = relations.types[i] & 0xFF;
+      if (codes[code] < 0) {
+        codes[code] = getOrAddTypeCode(relations.typeLabels.get(code)) & 0xFF;
+      }
+      insert(size, relations.sources[i], relations.targets[i], (byte) codes[code]);
+    }
+  }
+
+  /**
+   * Prevents any further modification and releases the unused capacity of the arrays.
+   */
+  void freeze() {
+    sources = Arrays.copyOf(sources, size);
+    targets = Arrays.copyOf(targets, size);
+    types = Arrays.copyOf(types, size);
+    frozen = true;
+  }
+
+  private void checkModifiable() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Relations are frozen");
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  /**
+   * Relations between decisions of the cloudDSF or the cloudDSFPlus.
+   */
+  static final class DecisionRelations extends RelationStore<DecisionRelation> {
+    @Override
+    DecisionRelation createRelation(int source, int target, String type) {
+      if (RelationType.LEGACY_DECISION.getLabel().equals(type)) {
+        return new DecisionRelation(source, target);
+      }
+      // labels are lower case when they are added, thus they are not converted again
+      return new DecisionRelation(source, target, type);
+    }
+  }
+
+  /**
+   * Relations between outcomes of the cloudDSFPlus.
+   */
+  static final class OutcomeRelations extends RelationStore<OutcomeRelation> {
+    @Override
+    OutcomeRelation createRelation(int source, int target, String type) {
+      return new OutcomeRelation(source, target, type, null);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+/**
+ * Known relationship types of decision and outcome relations together with their label used in
+ * the knowledge base and the json files.
+ * 
+ * @author Metz
+ *
+ */
+public enum RelationType {
+  // decision relations of the cloudDSFPlus
+  INFLUENCING("influencing"),
+  REQUIRING("requiring"),
+  AFFECTING("affecting"),
+  BINDING("binding"),
+  // decision relations of the legacy cloudDSF
+  LEGACY_DECISION("DecRel"),
+  // outcome relations
+  INCLUDING("in"),
+  EXCLUDING("ex"),
+  ALLOWING("a"),
+  BINDING_OUTCOME("eb"),
+  AFFECTING_OUTCOME("aff");
+
+  private final String label;
+
+  private RelationType(String label) {
+    this.label = label;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  /**
+   * Checks if the type is valid for a decision relation of the cloudDSFPlus.
+   * 
+   * @return true if the type is influencing, requiring, affecting or binding
+   */
+  public boolean isDecisionType() {
+    return this == INFLUENCING || this == REQUIRING || this == AFFECTING || this == BINDING;
+  }
+
+  /**
+   * Checks if the type is valid for an outcome relation.
+   * 
+   * @return true if the type is in, ex, a, eb or aff
+   */
+  public boolean isOutcomeType() {
+    return this == INCLUDING || this == EXCLUDING || this == ALLOWING || this == BINDING_OUTCOME
+        || this == AFFECTING_OUTCOME;
+  }
+
+  /**
+   * Gets the type of a label.
+   * 
+   * @param label label of the type e.g. influencing or in
+   * @return type or null if the label is not a known type
+   */
+  public static RelationType fromLabel(String label) {
+    if (label == null) {
+      return null;
+    }
+    switch (label) {
+      case "influencing":
+        return INFLUENCING;
+      case "requiring":
+        return REQUIRING;
+      case "affecting":
+        return AFFECTING;
+      case "binding":
+        return BINDING;
+      case "DecRel":
+        return LEGACY_DECISION;
+      case "in":
+        return INCLUDING;
+      case "ex":
+        return EXCLUDING;
+      case "a":
+        return ALLOWING;
+      case "eb":
+        return BINDING_OUTCOME;
+      case "aff":
+        return AFFECTING_OUTCOME;
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import cloudDSF.ValidationReport.CheckResult;
+
+/**
+ * All verification methods executed by the sanity check of the cloudDSF in their sequential order.
+ * Each check traverses either the decision relations or the outcome relations and can be executed
+ * for a part of that list.
+ * 
+ * @author Metz
+ *
+ */
+enum SanityCheck {
+  AFFECTING_BINDING_DECISIONS("checkAffBinDecRelations(affecting, binding)", true, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkAffBinDecRelations(index, "affecting", "binding", from, to, result);
+    }
+  },
+  BINDING_AFFECTING_DECISIONS("checkAffBinDecRelations(binding, affecting)", true, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkAffBinDecRelations(index, "binding", "affecting", from, to, result);
+    }
+  },
+  AFFECTING_BINDING_OUTCOMES("checkAffBinOutRelations(aff, eb)", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkAffBinOutRelations(index, "aff", "eb", from, to, result);
+    }
+  },
+  BINDING_AFFECTING_OUTCOMES("checkAffBinOutRelations(eb, aff)", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkAffBinOutRelations(index, "eb", "aff", from, to, result);
+    }
+  },
+  DECISION_RELATION_COMBINATIONS("checkDecRelComb", true, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkDecRelComb(index, from, to, result);
+    }
+  },
+  DECISION_RELATION_FOR_OUTCOME_RELATION("checkDecRelForOutRel", false, true) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkDecRelForOutRel(index, from, to, result);
+    }
+  },
+  INCLUDING_REVERSE_OUTCOMES("checkInAOutRelations(in, a, in)", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkInAOutRelations(index, "in", "a", "in", from, to, result);
+    }
+  },
+  ALLOWING_REVERSE_OUTCOMES("checkInAOutRelations(a, a, in)", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkInAOutRelations(index, "a", "a", "in", from, to, result);
+    }
+  },
+  OUTCOME_RELATION_AMOUNT("checkOutRelAmountForDecRel", true, true) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkOutRelAmountForDecRel(index, from, to, result);
+    }
+  },
+  OUTCOME_RELATION_TYPES_FOR_DECISION_RELATION("checkOutRelTypeForDecRel", true, true) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkOutRelTypeForDecRel(index, from, to, result);
+    }
+  },
+  DECISION_RELATION_TYPES("checkRelTypesDecisions", true, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkRelTypesDecisions(from, to, result);
+    }
+  },
+  OUTCOME_RELATION_TYPES("checkRelTypesOutcomes", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkRelTypesOutcomes(from, to, result);
+    }
+  },
+  SINGLE_OUTCOME_RELATION("checkSingleOutcomeRel", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkSingleOutcomeRel(index, from, to, result);
+    }
+  },
+  XOR_OUTCOMES("checkXOROutcomes", false, false) {
+    @Override
+    void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+      cdsf.checkXOROutcomes(from, to, result);
+    }
+  };
+
+  // name of the check in the validation report
+  private final String name;
+  // true if the check traverses the decision relations otherwise the outcome relations
+  private final boolean decisionRelations;
+  // true if the check compares decision relations with outcome relations
+  private final boolean bothRelations;
+
+  private SanityCheck(String name, boolean decisionRelations, boolean bothRelations) {
+    this.name = name;
+    this.decisionRelations = decisionRelations;
+    this.bothRelations = bothRelations;
+  }
+
+  /**
+   * Gets the name of the check used in the validation report.
+   * 
+   * @return name of the check
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Checks if the result of the check may change with the given relations.
+   * 
+   * @param decisionRelationsChanged true if decision relations have been changed
+   * @param outcomeRelationsChanged true if outcome relations have been changed
+   * @return true if the check reads changed relations
+   */
+  boolean dependsOn(boolean decisionRelationsChanged, boolean outcomeRelationsChanged) {
+    if (bothRelations) {
+      return decisionRelationsChanged || outcomeRelationsChanged;
+    }
+    return decisionRelations ? decisionRelationsChanged : outcomeRelationsChanged;
+  }
+
+  /**
+   * Gets the size of the relation list traversed by the check.
+   * 
+   * @param cdsf cloudDSF to check
+   * @return number of decision or outcome relations
+   */
+  int size(CloudDSF cdsf) {
+    if (decisionRelations) {
+      return cdsf.getInfluencingDecisions().size();
+    }
+    return cdsf.getInfluencingOutcomes().size();
+  }
+
+  /**
+   * Executes the check for a part of the relation list and records the checked relations and the
+   * elapsed time in the result.
+   * 
+   * @param cdsf cloudDSF to check
+   * @param index relation index of the cloudDSF
+   * @param from index of first relation to check (inclusive)
+   * @param to index of last relation to check (exclusive)
+   * @param result result the violations are added to
+   */
+  void execute(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result) {
+    long start = System.nanoTime();
+    run(cdsf, index, from, to, result);
+    result.addExecution(to - from, System.nanoTime() - start);
+  }
+
+  /**
+   * Executes the check for a part of the relation list.
+   * 
+   * @param cdsf cloudDSF to check
+   * @param index relation index of the cloudDSF
+   * @param from index of first relation to check (inclusive)
+   * @param to index of last relation to check (exclusive)
+   * @param result result the violations are added to
+   */
+  abstract void run(CloudDSF cdsf, RelationIndex index, int from, int to, CheckResult result);
+}
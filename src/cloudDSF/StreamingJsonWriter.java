@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Serializes the cloudDSF and the cloudDSFPlus directly with a json generator. The output is the
+ * same as the one of the object mapper (pretty printed, null values omitted) but neither a json
+ * tree nor reflection is needed and every relation is written as soon as it is visited.
+ * 
+ * @author Metz
+ *
+ */
+public class StreamingJsonWriter {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final JsonGenerator generator;
+  // true if all attributes of the cloudDSFPlus are written
+  private final boolean plus;
+
+  private StreamingJsonWriter(OutputStream out, boolean plus) throws IOException {
+    this.generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    // the stream is closed by the caller
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.useDefaultPrettyPrinter();
+    this.plus = plus;
+  }
+
+  /**
+   * Writes the json for the legacy visualizations with the decision tree, the task tree and all
+   * relations in one list. setInfluencingRelations of the cloudDSF has to be called beforehand.
+   * 
+   * @param cdsf cloudDSF to write
+   * @param taskTree tree of the tasks
+   * @param out stream the json is written to
+   * @throws IOException Writing to the stream fails
+   */
+  public static void writeCloudDSF(CloudDSF cdsf, TaskTree taskTree, OutputStream out)
+      throws IOException {
+    StreamingJsonWriter writer = new StreamingJsonWriter(out, false);
+    JsonGenerator generator = writer.generator;
+    generator.writeStartObject();
+    generator.writeFieldName("decisionTree");
+    writer.writeCloudDSF(cdsf);
+    generator.writeFieldName("taskTree");
+    writer.writeEntity(taskTree);
+    writer.writeTasks(taskTree.getTasks());
+    generator.writeEndObject();
+    generator.writeFieldName("linksArray");
+    writer.writeRelations(cdsf.getInfluencingRelations());
+    generator.writeEndObject();
+    generator.close();
+  }
+
+  /**
+   * Writes the json for the cloudDSFPlus with the knowledge base, the decision relations and the
+   * outcome relations.
+   * 
+   * @param cdsf cloudDSFPlus to write
+   * @param out stream the json is written to
+   * @throws IOException Writing to the stream fails
+   */
+  public static void writeCloudDSFPlus(CloudDSF cdsf, OutputStream out) throws IOException {
+    StreamingJsonWriter writer = new StreamingJsonWriter(out, true);
+    JsonGenerator generator = writer.generator;
+    generator.writeStartObject();
+    generator.writeFieldName("cdsfPlus");
+    writer.writeCloudDSF(cdsf);
+    generator.writeFieldName("links");
+    writer.writeRelations(cdsf.getInfluencingDecisions());
+    generator.writeFieldName("outcomeLinks");
+    writer.writeRelations(cdsf.getInfluencingOutcomes());
+    generator.writeEndObject();
+    generator.close();
+  }
+
+  /**
+   * Writes the hierarchy of decision points, decisions and outcomes.
+   */
+  private void writeCloudDSF(CloudDSF cdsf) throws IOException {
+    writeEntity(cdsf);
+    generator.writeArrayFieldStart("children");
+    for (DecisionPoint dp : cdsf.getDecisionPoints()) {
+      writeEntity(dp);
+      generator.writeArrayFieldStart("children");
+      for (Decision dec : dp.getDecisions()) {
+        writeEntity(dec);
+        generator.writeArrayFieldStart("children");
+        for (Outcome out : dec.getOutcomes()) {
+          writeEntity(out);
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes the children of the task tree.
+   */
+  private void writeTasks(List<Task> tasks) throws IOException {
+    generator.writeArrayFieldStart("children");
+    for (Task task : tasks) {
+      writeEntity(task);
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  /**
+   * Starts the object of an entity and writes its attributes in declaration order. The object is
+   * left open for the children.
+   */
+  private void writeEntity(CloudDSFEntity entity) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", entity.getId());
+    writeStringField("label", entity.getLabel());
+    writeStringField("type", entity.getType());
+    generator.writeNumberField("parent", entity.getParent());
+    writeStringField("classification", entity.getClassification());
+    if (plus) {
+      generator.writeNumberField("cluster", entity.getCluster());
+      writeStringField("group", entity.getGroup());
+      writeStringField("description", entity.getDescription());
+      writeStringField("additionalInfo", entity.getAdditionalInfo());
+      writeStringField("abbrev", entity.getAbbrev());
+    }
+  }
+
+  /**
+   * Writes an array of relations one by one.
+   */
+  private void writeRelations(List<? extends Relation> relations) throws IOException {
+    generator.writeStartArray();
+    for (Relation relation : relations) {
+      generator.writeStartObject();
+      generator.writeNumberField("source", relation.getSource());
+      generator.writeNumberField("target", relation.getTarget());
+      writeStringField("dir", relation.getDir());
+      writeStringField("relationGroup", relation.getRelationGroup());
+      writeStringField("type", relation.getType());
+      writeStringField("explanation", relation.getExplanation());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  /**
+   * Writes a string attribute unless its value is null.
+   */
+  private void writeStringField(String name, String value) throws IOException {
+    if (value != null) {
+      generator.writeStringField(name, value);
+    }
+  }
+}
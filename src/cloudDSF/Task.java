@@ -31,4 +31,15 @@ public class Task extends CloudDSFEntity {
   public Task(int id, String name) {
     super(id, "task", name);
   }
+
+  /**
+   * Creates a modifiable copy of the task.
+   * 
+   * @return copy with all attributes of the task
+   */
+  Task copy() {
+    Task copy = new Task(getId(), getLabel());
+    copy.copyAttributes(this);
+    return copy;
+  }
 }
@@ -14,6 +14,8 @@
 
 package cloudDSF;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Represents a relation between decision and task for the cloudDSF.
  * 
@@ -21,16 +23,56 @@ package cloudDSF;
  *
  */
 public class TaskRelation extends Relation {
+  /**
+   * True if the relation points from the task to the decision.
+   */
+  @JsonIgnore
+  private final boolean fromTask;
 
   /**
-   * Default Constructor for task relation.
+   * Default Constructor for task relation pointing from the task to the decision.
    * 
-   * @param source id of source decision
+   * @param source id of source task
    * @param target id of target decision
    * @param dir direction of relation
    */
   public TaskRelation(int source, int target, String dir) {
+    this(source, target, dir, true);
+  }
+
+  /**
+   * Constructor for task relation.
+   * 
+   * @param source id of source task or decision
+   * @param target id of target decision or task
+   * @param dir direction of relation
+   * @param fromTask true if the source is the task, false if the source is the decision
+   */
+  public TaskRelation(int source, int target, String dir, boolean fromTask) {
     super(source, target, "taskRel");
     this.setDir(dir);
+    this.fromTask = fromTask;
+  }
+
+  /**
+   * Creates a modifiable copy of the task relation.
+   * 
+   * @return copy with all attributes of the task relation
+   */
+  TaskRelation copy() {
+    TaskRelation copy = new TaskRelation(getSource(), getTarget(), getDir(), fromTask);
+    copy.copyAttributes(this);
+    return copy;
+  }
+
+  /**
+   * Checks which entity is the source of the relation. Ids of tasks and decisions may be equal,
+   * thus the direction cannot be derived from the ids.
+   * 
+   * @return true if the source is the task, false if the source is the decision
+   */
+  @JsonIgnore
+  public boolean isFromTask() {
+    return fromTask;
   }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of the verification of a cloudDSF containing all violations found by the checks together
+ * with the number of checked relations and the time needed per check. Checks may record their
+ * results concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public class ValidationReport {
+  /**
+   * Results by name of the check in order of execution.
+   */
+  private final Map<String, CheckResult> checkResults = new LinkedHashMap<String, CheckResult>();
+
+  /**
+   * Gets the result of a check.
+   * 
+   * @param check name of the check
+   * @return result of the check or null if the check has not been executed
+   */
+  public synchronized CheckResult getCheckResult(String check) {
+    return checkResults.get(check);
+  }
+
+  /**
+   * Gets the result of a check and creates it if the check has no result yet.
+   * 
+   * @param check name of the check
+   * @return result of the check
+   */
+  synchronized CheckResult addCheckResult(String check) {
+    CheckResult result = checkResults.get(check);
+    if (result == null) {
+      result = new CheckResult(check);
+      checkResults.put(check, result);
+    }
+    return result;
+  }
+
+  /**
+   * Takes over the result of a check from another report, e.g. because the relations traversed by
+   * the check have not changed since.
+   * 
+   * @param result result of the check
+   */
+  synchronized void putCheckResult(CheckResult result) {
+    checkResults.put(result.getCheck(), result);
+  }
+
+  public synchronized List<CheckResult> getCheckResults() {
+    return new ArrayList<CheckResult>(checkResults.values());
+  }
+
+  /**
+   * Checks if no check found any violation.
+   * 
+   * @return true if the cloudDSF is valid otherwise false
+   */
+  public boolean isValid() {
+    for (CheckResult result : getCheckResults()) {
+      if (result.isValid() == false) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the violations of all checks.
+   * 
+   * @return violations in order of the checks
+   */
+  public List<Violation> getViolations() {
+    List<Violation> violations = new ArrayList<Violation>();
+    for (CheckResult result : getCheckResults()) {
+      violations.addAll(result.getViolations());
+    }
+    return violations;
+  }
+
+  /**
+   * Summary of all checks with their violations.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (CheckResult result : getCheckResults()) {
+      sb.append(result).append(System.lineSeparator());
+      for (Violation violation : result.getViolations()) {
+        sb.append("  ").append(violation.getMessage()).append(System.lineSeparator());
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Result of a single check.
+   */
+  public static class CheckResult {
+    private final String check;
+    private final List<Violation> violations = new ArrayList<Violation>();
+    // number of relations traversed by the check
+    private int checkedRelations;
+    // summed up execution time of all parts of the check
+    private long nanos;
+
+    CheckResult(String check) {
+      this.check = check;
+    }
+
+    /**
+     * Records a violation found by the check.
+     * 
+     * @param source id of source entity of the violating relation
+     * @param target id of target entity of the violating relation
+     * @param message description of the violation
+     */
+    public synchronized void addViolation(int source, int target, String message) {
+      violations.add(new Violation(check, source, target, message));
+    }
+
+    /**
+     * Records the execution of (a part of) the check.
+     * 
+     * @param relations number of checked relations
+     * @param nanos execution time in nanoseconds
+     */
+    public synchronized void addExecution(int relations, long nanos) {
+      this.checkedRelations += relations;
+      this.nanos += nanos;
+    }
+
+    public String getCheck() {
+      return check;
+    }
+
+    public synchronized boolean isValid() {
+      return violations.isEmpty();
+    }
+
+    public synchronized List<Violation> getViolations() {
+      return Collections.unmodifiableList(new ArrayList<Violation>(violations));
+    }
+
+    public synchronized int getCheckedRelations() {
+      return checkedRelations;
+    }
+
+    public synchronized long getNanos() {
+      return nanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return (violations.isEmpty() ? "Success: " : "Fail: ") + check + " checked "
+          + checkedRelations + " relations in " + TimeUnit.NANOSECONDS.toMicros(nanos)
+          + " us with " + violations.size() + " violations";
+    }
+  }
+
+  /**
+   * Violation of a check caused by a relation.
+   */
+  public static class Violation {
+    private final String check;
+    private final int source;
+    private final int target;
+    private final String message;
+
+    Violation(String check, int source, int target, String message) {
+      this.check = check;
+      this.source = source;
+      this.target = target;
+      this.message = message;
+    }
+
+    public String getCheck() {
+      return check;
+    }
+
+    public int getSource() {
+      return source;
+    }
+
+    public int getTarget() {
+      return target;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return check + ": " + message;
+    }
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.ValidationReport;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts many knowledge bases (excel files) into json files within one JVM. The knowledge bases
+ * are converted concurrently by a bounded number of threads sharing one parser, whereas the sheets
+ * of a knowledge base are read by the converting thread. The json files of a knowledge base are
+ * written into a folder of the output folder named like the excel file without extension, thus
+ * knowledge bases with the same file name in different folders are not converted.
+ * 
+ * @author Metz
+ *
+ */
+public class BatchConverter {
+  private static final String EXTENSION = ".xlsx";
+
+  // one parser and its pooled xml readers are shared by all threads
+  private final KnowledgeBaseParser parser = new KnowledgeBaseParser();
+  private final int threads;
+
+  /**
+   * Default constructor.
+   * 
+   * @param threads number of knowledge bases converted concurrently
+   */
+  public BatchConverter(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is required");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Converts the knowledge bases given as files or folders containing excel files.
+   * 
+   * <p>
+   * Usage: BatchConverter [-threads n] outputFolder (file.xlsx | folder)...
+   * </p>
+   * 
+   * @param args optional number of threads, output folder and knowledge bases
+   * @throws InterruptedException Waiting for the conversions is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    int index = 0;
+    if (args.length > 1 && args[0].equals("-threads")) {
+      threads = Integer.parseInt(args[1]);
+      index = 2;
+    }
+    if (args.length - index < 2) {
+      System.out.println("Usage: BatchConverter [-threads n] outputFolder (file.xlsx | folder)...");
+      return;
+    }
+    File outputFolder = new File(args[index]);
+    List<File> files = new ArrayList<File>();
+    for (String arg : Arrays.asList(args).subList(index + 1, args.length)) {
+      files.addAll(listKnowledgeBases(new File(arg)));
+    }
+    long start = System.nanoTime();
+    List<Result> results = new BatchConverter(threads).convert(files, outputFolder);
+    int exported = 0;
+    for (Result result : results) {
+      System.out.println(result);
+      if (result.isExported()) {
+        exported++;
+      }
+    }
+    System.out.println(exported + " of " + results.size() + " knowledge bases exported in "
+        + (System.nanoTime() - start) / 1000000 + " ms");
+  }
+
+  /**
+   * Lists the knowledge bases of a file or folder.
+   * 
+   * @param file excel file or folder
+   * @return the file itself or the excel files of the folder sorted by name
+   */
+  static List<File> listKnowledgeBases(File file) {
+    if (file.isDirectory() == false) {
+      return Collections.singletonList(file);
+    }
+    File[] files = file.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File pathname) {
+        // skip lock files of excel
+        return pathname.isFile() && pathname.getName().endsWith(EXTENSION)
+            && pathname.getName().startsWith("~$") == false;
+      }
+    });
+    if (files == null) {
+      return Collections.emptyList();
+    }
+    Arrays.sort(files);
+    return Arrays.asList(files);
+  }
+
+  /**
+   * Converts the knowledge bases concurrently. A failing knowledge base does not abort the
+   * conversion of the others. Knowledge bases which would be written into the same folder fail
+   * without being converted, since they would overwrite each other's json files.
+   * 
+   * @param files excel files containing the knowledge bases
+   * @param outputFolder folder receiving one folder with the json files per knowledge base
+   * @return results in the order of the files
+   * @throws InterruptedException Waiting for the conversions is interrupted
+   */
+  public List<Result> convert(List<File> files, final File outputFolder)
+      throws InterruptedException {
+    Map<File, List<File>> filesByFolder = new HashMap<File, List<File>>();
+    for (File file : files) {
+      File folder = getFolder(file, outputFolder);
+      List<File> sharing = filesByFolder.get(folder);
+      if (sharing == null) {
+        sharing = new ArrayList<File>();
+        filesByFolder.put(folder, sharing);
+      }
+      sharing.add(file);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads,
+        Math.max(1, files.size())));
+    try {
+      List<Future<Result>> futures = new ArrayList<Future<Result>>();
+      for (final File file : files) {
+        final File folder = getFolder(file, outputFolder);
+        final List<File> sharing = filesByFolder.get(folder);
+        futures.add(executor.submit(new Callable<Result>() {
+          @Override
+          public Result call() {
+            if (sharing.size() > 1) {
+              return new Result(file, null, new IllegalArgumentException("Folder " + folder
+                  + " is the output folder of the knowledge bases " + sharing), 0, 0, 0);
+            }
+            return convert(file, folder);
+          }
+        }));
+      }
+      List<Result> results = new ArrayList<Result>();
+      for (Future<Result> future : futures) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          // convert catches all exceptions, thus only errors remain
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the folder receiving the json files of a knowledge base.
+   * 
+   * @param file excel file containing the knowledge base
+   * @param outputFolder folder receiving one folder per knowledge base
+   * @return folder named like the excel file without extension
+   */
+  private static File getFolder(File file, File outputFolder) {
+    String name = file.getName();
+    if (name.endsWith(EXTENSION)) {
+      name = name.substring(0, name.length() - EXTENSION.length());
+    }
+    return new File(outputFolder, name);
+  }
+
+  /**
+   * Converts one knowledge base. The json file for the cloudDSF is written even if the knowledge
+   * base is not valid.
+   */
+  private Result convert(File file, File folder) {
+    long start = System.nanoTime();
+    try {
+      ModelCache.Models models = parser.parse(file);
+      long parsed = System.nanoTime();
+      ValidationReport report = models.getCloudDSFPlus().validate();
+      long validated = System.nanoTime();
+      if (folder.isDirectory() == false && folder.mkdirs() == false) {
+        throw new IOException("Folder " + folder + " could not be created");
+      }
+      JsonWriter.writeCloudDSFJson(models.getCloudDSF(),
+          new File(folder, JsonWriter.CLOUDDSF_FILE));
+      if (report.isValid()) {
+        JsonWriter.writeCloudDSFPlusJson(models.getCloudDSFPlus(),
+            new File(folder, JsonWriter.CLOUDDSF_PLUS_FILE));
+      }
+      return new Result(file, report, null, parsed - start, validated - parsed,
+          System.nanoTime() - validated);
+    } catch (IOException | RuntimeException e) {
+      return new Result(file, null, e, System.nanoTime() - start, 0, 0);
+    }
+  }
+
+  /**
+   * Outcome and timing of the conversion of one knowledge base.
+   */
+  public static class Result {
+    private final File file;
+    private final ValidationReport report;
+    private final Exception failure;
+    private final long parseNanos;
+    private final long validateNanos;
+    private final long writeNanos;
+
+    Result(File file, ValidationReport report, Exception failure, long parseNanos,
+        long validateNanos, long writeNanos) {
+      this.file = file;
+      this.report = report;
+      this.failure = failure;
+      this.parseNanos = parseNanos;
+      this.validateNanos = validateNanos;
+      this.writeNanos = writeNanos;
+    }
+
+    /**
+     * Checks if both json files have been written.
+     * 
+     * @return true if the knowledge base has been parsed and is valid
+     */
+    public boolean isExported() {
+      return report != null && report.isValid();
+    }
+
+    public File getFile() {
+      return file;
+    }
+
+    /**
+     * Gets the validation report of the cloudDSFPlus.
+     * 
+     * @return report or null if the knowledge base could not be converted
+     */
+    public ValidationReport getReport() {
+      return report;
+    }
+
+    /**
+     * Gets the exception aborting the conversion.
+     * 
+     * @return exception or null if the knowledge base has been parsed
+     */
+    public Exception getFailure() {
+      return failure;
+    }
+
+    public long getParseNanos() {
+      return parseNanos;
+    }
+
+    public long getValidateNanos() {
+      return validateNanos;
+    }
+
+    public long getWriteNanos() {
+      return writeNanos;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(file.getPath()).append(": ");
+      if (failure != null) {
+        sb.append("failed after ").append(parseNanos / 1000000).append(" ms: ").append(failure);
+        return sb.toString();
+      }
+      sb.append(isExported() ? "exported" : "not valid").append(", parse ")
+          .append(parseNanos / 1000000).append(" ms, validate ").append(validateNanos / 1000000)
+          .append(" ms, write ").append(writeNanos / 1000000).append(" ms");
+      if (isExported() == false) {
+        sb.append(System.lineSeparator()).append(report);
+      }
+      return sb.toString();
+    }
+  }
+}
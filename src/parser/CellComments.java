@@ -0,0 +1,278 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Comment texts of all cells of a sheet read at once from the comments part of the sheet. Looking
+ * up a comment is a map access instead of a search in the comments table and the drawing of the
+ * sheet. The comments of a loaded workbook are read from its xml objects, the comments part of a
+ * streamed workbook is parsed with SAX.
+ * 
+ * @author Metz
+ *
+ */
+final class CellComments {
+  // characters escaped by excel e.g. _x000D_ for a carriage return
+  private static final Pattern ESCAPED_CHAR = Pattern.compile("_x([0-9A-Fa-f]{4})_");
+  private static final String NAMESPACES =
+      "declare namespace s='http://schemas.openxmlformats.org/spreadsheetml/2006/main'; ";
+  private static final String COMMENTS_PATH = NAMESPACES + "$this/s:commentList/s:comment";
+  private static final String RUNS_PATH = NAMESPACES + "$this/s:text/s:r/s:t";
+  private static final String PLAIN_PATH = NAMESPACES + "$this/s:text/s:t";
+  private static final QName REF = new QName("ref");
+
+  // comment texts by packed row and column
+  private final Map<Long, String> comments;
+
+  private CellComments(Map<Long, String> comments) {
+    this.comments = comments;
+  }
+
+  /**
+   * Reads all comments of a sheet of a loaded workbook. The comments are read from the xml objects
+   * of the table in memory, thus changes of the loaded workbook are included. The text of a comment
+   * is the text of its runs or the plain text if it has no runs like the string of
+   * XSSFRichTextString.
+   * 
+   * @param table comments of the sheet or null if sheet has no comments
+   * @return comments of the sheet
+   * @throws IOException The xml objects of the comments are not available
+   */
+  static CellComments read(CommentsTable table) throws IOException {
+    Map<Long, String> comments = new HashMap<Long, String>();
+    if (table != null) {
+      for (XmlObject comment : getXml(table).selectPath(COMMENTS_PATH)) {
+        XmlObject[] texts = comment.selectPath(RUNS_PATH);
+        if (texts.length == 0) {
+          texts = comment.selectPath(PLAIN_PATH);
+        }
+        String value = null;
+        if (texts.length > 0) {
+          StringBuilder sb = new StringBuilder();
+          for (XmlObject text : texts) {
+            sb.append(getTextValue(text));
+          }
+          value = sb.toString();
+        }
+        XmlCursor cursor = comment.newCursor();
+        CellReference cell = new CellReference(cursor.getAttributeText(REF));
+        cursor.dispose();
+        comments.put(cellKey(cell.getRow(), cell.getCol()), decode(value));
+      }
+    }
+    return new CellComments(comments);
+  }
+
+  /**
+   * Gets the xml object of a comments table. Its type CTComments is part of the ooxml schemas which
+   * are only needed at runtime, thus the xml object is accessed through the generic interface.
+   */
+  private static XmlObject getXml(CommentsTable table) throws IOException {
+    try {
+      return (XmlObject) CommentsTable.class.getMethod("getCTComments").invoke(table);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Comments table has no xml object", e);
+    }
+  }
+
+  /**
+   * Gets the text of an xml element.
+   */
+  private static String getTextValue(XmlObject element) {
+    XmlCursor cursor = element.newCursor();
+    try {
+      return cursor.getTextValue();
+    } finally {
+      cursor.dispose();
+    }
+  }
+
+  /**
+   * Reads all comments of a sheet from the comments part related to the sheet part.
+   * 
+   * @param sheetPart part of the sheet xml
+   * @return comments of the sheet
+   * @throws IOException Reading of the comments part fails
+   */
+  static CellComments read(PackagePart sheetPart) throws IOException {
+    Map<Long, String> comments = new HashMap<Long, String>();
+    try {
+      for (PackageRelationship relationship : sheetPart.getRelationshipsByType(
+          XSSFRelation.SHEET_COMMENTS.getRelation())) {
+        InputStream in = sheetPart.getRelatedPart(relationship).getInputStream();
+        try {
+          parse(in, comments);
+        } finally {
+          in.close();
+        }
+      }
+    } catch (InvalidFormatException e) {
+      throw new IOException("Comments of " + sheetPart.getPartName() + " could not be read", e);
+    }
+    return new CellComments(comments);
+  }
+
+  /**
+   * Parses comments xml. The text of a comment is the text of its runs or the plain text if it
+   * has no runs like the string of XSSFRichTextString, phonetic runs are ignored.
+   * 
+   * @param in stream of the comments xml
+   * @param comments receives the comment texts by packed row and column
+   */
+  private static void parse(InputStream in, final Map<Long, String> comments)
+      throws IOException {
+    DefaultHandler handler = new DefaultHandler() {
+      private String ref;
+      private final StringBuilder plain = new StringBuilder();
+      private final StringBuilder runs = new StringBuilder();
+      private boolean hasPlain;
+      private boolean hasRuns;
+      private boolean inRun;
+      private boolean inPhonetic;
+      private StringBuilder text;
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes atts) {
+        switch (localName) {
+          case "comment":
+            ref = atts.getValue("ref");
+            plain.setLength(0);
+            runs.setLength(0);
+            hasPlain = false;
+            hasRuns = false;
+            break;
+          case "r":
+            inRun = true;
+            hasRuns = true;
+            break;
+          case "rPh":
+            inPhonetic = true;
+            break;
+          case "t":
+            if (ref != null && inPhonetic == false) {
+              text = inRun ? runs : plain;
+              hasPlain |= inRun == false;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+
+      @Override
+      public void characters(char[] ch, int start, int length) {
+        if (text != null) {
+          text.append(ch, start, length);
+        }
+      }
+
+      @Override
+      public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+          case "t":
+            text = null;
+            break;
+          case "r":
+            inRun = false;
+            break;
+          case "rPh":
+            inPhonetic = false;
+            break;
+          case "comment":
+            String value = hasRuns ? runs.toString() : hasPlain ? plain.toString() : null;
+            CellReference cell = new CellReference(ref);
+            comments.put(cellKey(cell.getRow(), cell.getCol()), decode(value));
+            ref = null;
+            break;
+          default:
+            break;
+        }
+      }
+    };
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.newSAXParser().parse(new InputSource(in), handler);
+    } catch (SAXException | ParserConfigurationException e) {
+      throw new IOException("Comments could not be parsed", e);
+    }
+  }
+
+  /**
+   * Replaces the characters escaped by excel.
+   * 
+   * @param value text of a comment
+   * @return unescaped text or null if value is null
+   */
+  private static String decode(String value) {
+    if (value == null || value.indexOf("_x") == -1) {
+      return value;
+    }
+    Matcher matcher = ESCAPED_CHAR.matcher(value);
+    StringBuffer sb = new StringBuffer();
+    while (matcher.find()) {
+      char c = (char) Integer.parseInt(matcher.group(1), 16);
+      matcher.appendReplacement(sb, Matcher.quoteReplacement(String.valueOf(c)));
+    }
+    matcher.appendTail(sb);
+    return sb.toString();
+  }
+
+  /**
+   * Gets the text of the comment of a cell.
+   * 
+   * @param rowIndex zero based row index
+   * @param columnIndex zero based column index
+   * @return comment text or null if the cell has no comment
+   */
+  String get(int rowIndex, int columnIndex) {
+    return comments.get(cellKey(rowIndex, columnIndex));
+  }
+
+  /**
+   * Packs row and column of a cell into one key.
+   * 
+   * @param rowIndex zero based row index
+   * @param columnIndex zero based column index
+   * @return key of the cell
+   */
+  private static long cellKey(int rowIndex, int columnIndex) {
+    return ((long) rowIndex << 32) | columnIndex;
+  }
+}
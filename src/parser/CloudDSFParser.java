@@ -20,14 +20,9 @@ import cloudDSF.DecisionPoint;
 import cloudDSF.Outcome;
 import cloudDSF.Task;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.util.Iterator;
+import java.util.List;
 
 /**
  * Reads knowledge base (excel file) and parses all data necessary for the CloudDSF.
@@ -37,13 +32,7 @@ import java.util.Iterator;
  */
 public class CloudDSFParser {
   private final CloudDSF cdsf;
-  private final XSSFWorkbook workbook;
-  // row numbers of excel sheet
-  private int dpCol = 0;
-  private int decCol = 1;
-  private int outCol = 2;
-  private int dpClassCol = 6;
-  private int decClassCol = 7;
+  private final KnowledgeBase knowledgeBase;
 
   /**
    * Default constructor setting workbook and new cloudDSF object.
@@ -51,9 +40,27 @@ public class CloudDSFParser {
    * @param workbook excel workbook containing knowledge base
    */
   public CloudDSFParser(XSSFWorkbook workbook) {
+    this(new WorkbookSheetSource(workbook));
+  }
+
+  /**
+   * Constructor setting the source of the sheets and new cloudDSF object.
+   * 
+   * @param source sheets of the excel file containing knowledge base
+   */
+  public CloudDSFParser(SheetSource source) {
+    this(new KnowledgeBase(source));
+  }
+
+  /**
+   * Constructor setting the already read knowledge base and new cloudDSF object.
+   * 
+   * @param knowledgeBase content of the knowledge base possibly shared with other parsers
+   */
+  public CloudDSFParser(KnowledgeBase knowledgeBase) {
     // new cloudDSF object with basic info
     this.cdsf = new CloudDSF(-1, "root", "CloudDSF");
-    this.workbook = workbook;
+    this.knowledgeBase = knowledgeBase;
   }
 
   /**
@@ -62,49 +69,39 @@ public class CloudDSFParser {
    * @return cdsf object
    */
   public CloudDSF readExcel() {
-    // Get desired sheet from the workbook
-    XSSFSheet sheet = workbook.getSheet("Knowledge Base");
-
     // setup variables
     String decisionName = "";
     String decisionPointName = "";
 
-    DecisionPoint decisionPoint;
-    Decision decision;
-    Outcome outcome;
-
     int decisionPointId = 0;
     int decisionId = 0;
     int outcomeId = 0;
 
-    // iterate over all rows skipping headline
-    for (int j = 1; j <= sheet.getLastRowNum(); j++) {
-      Row row = sheet.getRow(j);
-      // select cell A
-      Cell cell = row.getCell(dpCol);
-      // if not empty than new decision Point
-      if (cell.getStringCellValue().equals("") == false) {
+    for (KnowledgeBase.EntityRow row : knowledgeBase.getEntityRows()) {
+      DecisionPoint decisionPoint;
+      Decision decision;
+      Outcome outcome;
+      // if cell A not empty than new decision Point
+      if (row.getDecisionPoint().equals("") == false) {
         // calculate Ids
         decisionPointId++;
         decisionId = decisionPointId * 100 + 1;
         outcomeId = decisionId * 100 + 1;
 
         // create new DecisionPoint
-        decisionPointName = cell.getStringCellValue();
+        decisionPointName = row.getDecisionPoint();
         decisionPoint =
-            new DecisionPoint(decisionPointName, decisionPointId, row.getCell(dpClassCol)
-                .getStringCellValue());
+            new DecisionPoint(decisionPointName, decisionPointId,
+                row.getDecisionPointClassification());
 
         // create new Decision
-        Cell decisionCell = row.getCell(decCol);
-        decisionName = decisionCell.getStringCellValue();
+        decisionName = row.getDecision();
         decision =
-            new Decision(decisionName, row.getCell(decClassCol).getStringCellValue(), decisionId,
+            new Decision(decisionName, row.getDecisionClassification(), decisionId,
                 decisionPointId);
 
         // create new outcome
-        Cell outcomeCell = row.getCell(outCol);
-        outcome = new Outcome(outcomeCell.getStringCellValue(), outcomeId, decisionId);
+        outcome = new Outcome(row.getOutcome(), outcomeId, decisionId);
 
         // add outcome to decision
         decision.addOutcome(outcome);
@@ -112,34 +109,28 @@ public class CloudDSFParser {
         decisionPoint.addDecision(decision);
         // add decision point to cloudDSF
         cdsf.addDecisionPoint(decisionPoint);
+      } else if (row.getDecision().equals("") == false) {
+        // if text in cell B than new decision
+        decisionId++;
+        outcomeId = decisionId * 100 + 1;
+        // create new decision
+        decisionName = row.getDecision();
+        decision =
+            new Decision(decisionName, row.getDecisionClassification(), decisionId,
+                decisionPointId);
+        // create new outcome
+        outcome = new Outcome(row.getOutcome(), outcomeId, decisionId);
+        // add outcome to decision
+        decision.addOutcome(outcome);
+        // add decision to current decision point
+        cdsf.getDecisionPoint(decisionPointName).addDecision(decision);
       } else {
-        // Select Cell B
-        Cell decisionCell = row.getCell(decCol);
-        // if text than new decision
-        if (decisionCell.getStringCellValue().equals("") == false) {
-          decisionId++;
-          outcomeId = decisionId * 100 + 1;
-          // create new decision
-          decisionName = decisionCell.getStringCellValue();
-          decision =
-              new Decision(decisionName, row.getCell(decClassCol).getStringCellValue(), decisionId,
-                  decisionPointId);
-          // create new outcome
-          Cell outcomeCell = row.getCell(outCol);
-          outcome = new Outcome(outcomeCell.getStringCellValue(), outcomeId, decisionId);
-          // add outcome to decision
-          decision.addOutcome(outcome);
-          // add decision to current decision point
-          cdsf.getDecisionPoint(decisionPointName).addDecision(decision);
-        } else {
-          // if no text in dp or d than new outcome
-          outcomeId++;
-          // create new outcome
-          Cell outcomeCell = row.getCell(outCol);
-          outcome = new Outcome(outcomeCell.getStringCellValue(), outcomeId, decisionId);
-          // add outcome to current decision in current decision point
-          cdsf.getDecisionPoint(decisionPointName).getDecision(decisionName).addOutcome(outcome);
-        }
+        // if no text in dp or d than new outcome
+        outcomeId++;
+        // create new outcome
+        outcome = new Outcome(row.getOutcome(), outcomeId, decisionId);
+        // add outcome to current decision in current decision point
+        cdsf.getDecisionPoint(decisionPointName).getDecision(decisionName).addOutcome(outcome);
       }
     }
     // parse the relations
@@ -160,30 +151,14 @@ public class CloudDSFParser {
    * @return
    */
   private void setInfluencingRelations() {
-    XSSFSheet sheet = workbook.getSheet("Decision Level");
-    // Column B has name of start Decision
-    int startDecisionColumn = 1;
-    // Row 1 has names of endDecision
-    Row endDecisionRow = sheet.getRow(1);
-    // Iterate over all rows starting at 3
-    Iterator<Row> rows = sheet.rowIterator();
-    while (rows.hasNext()) {
-      XSSFRow row = (XSSFRow) rows.next();
-      // Iterate over cells
-      Iterator<Cell> cells = row.cellIterator();
-      while (cells.hasNext()) {
-        XSSFCell cell = (XSSFCell) cells.next();
-        String relationName = cell.getStringCellValue();
-        if (relationName.equals("Influencing") || relationName.equals("Affecting")
-            || relationName.equals("Binding")) {
-          // if type of relationship matches predefined values get names of the two participating
-          // decisions
-          String startDecision = row.getCell(startDecisionColumn).getStringCellValue();
-          String endDecision = endDecisionRow.getCell(cell.getColumnIndex()).getStringCellValue();
-          // add new decision relation
-          cdsf.setLegacyDecisionRelation(startDecision, endDecision);
-        }
-      }
+    RelationMatrix matrix = knowledgeBase.getDecisionRelations();
+    // names of the decisions are resolved once per row and column
+    int[] rowToId = getDecisionIds(matrix.getRowLabels());
+    int[] columnToId = getDecisionIds(matrix.getColumnLabels());
+    for (int i = 0; i < matrix.size(); i++) {
+      // add new decision relation
+      cdsf.setLegacyDecisionRelation(matrix.getSourceId(i, rowToId),
+          matrix.getTargetId(i, columnToId));
     }
   }
 
@@ -191,38 +166,17 @@ public class CloudDSFParser {
    * Retrieves influencing relations between tasks and decisions.
    */
   private void setInfluencingTasks() {
-    XSSFSheet sheet = workbook.getSheet("Task Level");
-    // Column A has name of start Task
-    int startTaskColumn = 0;
-    // Row 1 has names of endDecision
-    Row endDecisionRow = sheet.getRow(1);
-    // Iterate over all rows
-    Iterator<Row> rows = sheet.rowIterator();
-    while (rows.hasNext()) {
-      XSSFRow row = (XSSFRow) rows.next();
-      Iterator<Cell> cells = row.cellIterator();
-      while (cells.hasNext()) {
-        XSSFCell cell = (XSSFCell) cells.next();
-        if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-          // Depending on the relation type source and target are set
-          // accordingly
-          String relationName = cell.getStringCellValue();
-          String sourceDesc = row.getCell(startTaskColumn).getStringCellValue();
-          String targetDesc = endDecisionRow.getCell(cell.getColumnIndex()).getStringCellValue();
-          switch (relationName) {
-            case "Affecting":
-              cdsf.setTaskRelation(sourceDesc, targetDesc, "oneWay");
-              break;
-            case "Both":
-              cdsf.setTaskRelation(sourceDesc, targetDesc, "twoWay");
-              break;
-            case "Affected":
-              cdsf.setTaskRelation(sourceDesc, targetDesc, "backwards");
-              break;
-          // no default
-          }
-        }
-      }
+    RelationMatrix matrix = knowledgeBase.getTaskRelations();
+    // tasks are named in the rows and decisions in the columns
+    int[] rowToId = new int[matrix.getRowLabels().size()];
+    for (int i = 0; i < rowToId.length; i++) {
+      rowToId[i] = cdsf.getTaskId(matrix.getRowLabels().get(i));
+    }
+    int[] columnToId = getDecisionIds(matrix.getColumnLabels());
+    List<String> dirs = matrix.getTypes();
+    for (int i = 0; i < matrix.size(); i++) {
+      cdsf.setTaskRelation(matrix.getSourceId(i, rowToId), matrix.getTargetId(i, columnToId),
+          dirs.get(matrix.getTypeCode(i)));
     }
   }
 
@@ -230,19 +184,27 @@ public class CloudDSFParser {
    * Retrieve defined tasks.
    */
   private void setTasks() {
-    XSSFSheet sheet = workbook.getSheet("Task Level");
     // start with fixed task id
     int taskId = 901;
-    // iterate over all rows skipping headline
-    for (int j = 2; j <= sheet.getLastRowNum(); j++) {
-      // row 2 gets selected
-      Row row = sheet.getRow(j);
-      // select cell A
-      Cell cell = row.getCell(0);
+    for (String taskName : knowledgeBase.getTasks()) {
       // create new task
-      Task task = new Task(taskId, cell.getStringCellValue());
+      Task task = new Task(taskId, taskName);
       taskId++;
       cdsf.addTask(task);
     }
   }
+
+  /**
+   * Resolves names of decisions.
+   * 
+   * @param names names of decisions
+   * @return ids by position of the names, -1 for unknown decisions
+   */
+  private int[] getDecisionIds(List<String> names) {
+    int[] ids = new int[names.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = cdsf.getDecisionId(names.get(i));
+    }
+    return ids;
+  }
 }
@@ -18,15 +18,12 @@ import cloudDSF.CloudDSF;
 import cloudDSF.Decision;
 import cloudDSF.DecisionPoint;
 import cloudDSF.Outcome;
+import cloudDSF.RelationType;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Reads knowledge base (excel file) and collects all data necessary for the CloudDSFPlus.
@@ -37,32 +34,48 @@ import java.util.Iterator;
 public class CloudDSFPlusParser {
 
   private final CloudDSF cdsf;
-  private final XSSFWorkbook workbook;
-  // row numbers
-  private int dpCol = 0;
-  private int decCol = 1;
-  private int outCol = 2;
+  private final KnowledgeBase knowledgeBase;
 
-  private int dpDescCol = 3;
-  private int decDescCol = 4;
-  private int outDescCol = 5;
-  private int dpClassCol = 6;
-  private int decClassCol = 7;
-
-  // private int dpAddInfoCol = 8;
-  // private int decAddInfoCol = 9;
-  // private int outAddInfoCol = 10;
   /**
    * Default constructor setting workbook and new cloudDSFPlus object.
    * 
    * @param workbook excel file containing knowledge base
    */
   public CloudDSFPlusParser(XSSFWorkbook workbook) {
+    this(new WorkbookSheetSource(workbook));
+  }
+
+  /**
+   * Constructor setting the source of the sheets and new cloudDSFPlus object.
+   * 
+   * @param source sheets of the excel file containing knowledge base
+   */
+  public CloudDSFPlusParser(SheetSource source) {
+    this(new KnowledgeBase(source));
+  }
+
+  /**
+   * Constructor setting the already read knowledge base and new cloudDSFPlus object.
+   * 
+   * @param knowledgeBase content of the knowledge base possibly shared with other parsers
+   */
+  public CloudDSFPlusParser(KnowledgeBase knowledgeBase) {
     // create new CloudDSF object with information for the CloudDSFPlus
     this.cdsf = new CloudDSF(0, "root", "CloudDSF+");
     cdsf.setAbbrev("CDSF+");
     cdsf.setDescription("CDSF+ knowledge base containing decision points, decisions and their outcomes.");
-    this.workbook = workbook;
+    this.knowledgeBase = knowledgeBase;
+  }
+
+  /**
+   * Constructor updating the relations of an already parsed cloudDSFPlus.
+   * 
+   * @param knowledgeBase content of the changed knowledge base with the same entities
+   * @param cdsf cloudDSFPlus parsed from an earlier version of the knowledge base
+   */
+  CloudDSFPlusParser(KnowledgeBase knowledgeBase, CloudDSF cdsf) {
+    this.cdsf = cdsf;
+    this.knowledgeBase = knowledgeBase;
   }
 
   /**
@@ -71,74 +84,57 @@ public class CloudDSFPlusParser {
    * @return CloudDSFPlus object
    */
   public CloudDSF readExcel() {
-    // Get desired sheet from the workbook
-    XSSFSheet sheet = workbook.getSheet("Knowledge Base");
-
     // setup variable
     String decisionName = "";
     String decisionPointName = "";
 
-    DecisionPoint decisionPoint;
-    Decision decision;
-    Outcome outcome;
-
     int decisionPointId = 0;
     int decisionId = 0;
     int outcomeId = 0;
 
-    // iterate over all rows skipping headline
-    for (int j = 1; j <= sheet.getLastRowNum(); j++) {
-      // row 2 gets selected
-      Row row = sheet.getRow(j);
-      // select cell A
-      Cell cell = row.getCell(dpCol);
-      // if not empty than new decision Point
-      if (cell.getStringCellValue().equals("") == false) {
+    for (KnowledgeBase.EntityRow row : knowledgeBase.getEntityRows()) {
+      DecisionPoint decisionPoint;
+      Decision decision;
+      Outcome outcome;
+      // if cell A not empty than new decision Point
+      if (row.getDecisionPoint().equals("") == false) {
         decisionPointId++;
         decisionId = decisionPointId * 100 + 1;
         outcomeId = decisionId * 100 + 1;
-        decisionPointName = cell.getStringCellValue();
+        decisionPointName = row.getDecisionPoint();
         // create new DecisionPoint
-        decisionPoint = generateDecisionPoint(cell, decisionPointId, row);
+        decisionPoint = generateDecisionPoint(decisionPointId, row);
         // create new Decision
-        Cell decisionCell = row.getCell(decCol);
-        decisionName = decisionCell.getStringCellValue();
-        decision = generateDecision(decisionCell, decisionId, decisionPointId, row);
+        decisionName = row.getDecision();
+        decision = generateDecision(decisionId, decisionPointId, row);
         // create new outcome
-        Cell outcomeCell = row.getCell(outCol);
-        outcome = generateOutcome(outcomeCell, decisionId, decisionPointId, outcomeId, row);
+        outcome = generateOutcome(decisionId, decisionPointId, outcomeId, row);
         // add outcome to decision
         decision.addOutcome(outcome);
         // add decision to decisionPoint
         decisionPoint.addDecision(decision);
         // add decisionPoint to cloudDSFPlus
         cdsf.addDecisionPoint(decisionPoint);
+      } else if (row.getDecision().equals("") == false) {
+        // if text in cell B than new decision
+        decisionId++;
+        outcomeId = decisionId * 100 + 1;
+        // create new decision
+        decisionName = row.getDecision();
+        decision = generateDecision(decisionId, decisionPointId, row);
+        // create new outcome
+        outcome = generateOutcome(decisionId, decisionPointId, outcomeId, row);
+        // add outcome to decision
+        decision.addOutcome(outcome);
+        // add decision to current decision point
+        cdsf.getDecisionPoint(decisionPointName).addDecision(decision);
       } else {
-        // Select Cell B
-        Cell decisionCell = row.getCell(decCol);
-        // if text than new decision
-        if (decisionCell.getStringCellValue().equals("") == false) {
-          decisionId++;
-          outcomeId = decisionId * 100 + 1;
-          // create new decision
-          decisionName = decisionCell.getStringCellValue();
-          decision = generateDecision(decisionCell, decisionId, decisionPointId, row);
-          // create new outcome
-          Cell outcomeCell = row.getCell(outCol);
-          outcome = generateOutcome(outcomeCell, decisionId, decisionPointId, outcomeId, row);
-          // add outcome to decision
-          decision.addOutcome(outcome);
-          // add decision to current decision point
-          cdsf.getDecisionPoint(decisionPointName).addDecision(decision);
-        } else {
-          // if no text in dp or d than new outcome
-          outcomeId++;
-          // create new outcome
-          Cell outcomeCell = row.getCell(outCol);
-          outcome = generateOutcome(outcomeCell, decisionId, decisionPointId, outcomeId, row);
-          // add outcome to current decision in current decision point
-          cdsf.getDecisionPoint(decisionPointName).getDecision(decisionName).addOutcome(outcome);
-        }
+        // if no text in dp or d than new outcome
+        outcomeId++;
+        // create new outcome
+        outcome = generateOutcome(decisionId, decisionPointId, outcomeId, row);
+        // add outcome to current decision in current decision point
+        cdsf.getDecisionPoint(decisionPointName).getDecision(decisionName).addOutcome(outcome);
       }
     }
     // retrive relations
@@ -155,94 +151,78 @@ public class CloudDSFPlusParser {
   /**
    * Generates a new outcome.
    * 
-   * @param cell current cell in the excel file
    * @param decisionId id of the decision
    * @param decisionPointId id of the decision point
    * @param outcomeId id of the outcome
-   * @param row current row in the excel file
+   * @param row current row of the knowledge base sheet
    * @return
    */
-  private Outcome generateOutcome(Cell cell, int decisionId, int decisionPointId, int outcomeId,
-      Row row) {
-    String label = cell.getStringCellValue();
-    String description = row.getCell(outDescCol).getStringCellValue();
-    String abbrev = cell.getCellComment().getString().getString();
+  private Outcome generateOutcome(int decisionId, int decisionPointId, int outcomeId,
+      KnowledgeBase.EntityRow row) {
     Outcome out =
-        new Outcome(label, outcomeId, decisionPointId, decisionId, description, null, abbrev);
+        new Outcome(row.getOutcome(), outcomeId, decisionPointId, decisionId,
+            row.getOutcomeDescription(), null, row.getOutcomeAbbrev());
     return out;
   }
 
   /**
    * Generates a new decision.
    * 
-   * @param cell current cell in the excel file
    * @param decisionId id of the decision
    * @param decisionPointId id of the decision point
-   * @param row current row in the excel file
+   * @param row current row of the knowledge base sheet
    * @return
    */
-  private Decision generateDecision(Cell cell, int decisionId, int decisionPointId, Row row) {
-    String label = cell.getStringCellValue();
-    String classification = row.getCell(decClassCol).getStringCellValue();
-    String description = row.getCell(decDescCol).getStringCellValue();
-    String abbrev = cell.getCellComment().getString().getString();
+  private Decision generateDecision(int decisionId, int decisionPointId,
+      KnowledgeBase.EntityRow row) {
     Decision dec =
-        new Decision(label, decisionId, decisionPointId, decisionPointId, classification,
-            description, null, abbrev);
+        new Decision(row.getDecision(), decisionId, decisionPointId, decisionPointId,
+            row.getDecisionClassification(), row.getDecisionDescription(), null,
+            row.getDecisionAbbrev());
     return dec;
   }
 
   /**
    * Generates a new decision point.
    * 
-   * @param cell current cell in the excel file
    * @param decisionPointId id of the decision point
-   * @param row current row in the excel file
+   * @param row current row of the knowledge base sheet
    * @return
    */
-  private DecisionPoint generateDecisionPoint(Cell cell, int decisionPointId, Row row) {
-    String label = cell.getStringCellValue();
-    String classification = row.getCell(dpClassCol).getStringCellValue();
-    String description = row.getCell(dpDescCol).getStringCellValue();
-    String abbrev = cell.getCellComment().getString().getString();
+  private DecisionPoint generateDecisionPoint(int decisionPointId, KnowledgeBase.EntityRow row) {
     DecisionPoint dp =
-        new DecisionPoint(label, decisionPointId, decisionPointId, classification, description,
-            null, abbrev);
+        new DecisionPoint(row.getDecisionPoint(), decisionPointId, decisionPointId,
+            row.getDecisionPointClassification(), row.getDecisionPointDescription(), null,
+            row.getDecisionPointAbbrev());
     return dp;
   }
 
+  /**
+   * Replaces the decision relations of the cloudDSFPlus with the ones of the knowledge base.
+   */
+  void updateDecisionRelations() {
+    cdsf.getInfluencingDecisions().clear();
+    setInfluencingRelations();
+    setRequiringRelations();
+    cdsf.sortLists();
+  }
+
+  /**
+   * Replaces the outcome relations of the cloudDSFPlus with the ones of the knowledge base.
+   */
+  void updateOutcomeRelations() {
+    cdsf.getInfluencingOutcomes().clear();
+    setInfluencingOutcomes();
+    cdsf.sortLists();
+  }
+
   /**
    * Retrieves influencing relations between decisions.
    * 
    * @return
    */
   private void setInfluencingRelations() {
-    XSSFSheet sheet = workbook.getSheet("Decision Level");
-    // Column B has name of start Decision
-    int startDecisionColumn = 1;
-    // Row 1 has names of endDecision
-    Row endDecisionRow = sheet.getRow(1);
-    // Iterate over all rows starting at 3
-    Iterator<Row> rows = sheet.rowIterator();
-    while (rows.hasNext()) {
-      XSSFRow row = (XSSFRow) rows.next();
-      // select cell C
-      Iterator<Cell> cells = row.cellIterator();
-      // Iterate of all cells in row
-      while (cells.hasNext()) {
-        XSSFCell cell = (XSSFCell) cells.next();
-        String relationType = cell.getStringCellValue();
-        if (relationType.equals("Influencing") || relationType.equals("Affecting")
-            || relationType.equals("Binding")) {
-          // if type of relationship matches predefined values get names of the two participating
-          // decisions
-          String startDecision = row.getCell(startDecisionColumn).getStringCellValue();
-          String endDecision = endDecisionRow.getCell(cell.getColumnIndex()).getStringCellValue();
-          // add decision relation to cloudDSFPlus
-          cdsf.setDecisionRelation(startDecision, endDecision, relationType, null);
-        }
-      }
-    }
+    setDecisionRelations(knowledgeBase.getDecisionRelations());
   }
 
   /**
@@ -251,27 +231,28 @@ public class CloudDSFPlusParser {
    * @return
    */
   private void setRequiringRelations() {
-    XSSFSheet sheet = workbook.getSheet("Required Level");
-    // Column B has name of start Decision
-    int startDecisionColumn = 1;
-    // Row 1 has names of endDecision
-    Row endDecisionRow = sheet.getRow(1);
-    // Iterate over all rows starting at 3
-    Iterator<Row> rows = sheet.rowIterator();
-    while (rows.hasNext()) {
-      XSSFRow row = (XSSFRow) rows.next();
-      Iterator<Cell> cells = row.cellIterator();
-      while (cells.hasNext()) {
-        XSSFCell cell = (XSSFCell) cells.next();
-        String relationType = cell.getStringCellValue();
-        if (relationType.equals("Requiring")) {
-          // if requiring relationship is denoted get names of both decisions
-          String startDecision = row.getCell(startDecisionColumn).getStringCellValue();
-          String endDecision = endDecisionRow.getCell(cell.getColumnIndex()).getStringCellValue();
-          // add requiring relation to cloudDSFPlus
-          cdsf.setDecisionRelation(startDecision, endDecision, relationType, null);
-        }
-      }
+    setDecisionRelations(knowledgeBase.getRequiringRelations());
+  }
+
+  /**
+   * Adds the relations of a decision matrix to the cloudDSFPlus. The names of the decisions are
+   * resolved once per row and column.
+   * 
+   * @param matrix decision relations
+   */
+  private void setDecisionRelations(RelationMatrix matrix) {
+    int[] rowToId = getDecisionIds(matrix.getRowLabels());
+    int[] columnToId = getDecisionIds(matrix.getColumnLabels());
+    // decision relation types are lower case in the model
+    List<String> labels = new ArrayList<String>();
+    for (String label : matrix.getTypes()) {
+      labels.add(label.toLowerCase());
+    }
+    RelationType[] types = getRelationTypes(labels);
+    for (int i = 0; i < matrix.size(); i++) {
+      // add decision relation to cloudDSFPlus
+      cdsf.setDecisionRelation(matrix.getSourceId(i, rowToId), matrix.getTargetId(i, columnToId),
+          types[matrix.getTypeCode(i)]);
     }
   }
 
@@ -281,29 +262,61 @@ public class CloudDSFPlusParser {
    * @return
    */
   private void setInfluencingOutcomes() {
-    XSSFSheet sheet = workbook.getSheet("Outcome Level");
-    // Column B has name of start Decision
-    int startOutcomeColumn = 1;
-    // Row 1 has names of endDecision
-    Row endOutcomeRow = sheet.getRow(0);
-    // Iterate over all rows
-    Iterator<Row> rows = sheet.rowIterator();
-    while (rows.hasNext()) {
-      XSSFRow row = (XSSFRow) rows.next();
-      Iterator<Cell> cells = row.cellIterator();
-      // Iterate over all cells
-      while (cells.hasNext()) {
-        XSSFCell cell = (XSSFCell) cells.next();
-        String relationType = cell.getStringCellValue();
-        if (relationType.equals("in") || relationType.equals("ex") || relationType.equals("a")
-            || relationType.equals("eb") || relationType.equals("aff")) {
-          // if relationship is denoted get names of both outcomes
-          String startOutcome = row.getCell(startOutcomeColumn).getStringCellValue();
-          String endOutcome = endOutcomeRow.getCell(cell.getColumnIndex()).getStringCellValue();
-          // add new outcome relation to cloudDSFPlus
-          cdsf.setOutcomeRelation(startOutcome, endOutcome, relationType, null, null);
-        }
+    RelationMatrix matrix = knowledgeBase.getOutcomeRelations();
+    // names of the outcomes are resolved once per row and column
+    int[] rowToId = getOutcomeIds(matrix.getRowLabels());
+    int[] columnToId = getOutcomeIds(matrix.getColumnLabels());
+    RelationType[] types = getRelationTypes(matrix.getTypes());
+    for (int i = 0; i < matrix.size(); i++) {
+      // add new outcome relation to cloudDSFPlus
+      cdsf.setOutcomeRelation(matrix.getSourceId(i, rowToId), matrix.getTargetId(i, columnToId),
+          types[matrix.getTypeCode(i)]);
+    }
+  }
+
+  /**
+   * Resolves the relation types of a matrix once instead of converting every relation.
+   * 
+   * @param labels labels of the types by type code
+   * @return relation types by type code
+   * @throws IllegalArgumentException if a label is no known relation type
+   */
+  private static RelationType[] getRelationTypes(List<String> labels) {
+    RelationType[] types = new RelationType[labels.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = RelationType.fromLabel(labels.get(i));
+      if (types[i] == null) {
+        throw new IllegalArgumentException("Relation type " + labels.get(i) + " is unknown");
       }
     }
+    return types;
+  }
+
+  /**
+   * Resolves names of decisions.
+   * 
+   * @param names names of decisions
+   * @return ids by position of the names, -1 for unknown decisions
+   */
+  private int[] getDecisionIds(List<String> names) {
+    int[] ids = new int[names.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = cdsf.getDecisionId(names.get(i));
+    }
+    return ids;
+  }
+
+  /**
+   * Resolves names of outcomes.
+   * 
+   * @param names names of outcomes
+   * @return ids by position of the names, -1 for unknown outcomes
+   */
+  private int[] getOutcomeIds(List<String> names) {
+    int[] ids = new int[names.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = cdsf.getOutcomeId(names.get(i));
+    }
+    return ids;
   }
 }
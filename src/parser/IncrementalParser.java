@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.ValidationReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses successive versions of a knowledge base file while only the sheets changed since the
+ * previous version are read again. Changes are detected by the fingerprints of the sheets in the
+ * zip directory of the excel file. Changed relation sheets are patched into the retained
+ * cloudDSFPlus and only the checks reading the changed relations are executed again, whereas a
+ * changed knowledge base sheet results in a full parse.
+ * 
+ * @author Metz
+ *
+ */
+public class IncrementalParser {
+  private static final List<String> SHEETS = Arrays.asList(KnowledgeBase.ENTITY_SHEET,
+      KnowledgeBase.DECISION_SHEET, KnowledgeBase.REQUIRING_SHEET, KnowledgeBase.OUTCOME_SHEET,
+      KnowledgeBase.TASK_SHEET);
+
+  // state of the previous version, null before the first update
+  private Map<String, Long> fingerprints;
+  private List<String> sharedStrings;
+  private KnowledgeBase knowledgeBase;
+  private CloudDSF cdsf;
+  private CloudDSF cdsfPlus;
+  private ValidationReport report;
+  private Set<String> changedSheets = Collections.emptySet();
+
+  /**
+   * Parses the current version of the knowledge base file.
+   * 
+   * @param file excel file containing the knowledge base
+   * @return report of the validation of the cloudDSFPlus
+   * @throws IOException Reading of the excel file fails
+   */
+  public ValidationReport update(File file) throws IOException {
+    Map<String, Long> newFingerprints = SheetFingerprints.read(file);
+    StreamingSheetSource source = StreamingSheetSource.open(file);
+    try {
+      List<String> newSharedStrings = source.getSharedStrings();
+      Set<String> changed = new LinkedHashSet<String>();
+      for (String sheet : SHEETS) {
+        if (isUnchanged(sheet, newFingerprints, newSharedStrings) == false) {
+          changed.add(sheet);
+        }
+      }
+      KnowledgeBase newKnowledgeBase = new KnowledgeBase(source);
+      for (String sheet : SHEETS) {
+        if (changed.contains(sheet) == false) {
+          newKnowledgeBase.reuseSheet(knowledgeBase, sheet);
+        }
+      }
+      // read the changed sheets before the source is closed
+      newKnowledgeBase.getEntityRows();
+      newKnowledgeBase.getDecisionRelations();
+      newKnowledgeBase.getRequiringRelations();
+      newKnowledgeBase.getOutcomeRelations();
+      newKnowledgeBase.getTasks();
+      update(newKnowledgeBase, changed);
+      fingerprints = newFingerprints;
+      sharedStrings = newSharedStrings;
+      changedSheets = Collections.unmodifiableSet(changed);
+      return report;
+    } finally {
+      source.close();
+    }
+  }
+
+  /**
+   * Checks if a sheet is the same as in the previous version. The shared strings of the previous
+   * version have to be a prefix of the new ones, since the sheets refer to them by index and excel
+   * appends new strings on save.
+   */
+  private boolean isUnchanged(String sheet, Map<String, Long> newFingerprints,
+      List<String> newSharedStrings) {
+    if (fingerprints == null || fingerprints.containsKey(sheet) == false
+        || fingerprints.get(sheet).equals(newFingerprints.get(sheet)) == false) {
+      return false;
+    }
+    return sharedStrings.size() <= newSharedStrings.size()
+        && sharedStrings.equals(newSharedStrings.subList(0, sharedStrings.size()));
+  }
+
+  /**
+   * Updates the models with the content of the changed sheets.
+   */
+  private void update(KnowledgeBase newKnowledgeBase, Set<String> changed) {
+    boolean entitiesChanged = changed.contains(KnowledgeBase.ENTITY_SHEET);
+    boolean decisionsChanged = changed.contains(KnowledgeBase.DECISION_SHEET)
+        || changed.contains(KnowledgeBase.REQUIRING_SHEET);
+    boolean outcomesChanged = changed.contains(KnowledgeBase.OUTCOME_SHEET);
+    boolean tasksChanged = changed.contains(KnowledgeBase.TASK_SHEET);
+    if (entitiesChanged || report == null) {
+      // ids of all relations depend on the entities
+      cdsf = new CloudDSFParser(newKnowledgeBase).readExcel();
+      cdsfPlus = new CloudDSFPlusParser(newKnowledgeBase).readExcel();
+      report = cdsfPlus.validate();
+    } else {
+      CloudDSFPlusParser parser = new CloudDSFPlusParser(newKnowledgeBase, cdsfPlus);
+      if (decisionsChanged) {
+        parser.updateDecisionRelations();
+      }
+      if (outcomesChanged) {
+        parser.updateOutcomeRelations();
+      }
+      // the legacy cloudDSF is small and rebuilt from the sheets in memory
+      if (changed.contains(KnowledgeBase.DECISION_SHEET) || tasksChanged) {
+        cdsf = new CloudDSFParser(newKnowledgeBase).readExcel();
+      }
+      report = cdsfPlus.validateChanges(report, decisionsChanged, outcomesChanged);
+    }
+    knowledgeBase = newKnowledgeBase;
+  }
+
+  /**
+   * Gets the cloudDSF of the last update.
+   * 
+   * @return cloudDSF or null before the first update
+   */
+  public CloudDSF getCloudDSF() {
+    return cdsf;
+  }
+
+  /**
+   * Gets the cloudDSFPlus of the last update.
+   * 
+   * @return cloudDSFPlus or null before the first update
+   */
+  public CloudDSF getCloudDSFPlus() {
+    return cdsfPlus;
+  }
+
+  /**
+   * Gets the validation report of the last update.
+   * 
+   * @return report or null before the first update
+   */
+  public ValidationReport getValidationReport() {
+    return report;
+  }
+
+  /**
+   * Gets the sheets read by the last update.
+   * 
+   * @return names of the changed sheets, all sheets after the first update
+   */
+  public Set<String> getChangedSheets() {
+    return changedSheets;
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.ValidationReport;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embedded http server serving the json files of a knowledge base (excel file). The json files are
+ * serialized and compressed once per version of the knowledge base, thus requests only copy bytes.
+ * Clients revalidate their copies with the ETag of a json file. A reload parses the changed sheets
+ * of the knowledge base and atomically replaces the served json files if the knowledge base is
+ * valid, whereas requests in progress finish with the previous json files.
+ * 
+ * @author Metz
+ *
+ */
+public class JsonServer {
+  private static final int DEFAULT_PORT = 8080;
+  // seconds between the checks of the knowledge base file for modifications
+  private static final int RELOAD_INTERVAL = 5;
+
+  private final File file;
+  // parses the changed sheets, accessed by one reload at a time
+  private final IncrementalParser parser = new IncrementalParser();
+  private final AtomicReference<Map<String, Document>> documents =
+      new AtomicReference<Map<String, Document>>(Collections.<String, Document>emptyMap());
+  private long lastModified;
+  private long length;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * Default constructor.
+   * 
+   * @param file excel file containing the knowledge base
+   */
+  public JsonServer(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Serves the json files of a knowledge base and reloads the knowledge base when the file is
+   * modified.
+   * 
+   * <p>
+   * Usage: JsonServer file.xlsx [port]
+   * </p>
+   * 
+   * @param args knowledge base and optional port
+   * @throws IOException Reading of the knowledge base or starting of the server fails
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: JsonServer file.xlsx [port]");
+      return;
+    }
+    final JsonServer jsonServer = new JsonServer(new File(args[0]));
+    ValidationReport report = jsonServer.reload();
+    if (report.isValid() == false) {
+      System.out.println("The knowledge base is not valid");
+      System.out.println(report);
+      return;
+    }
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+    jsonServer.start(port);
+    System.out.println("Serving " + args[0] + " on port " + jsonServer.getPort());
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (jsonServer.isModified()) {
+            ValidationReport report = jsonServer.reload();
+            System.out.println(report.isValid() ? "Knowledge base has been reloaded"
+                : "The knowledge base is not valid" + System.lineSeparator() + report);
+          }
+        } catch (IOException | RuntimeException e) {
+          // keep serving the previous json files
+          System.out.println("Reloading of the knowledge base failed: " + e);
+        }
+      }
+    }, RELOAD_INTERVAL, RELOAD_INTERVAL, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Checks if the knowledge base file has been modified since the last reload.
+   * 
+   * @return true if the modification time or the size of the file differs
+   */
+  public synchronized boolean isModified() {
+    return file.lastModified() != lastModified || file.length() != length;
+  }
+
+  /**
+   * Parses the knowledge base and serves its json files if it is valid. Otherwise the previous
+   * json files are still served.
+   * 
+   * @return report of the validation of the cloudDSFPlus
+   * @throws IOException Reading of the knowledge base fails
+   */
+  public synchronized ValidationReport reload() throws IOException {
+    long modified = file.lastModified();
+    long size = file.length();
+    ValidationReport report = parser.update(file);
+    lastModified = modified;
+    length = size;
+    if (report.isValid() == false) {
+      return report;
+    }
+    Map<String, Document> newDocuments = new HashMap<String, Document>();
+    newDocuments.put("/" + JsonWriter.CLOUDDSF_FILE,
+        new Document(JsonWriter.serializeCloudDSF(parser.getCloudDSF())));
+    newDocuments.put("/" + JsonWriter.CLOUDDSF_PLUS_FILE,
+        new Document(JsonWriter.serializeCloudDSFPlus(parser.getCloudDSFPlus())));
+    documents.set(Collections.unmodifiableMap(newDocuments));
+    return report;
+  }
+
+  /**
+   * Starts the server with one handler thread per processor.
+   * 
+   * @param port port of the server or 0 for any free port
+   * @throws IOException Binding of the port fails
+   */
+  public synchronized void start(int port) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("Server is already started");
+    }
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          serve(exchange);
+        } finally {
+          exchange.close();
+        }
+      }
+    });
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /**
+   * Stops the server and waits at most one second for requests in progress.
+   */
+  public synchronized void stop() {
+    if (server != null) {
+      server.stop(1);
+      executor.shutdown();
+      server = null;
+    }
+  }
+
+  /**
+   * Gets the port of the started server.
+   * 
+   * @return bound port
+   */
+  public synchronized int getPort() {
+    if (server == null) {
+      throw new IllegalStateException("Server is not started");
+    }
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Answers a request with the current version of a json file.
+   */
+  private void serve(HttpExchange exchange) throws IOException {
+    Headers responseHeaders = exchange.getResponseHeaders();
+    String method = exchange.getRequestMethod();
+    boolean head = method.equals("HEAD");
+    if (head == false && method.equals("GET") == false) {
+      responseHeaders.set("Allow", "GET, HEAD");
+      exchange.sendResponseHeaders(405, -1);
+      return;
+    }
+    Document document = documents.get().get(exchange.getRequestURI().getPath());
+    if (document == null) {
+      exchange.sendResponseHeaders(404, -1);
+      return;
+    }
+    Headers requestHeaders = exchange.getRequestHeaders();
+    boolean gzip = acceptsGzip(requestHeaders.getFirst("Accept-Encoding"));
+    String etag = gzip ? document.gzipEtag : document.etag;
+    responseHeaders.set("ETag", etag);
+    responseHeaders.set("Cache-Control", "no-cache");
+    responseHeaders.set("Vary", "Accept-Encoding");
+    if (document.matches(requestHeaders.getFirst("If-None-Match"))) {
+      exchange.sendResponseHeaders(304, -1);
+      return;
+    }
+    byte[] body = gzip ? document.gzipContent : document.content;
+    responseHeaders.set("Content-Type", "application/json; charset=UTF-8");
+    if (gzip) {
+      responseHeaders.set("Content-Encoding", "gzip");
+    }
+    if (head) {
+      responseHeaders.set("Content-Length", String.valueOf(body.length));
+      exchange.sendResponseHeaders(200, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(200, body.length);
+    OutputStream out = exchange.getResponseBody();
+    out.write(body);
+    out.close();
+  }
+
+  /**
+   * Checks if the client accepts gzip encoded content.
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        // gzip;q=0 rejects the encoding
+        return parts.length < 2 || parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?") == false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Serialized json file in plain and gzip encoding with the ETags of both encodings.
+   */
+  private static class Document {
+    private final byte[] content;
+    private final byte[] gzipContent;
+    private final String etag;
+    private final String gzipEtag;
+
+    Document(byte[] content) throws IOException {
+      this.content = content;
+      ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+      GZIPOutputStream gzip = new GZIPOutputStream(out);
+      gzip.write(content);
+      gzip.close();
+      this.gzipContent = out.toByteArray();
+      // the content hash identifies the version, thus a reload of the same content keeps the ETag
+      StringBuilder sb = new StringBuilder("\"");
+      byte[] hash = ModelCache.hash(content);
+      for (int i = 0; i < 16; i++) {
+        sb.append(String.format("%02x", hash[i]));
+      }
+      this.etag = sb.toString() + "\"";
+      this.gzipEtag = sb.toString() + "-gzip\"";
+    }
+
+    /**
+     * Checks if the client has the current version of the document in any encoding.
+     */
+    boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        String value = tag.trim();
+        // weak comparison as required for If-None-Match
+        if (value.startsWith("W/")) {
+          value = value.substring(2);
+        }
+        if (value.equals("*") || value.equals(etag) || value.equals(gzipEtag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -15,30 +15,41 @@
 package parser;
 
 import cloudDSF.CloudDSF;
+import cloudDSF.StreamingJsonWriter;
 import cloudDSF.TaskTree;
+import cloudDSF.ValidationReport;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Triggers parsing and serialization of clouddsf knowledge base (excel file) into two json files.
+ * The parsed models are cached together with the digests of the json files, thus an unchanged
+ * knowledge base is neither parsed, verified nor serialized again as long as both json files are
+ * unchanged.
  * 
  * @author Metz
  *
  */
 public class JsonWriter {
+  // cache of the models of the last valid knowledge base
+  private static final String CACHE_FILE = "KnowledgeBase.cache";
+  // sheets of the knowledge base read concurrently
+  private static final int SHEET_COUNT = 5;
+  static final String CLOUDDSF_FILE = "cloudDSF.json";
+  static final String CLOUDDSF_PLUS_FILE = "cloudDSFPlus.json";
+
   /**
    * Retrieves knowledge base file and starts parsing as well as serialization.
    * 
@@ -47,98 +58,195 @@ public class JsonWriter {
    */
   public static void main(String[] args) throws IOException {
     String filePath = "KnowledgeBase.xlsx";
-    XSSFWorkbook workbook = null;
-    // Create Workbook instance holding reference to .xlsx file located at resources folder
+    // .xlsx file located at resources folder, the hash of its content identifies cached models
+    byte[] content = readResource(filePath);
+    byte[] hash = ModelCache.hash(content);
+    ModelCache cache = new ModelCache(new File(CACHE_FILE));
+    // the cached models are only read if a json file has been changed
+    if (isWritten(cache.loadOutputs(hash)) == false) {
+      ModelCache.Entry entry = cache.load(hash);
+      ModelCache.Models models = entry == null ? parse(content) : entry.getModels();
+      if (models == null) {
+        System.out.println("Finished");
+        return;
+      }
+      Map<String, byte[]> outputs = new LinkedHashMap<String, byte[]>();
+      outputs.put(CLOUDDSF_FILE,
+          writeCloudDSFJson(models.getCloudDSF(), new File(CLOUDDSF_FILE)));
+      outputs.put(CLOUDDSF_PLUS_FILE,
+          writeCloudDSFPlusJson(models.getCloudDSFPlus(), new File(CLOUDDSF_PLUS_FILE)));
+      cache.store(hash, new ModelCache.Entry(models, outputs));
+    }
+    System.out.println("Knowledge Base has been successfully verified and exported");
+    System.out.println("Finished");
+  }
+
+  /**
+   * Parses and verifies both models of the knowledge base. The json file for the CloudDSF is
+   * written even if the knowledge base is not valid.
+   * 
+   * @param content content of the excel file
+   * @return models or null if the knowledge base is not valid
+   * @throws IOException Reading of Excel File fails
+   */
+  private static ModelCache.Models parse(byte[] content) throws IOException {
+    // independent sheets of the knowledge base are read concurrently
+    int threads = Math.min(SHEET_COUNT, Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    ModelCache.Models models;
+    try {
+      // Stream sheets of .xlsx file instead of loading the whole workbook
+      models = new KnowledgeBaseParser(executor).parse(new ByteArrayInputStream(content));
+    } finally {
+      executor.shutdown();
+    }
+    // check the internal consistency and if successfull serialize data
+    ValidationReport report = models.getCloudDSFPlus().validate();
+    if (report.isValid() == false) {
+      writeCloudDSFJson(models.getCloudDSF(), new File(CLOUDDSF_FILE));
+      // knowledge base is not valid abort serialization
+      System.out.println("The knowledge base is not valid");
+      System.out.println(report);
+      return null;
+    }
+    return models;
+  }
+
+  /**
+   * Checks if the json files exist with the content written from the cached models.
+   * 
+   * @param outputs digests of the json files by file name or null if no models are cached
+   * @return true if all files match their digests
+   * @throws IOException Reading of a json file fails
+   */
+  private static boolean isWritten(Map<String, byte[]> outputs) throws IOException {
+    if (outputs == null || outputs.isEmpty()) {
+      return false;
+    }
+    for (Map.Entry<String, byte[]> output : outputs.entrySet()) {
+      File file = new File(output.getKey());
+      if (file.isFile() == false
+          || Arrays.equals(output.getValue(), ModelCache.hash(file)) == false) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads a file from the resources folder.
+   * 
+   * @param filePath path of the file in the resources folder
+   * @return content of the file
+   * @throws IOException Reading of the file fails
+   */
+  private static byte[] readResource(String filePath) throws IOException {
     InputStream in = JsonWriter.class.getClassLoader().getResourceAsStream(filePath);
+    if (in == null) {
+      throw new IOException("File " + filePath + " does not exist");
+    }
     try {
-      workbook = new XSSFWorkbook(in);
-    } catch (IOException e) {
-      e.printStackTrace();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
     }
-    writeCloudDSFJson(workbook);
-    writeCloudDSFPlusJson(workbook);
-    System.out.println("Finished");
   }
 
   /**
    * Generates json file for the CloudDSF avoiding any unnecessary attribute serialization.
    * 
-   * @param workbook
-   * @throws JsonGenerationException
-   * @throws JsonMappingException
-   * @throws IOException
+   * @param cdsf parsed CloudDSF
+   * @param file json file
+   * @return SHA-256 digest of the written json
+   * @throws IOException Writing of json file fails
    */
-  private static void writeCloudDSFJson(XSSFWorkbook workbook) throws JsonGenerationException,
-      JsonMappingException, IOException {
-    // Instantiate parser to parse file for CloudDSF
-    CloudDSFParser parser = new CloudDSFParser(workbook);
-    // CloudDSF object representing all necessary information
-    CloudDSF cdsf = parser.readExcel();
+  static byte[] writeCloudDSFJson(CloudDSF cdsf, File file) throws IOException {
     // Helper Method to check content
     // cdsf.printCloudDSF();
+    DigestOutputStream out = createOutput(file);
+    try {
+      writeCloudDSF(cdsf, out);
+    } finally {
+      out.close();
+    }
+    return out.getMessageDigest().digest();
+  }
+
+  /**
+   * Serializes the CloudDSF into the structure of the legacy visualizations.
+   * 
+   * @param cdsf parsed CloudDSF
+   * @return json of the CloudDSF
+   * @throws IOException Serialization fails
+   */
+  static byte[] serializeCloudDSF(CloudDSF cdsf) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeCloudDSF(cdsf, out);
+    return out.toByteArray();
+  }
+
+  /**
+   * Streams the CloudDSF in the structure of the legacy visualizations.
+   */
+  private static void writeCloudDSF(CloudDSF cdsf, OutputStream out) throws IOException {
     // Create task tree for legacy visualizations
     TaskTree taskTree = new TaskTree();
     taskTree.setTasks(cdsf.getTasks());
 
-    // Jackson objectmapper and settings
-    ObjectMapper mapper = new ObjectMapper();
-    // Pretty Print
-    mapper.enable(SerializationFeature.INDENT_OUTPUT);
-    // If getter is found values will be serialized avoiding unnecessary attributes
-    mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
-        .withFieldVisibility(JsonAutoDetect.Visibility.DEFAULT)
-        .withGetterVisibility(JsonAutoDetect.Visibility.DEFAULT));
-    // Ignore fields with null values to avoid serialization of empty lists
-    mapper.setSerializationInclusion(Include.NON_NULL);
     // Write all relations into one list to conform to legacy implementation
     cdsf.setInfluencingRelations();
-    // create json root node and add json objects
-    JsonNode rootNode = mapper.createObjectNode();
-    ((ObjectNode) rootNode).putPOJO("decisionTree", cdsf);
-    ((ObjectNode) rootNode).putPOJO("taskTree", taskTree);
-    ((ObjectNode) rootNode).putPOJO("linksArray", cdsf.getInfluencingRelations());
-    // serialize CloudDSF into file
-    File file = new File("cloudDSF.json");
-    mapper.writeValue(file, rootNode);
+    // serialize CloudDSF
+    StreamingJsonWriter.writeCloudDSF(cdsf, taskTree, out);
   }
 
   /**
    * Creates json file for the cloudDSFPlus with all new attributes.
    * 
-   * @param workbook
-   * @throws JsonGenerationException
-   * @throws JsonMappingException
-   * @throws IOException
+   * @param cdsf parsed and verified CloudDSFPlus
+   * @param file json file
+   * @return SHA-256 digest of the written json
+   * @throws IOException Writing of json file fails
    */
-  private static void writeCloudDSFPlusJson(XSSFWorkbook workbook) throws JsonGenerationException,
-      JsonMappingException, IOException {
-    // instantiate parser for CloudDSFPlus and read excel
-    CloudDSFPlusParser cloudDSFPlusParser = new CloudDSFPlusParser(workbook);
-    CloudDSF cdsf = cloudDSFPlusParser.readExcel();
-    // check the internal consistency and if successfull serialize data
-    if (cdsf.checkSanity()) {
-      // Helper Method
-      // cdsf.printCloudDSF();
-      // Jackson objectmapper and settings
-      ObjectMapper mapper = new ObjectMapper();
-      mapper.enable(SerializationFeature.INDENT_OUTPUT);
-      // Ignore missing getters to serialize all values
-      mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
-          .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
-          .withGetterVisibility(JsonAutoDetect.Visibility.NONE));
-      mapper.setSerializationInclusion(Include.NON_NULL);
-      // create json structure
-      JsonNode rootNode = mapper.createObjectNode();
-      ((ObjectNode) rootNode).putPOJO("cdsfPlus", cdsf);
-      ((ObjectNode) rootNode).putPOJO("links", cdsf.getInfluencingDecisions());
-      ((ObjectNode) rootNode).putPOJO("outcomeLinks", cdsf.getInfluencingOutcomes());
-      // Serialize CloudDSFPlus into json file
-      File file = new File("cloudDSFPlus.json");
-      mapper.writeValue(file, rootNode);
-      System.out.println("Knowledge Base has been successfully verified and exported");
-    } else {
-      // knowledge base is not valid abort serialization
-      System.out.println("The knowledge base is not valid");
+  static byte[] writeCloudDSFPlusJson(CloudDSF cdsf, File file) throws IOException {
+    // Helper Method
+    // cdsf.printCloudDSF();
+    DigestOutputStream out = createOutput(file);
+    try {
+      StreamingJsonWriter.writeCloudDSFPlus(cdsf, out);
+    } finally {
+      out.close();
     }
+    return out.getMessageDigest().digest();
+  }
+
+  /**
+   * Serializes the cloudDSFPlus with all new attributes.
+   * 
+   * @param cdsf parsed and verified CloudDSFPlus
+   * @return json of the cloudDSFPlus
+   * @throws IOException Serialization fails
+   */
+  static byte[] serializeCloudDSFPlus(CloudDSF cdsf) throws IOException {
+    // Serialize CloudDSFPlus
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StreamingJsonWriter.writeCloudDSFPlus(cdsf, out);
+    return out.toByteArray();
+  }
+
+  /**
+   * Opens a json file calculating the digest of the written content.
+   * 
+   * @param file json file
+   * @return stream into the file
+   * @throws IOException Opening of the file fails
+   */
+  private static DigestOutputStream createOutput(File file) throws IOException {
+    return new DigestOutputStream(new FileOutputStream(file), ModelCache.createDigest());
   }
 }
@@ -0,0 +1,519 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Raw content of the knowledge base (excel file) shared by the CloudDSF and the CloudDSFPlus
+ * parser. Every sheet is read once on first access and kept in memory, thus the cloudDSF and the
+ * cloudDSFPlus model can be derived without traversing the sheets twice. Not thread safe, but all
+ * sheets can be read concurrently in advance.
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBase {
+  /**
+   * Sheet defining decision points, decisions and outcomes.
+   */
+  public static final String ENTITY_SHEET = "Knowledge Base";
+  /**
+   * Sheet with the influencing, affecting and binding relations between decisions.
+   */
+  public static final String DECISION_SHEET = "Decision Level";
+  /**
+   * Sheet with the requiring relations between decisions.
+   */
+  public static final String REQUIRING_SHEET = "Required Level";
+  /**
+   * Sheet with the relations between outcomes.
+   */
+  public static final String OUTCOME_SHEET = "Outcome Level";
+  /**
+   * Sheet with the tasks and their relations to decisions.
+   */
+  public static final String TASK_SHEET = "Task Level";
+
+  // relation types of the outcome level sheet
+  private static final String[] OUTCOME_TYPES = {"in", "ex", "a", "eb", "aff"};
+  // row ranges of the outcome level sheet read concurrently
+  private static final int OUTCOME_RANGES = Runtime.getRuntime().availableProcessors();
+
+  private final SheetSource source;
+  // column numbers of knowledge base sheet
+  private int dpCol = 0;
+  private int decCol = 1;
+  private int outCol = 2;
+  private int dpDescCol = 3;
+  private int decDescCol = 4;
+  private int outDescCol = 5;
+  private int dpClassCol = 6;
+  private int decClassCol = 7;
+
+  // content of the sheets, null until the sheet is read
+  private List<EntityRow> entityRows;
+  private RelationMatrix decisionRelations;
+  private RelationMatrix requiringRelations;
+  private RelationMatrix outcomeRelations;
+  private List<String> tasks;
+  private RelationMatrix taskRelations;
+
+  /**
+   * Default constructor.
+   * 
+   * @param source sheets of the excel file containing knowledge base
+   */
+  public KnowledgeBase(SheetSource source) {
+    this.source = source;
+  }
+
+  /**
+   * Gets the rows of the knowledge base sheet defining decision points, decisions and outcomes.
+   * 
+   * @return rows in sheet order without headline
+   */
+  public List<EntityRow> getEntityRows() {
+    if (entityRows == null) {
+      final List<EntityRow> rows = new ArrayList<EntityRow>();
+      source.readSheet(ENTITY_SHEET, new RowHandler() {
+        @Override
+        public void handleRow(SheetRow row) {
+          // skip headline
+          if (row.getRowIndex() == 0) {
+            return;
+          }
+          rows.add(createEntityRow(row));
+        }
+      });
+      entityRows = Collections.unmodifiableList(rows);
+    }
+    return entityRows;
+  }
+
+  /**
+   * Copies a row of the knowledge base sheet. Abbreviations are only retrieved for entities
+   * defined in the row.
+   * 
+   * @param row current row in the excel file
+   * @return copied row
+   */
+  private EntityRow createEntityRow(SheetRow row) {
+    EntityRow entityRow = new EntityRow();
+    entityRow.decisionPoint = row.getString(dpCol);
+    entityRow.decision = row.getString(decCol);
+    entityRow.outcome = row.getString(outCol);
+    entityRow.decisionPointDescription = row.getString(dpDescCol);
+    entityRow.decisionDescription = row.getString(decDescCol);
+    entityRow.outcomeDescription = row.getString(outDescCol);
+    entityRow.decisionPointClassification = row.getString(dpClassCol);
+    entityRow.decisionClassification = row.getString(decClassCol);
+    if (entityRow.decisionPoint.equals("") == false) {
+      entityRow.decisionPointAbbrev = source.getComment(ENTITY_SHEET, row.getRowIndex(), dpCol);
+    }
+    if (entityRow.decisionPoint.equals("") == false || entityRow.decision.equals("") == false) {
+      entityRow.decisionAbbrev = source.getComment(ENTITY_SHEET, row.getRowIndex(), decCol);
+    }
+    entityRow.outcomeAbbrev = source.getComment(ENTITY_SHEET, row.getRowIndex(), outCol);
+    return entityRow;
+  }
+
+  /**
+   * Gets the influencing, affecting and binding relations between decisions.
+   * 
+   * @return relations in sheet order
+   */
+  public RelationMatrix getDecisionRelations() {
+    if (decisionRelations == null) {
+      // Row 1 has names of endDecision and column B has name of start Decision
+      String[] types = {"Influencing", "Affecting", "Binding"};
+      decisionRelations = readMatrix(DECISION_SHEET, 1, 1, types);
+    }
+    return decisionRelations;
+  }
+
+  /**
+   * Gets the requiring relations between decisions.
+   * 
+   * @return relations in sheet order
+   */
+  public RelationMatrix getRequiringRelations() {
+    if (requiringRelations == null) {
+      // Row 1 has names of endDecision and column B has name of start Decision
+      requiringRelations = readMatrix(REQUIRING_SHEET, 1, 1, new String[] {"Requiring"});
+    }
+    return requiringRelations;
+  }
+
+  /**
+   * Gets the relations between outcomes.
+   * 
+   * @return relations in sheet order
+   */
+  public RelationMatrix getOutcomeRelations() {
+    if (outcomeRelations == null) {
+      // Row 0 has names of endOutcome and column B has name of start Outcome
+      outcomeRelations = readMatrix(OUTCOME_SHEET, 0, 1, OUTCOME_TYPES);
+    }
+    return outcomeRelations;
+  }
+
+  /**
+   * Gets the names of the defined tasks.
+   * 
+   * @return task names in sheet order
+   */
+  public List<String> getTasks() {
+    if (tasks == null) {
+      readTaskLevel();
+    }
+    return tasks;
+  }
+
+  /**
+   * Gets the relations between tasks and decisions. The type is the direction of the relation
+   * (oneWay, twoWay or backwards).
+   * 
+   * @return relations in sheet order
+   */
+  public RelationMatrix getTaskRelations() {
+    if (taskRelations == null) {
+      readTaskLevel();
+    }
+    return taskRelations;
+  }
+
+  /**
+   * Reads all sheets not read yet concurrently. Every sheet is collected into its own rows or
+   * relation matrix, thus the content is the same as if the sheets were read one after another.
+   * The outcome level sheet, which grows quadratically with the number of outcomes, is
+   * additionally split into row ranges if the source supports it.
+   * 
+   * @param executor executor reading the sheets
+   * @throws InterruptedException Waiting for the sheets is interrupted
+   * @throws IllegalStateException if reading of a sheet fails
+   */
+  public void readSheets(ExecutorService executor) throws InterruptedException {
+    boolean partitioned = outcomeRelations == null && source instanceof PartitionedSheetSource;
+    List<Callable<Object>> reads = new ArrayList<Callable<Object>>();
+    // every task only sets the fields of its own sheet
+    reads.add(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return getEntityRows();
+      }
+    });
+    reads.add(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return getDecisionRelations();
+      }
+    });
+    reads.add(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return getRequiringRelations();
+      }
+    });
+    if (partitioned == false) {
+      reads.add(new Callable<Object>() {
+        @Override
+        public Object call() {
+          return getOutcomeRelations();
+        }
+      });
+    }
+    reads.add(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return getTasks();
+      }
+    });
+    List<Future<Object>> futures = new ArrayList<Future<Object>>();
+    for (Callable<Object> read : reads) {
+      futures.add(executor.submit(read));
+    }
+    RuntimeException failure = null;
+    if (partitioned) {
+      // ranges are awaited by the calling thread, thus no sheet task waits for other tasks
+      try {
+        outcomeRelations = readOutcomeRanges((PartitionedSheetSource) source, executor);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+    }
+    // wait for all sheets before reporting a failure
+    for (Future<Object> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+              : new IllegalStateException("Sheet could not be read", e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Reads the outcome level sheet split into row ranges. The matrices of the ranges are appended
+   * in row order, thus the result is the same as reading the sheet at once.
+   */
+  private RelationMatrix readOutcomeRanges(PartitionedSheetSource partitionedSource,
+      ExecutorService executor) throws InterruptedException {
+    List<MatrixReader> readers = new ArrayList<MatrixReader>();
+    for (int i = 0; i < OUTCOME_RANGES; i++) {
+      // Row 0 has names of endOutcome and column B has name of start Outcome
+      readers.add(new MatrixReader(0, 1, OUTCOME_TYPES, OUTCOME_TYPES));
+    }
+    partitionedSource.readSheet(OUTCOME_SHEET, readers, executor);
+    // the first range contains the header row
+    RelationMatrix matrix = readers.get(0).getMatrix();
+    for (int i = 1; i < readers.size(); i++) {
+      matrix.append(readers.get(i).getMatrix());
+    }
+    return matrix;
+  }
+
+  /**
+   * Takes over the content of a sheet already read by another knowledge base instead of reading
+   * it from the source, e.g. because the sheet has not changed since.
+   * 
+   * @param previous knowledge base of an earlier version of the excel file
+   * @param sheetName name of the sheet
+   * @throws IllegalArgumentException if the sheet is not part of the knowledge base
+   */
+  void reuseSheet(KnowledgeBase previous, String sheetName) {
+    switch (sheetName) {
+      case ENTITY_SHEET:
+        entityRows = previous.getEntityRows();
+        break;
+      case DECISION_SHEET:
+        decisionRelations = previous.getDecisionRelations();
+        break;
+      case REQUIRING_SHEET:
+        requiringRelations = previous.getRequiringRelations();
+        break;
+      case OUTCOME_SHEET:
+        outcomeRelations = previous.getOutcomeRelations();
+        break;
+      case TASK_SHEET:
+        tasks = previous.getTasks();
+        taskRelations = previous.getTaskRelations();
+        break;
+      default:
+        throw new IllegalArgumentException("Sheet " + sheetName
+            + " is not part of the knowledge base");
+    }
+  }
+
+  /**
+   * Retrieves tasks and their relations in one pass of the task sheet.
+   */
+  private void readTaskLevel() {
+    final List<String> taskNames = new ArrayList<String>();
+    // Depending on the relation type the direction is set accordingly
+    String[] values = {"Affecting", "Both", "Affected"};
+    String[] dirs = {"oneWay", "twoWay", "backwards"};
+    // Row 1 has names of endDecision and column A has name of start Task
+    MatrixReader reader = new MatrixReader(1, 0, values, dirs) {
+      @Override
+      public void handleRow(SheetRow row) {
+        // tasks start below the headlines
+        if (row.getRowIndex() >= 2) {
+          taskNames.add(row.getString(0));
+        }
+        super.handleRow(row);
+      }
+    };
+    source.readSheet(TASK_SHEET, reader);
+    tasks = Collections.unmodifiableList(taskNames);
+    taskRelations = reader.getMatrix();
+  }
+
+  /**
+   * Retrieves all cells of a relation matrix with one of the given relation types.
+   * 
+   * @param sheetName name of the sheet
+   * @param headerRowIndex row containing the names of the end entities
+   * @param startColumn column containing the names of the start entities
+   * @param types relation types to retrieve
+   * @return relations in sheet order
+   */
+  private RelationMatrix readMatrix(String sheetName, int headerRowIndex, int startColumn,
+      String[] types) {
+    MatrixReader reader = new MatrixReader(headerRowIndex, startColumn, types, types);
+    source.readSheet(sheetName, reader);
+    return reader.getMatrix();
+  }
+
+  /**
+   * Collects the cells of a relation matrix with one of the given values into a relation matrix.
+   * The name of the start entity is read once for every row containing a relation.
+   */
+  private static class MatrixReader extends MatrixRowHandler {
+    // column containing the names of the start entities
+    private final int startColumn;
+    // cell values to retrieve and the resulting relation type with the same index
+    private final String[] values;
+    private final String[] types;
+    private RelationMatrix matrix;
+    // position of the current row in the matrix, -1 until its first relation is found
+    private int currentRow;
+    // type code + 2 by index in the shared strings table, 0 if the string has not been decoded yet
+    // and 1 if it is no relation type
+    private byte[] sharedStringCodes = new byte[0];
+
+    MatrixReader(int headerRowIndex, int startColumn, String[] values, String[] types) {
+      super(headerRowIndex);
+      this.startColumn = startColumn;
+      this.values = values;
+      this.types = types;
+    }
+
+    @Override
+    public void handleRow(SheetRow row) {
+      currentRow = -1;
+      super.handleRow(row);
+    }
+
+    @Override
+    void handleCell(SheetRow row, int columnIndex, String value) {
+      int typeCode = decode(row.getSharedString(columnIndex), value);
+      if (typeCode < 0) {
+        return;
+      }
+      if (currentRow < 0) {
+        currentRow = getMatrix().addRow(row.getString(startColumn));
+      }
+      matrix.addRelation(currentRow, columnIndex, typeCode);
+    }
+
+    /**
+     * Decodes the relation type of a cell. Shared strings are compared with the values once and
+     * afterwards looked up by their index.
+     * 
+     * @param sharedString index of the value in the shared strings table or -1
+     * @param value value of the cell
+     * @return type code or -1 if the value is no relation type
+     */
+    private int decode(int sharedString, String value) {
+      if (sharedString < 0) {
+        return findTypeCode(value);
+      }
+      if (sharedString >= sharedStringCodes.length) {
+        sharedStringCodes = Arrays.copyOf(sharedStringCodes,
+            Math.max(sharedStringCodes.length * 2, sharedString + 1));
+      }
+      if (sharedStringCodes[sharedString] == 0) {
+        sharedStringCodes[sharedString] = (byte) (findTypeCode(value) + 2);
+      }
+      return sharedStringCodes[sharedString] - 2;
+    }
+
+    private int findTypeCode(String value) {
+      for (int typeCode = 0; typeCode < values.length; typeCode++) {
+        if (values[typeCode].equals(value)) {
+          return typeCode;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Gets the collected relations. Columns are taken from the header row, thus the matrix is
+     * created on first use.
+     */
+    RelationMatrix getMatrix() {
+      if (matrix == null) {
+        matrix = new RelationMatrix(getHeaders(), types);
+      }
+      return matrix;
+    }
+  }
+
+  /**
+   * Row of the knowledge base sheet. The name of the decision point is empty if the row does not
+   * start a new decision point and the name of the decision is empty if the row only defines a
+   * further outcome.
+   */
+  public static class EntityRow {
+    private String decisionPoint;
+    private String decision;
+    private String outcome;
+    private String decisionPointDescription;
+    private String decisionDescription;
+    private String outcomeDescription;
+    private String decisionPointClassification;
+    private String decisionClassification;
+    private String decisionPointAbbrev;
+    private String decisionAbbrev;
+    private String outcomeAbbrev;
+
+    public String getDecisionPoint() {
+      return decisionPoint;
+    }
+
+    public String getDecision() {
+      return decision;
+    }
+
+    public String getOutcome() {
+      return outcome;
+    }
+
+    public String getDecisionPointDescription() {
+      return decisionPointDescription;
+    }
+
+    public String getDecisionDescription() {
+      return decisionDescription;
+    }
+
+    public String getOutcomeDescription() {
+      return outcomeDescription;
+    }
+
+    public String getDecisionPointClassification() {
+      return decisionPointClassification;
+    }
+
+    public String getDecisionClassification() {
+      return decisionClassification;
+    }
+
+    public String getDecisionPointAbbrev() {
+      return decisionPointAbbrev;
+    }
+
+    public String getDecisionAbbrev() {
+      return decisionAbbrev;
+    }
+
+    public String getOutcomeAbbrev() {
+      return outcomeAbbrev;
+    }
+  }
+}
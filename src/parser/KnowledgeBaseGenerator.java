@@ -0,0 +1,491 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.CloudDSF;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Generates synthetic knowledge bases of configurable size for scale tests and benchmarks. The
+ * generated sheets are provided directly as sheet source, thus models can be created without a
+ * workbook, and can be written into a workbook with the layout of the knowledge base file. The
+ * relations are chosen randomly but satisfy all verification methods of the cloudDSF:
+ * <ul>
+ * <li>two decisions are either not related, influencing into one or both directions or affecting
+ * into one and binding into the other direction, requiring relations are added independently</li>
+ * <li>every non requiring decision relation has exactly one outcome relation for each pair of
+ * outcomes of its decisions, aff for affecting, eb for binding and in, a or ex for influencing</li>
+ * <li>excluding outcome relations have no including or allowing relation in the reverse case</li>
+ * </ul>
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBaseGenerator implements SheetSource {
+  /**
+   * Names of the generated sheets in order of the workbook.
+   */
+  private static final String[] SHEETS = {"Knowledge Base", "Decision Level", "Required Level",
+      "Outcome Level", "Task Level"};
+  // number of generated tasks
+  private static final int TASKS = 10;
+  // decision relation types
+  private static final byte NONE = 0;
+  private static final byte INFLUENCING = 1;
+  private static final byte AFFECTING = 2;
+  private static final byte BINDING = 3;
+  // task relation types as written into the task sheet
+  private static final String[] TASK_RELATIONS = {null, "Affecting", "Both", "Affected"};
+
+  private final int decisionPoints;
+  private final int decisionsPerPoint;
+  private final int outcomesPerDecision;
+  private final long seed;
+  // influencing, affecting and binding relations by index of start and end decision
+  private final byte[][] decisionRelations;
+  // requiring relations by index of start and end decision
+  private final boolean[][] requiringRelations;
+  // task relations by index of task and decision
+  private final byte[][] taskRelations;
+
+  /**
+   * Default constructor generating the structure of the knowledge base. The same arguments always
+   * result in the same knowledge base.
+   * 
+   * @param decisionPoints number of decision points
+   * @param decisionsPerPoint number of decisions of every decision point (at most 99)
+   * @param outcomesPerDecision number of outcomes of every decision (at most 99)
+   * @param relationDensity probability of two decisions being related (0 to 1)
+   * @param seed seed of the random relations
+   */
+  public KnowledgeBaseGenerator(int decisionPoints, int decisionsPerPoint,
+      int outcomesPerDecision, double relationDensity, long seed) {
+    // ids are computed by multiplying the parent id with 100
+    if (decisionPoints < 1 || decisionsPerPoint < 1 || decisionsPerPoint > 99
+        || outcomesPerDecision < 1 || outcomesPerDecision > 99) {
+      throw new IllegalArgumentException("Invalid size of knowledge base " + decisionPoints + "x"
+          + decisionsPerPoint + "x" + outcomesPerDecision);
+    }
+    if (relationDensity < 0 || relationDensity > 1) {
+      throw new IllegalArgumentException("Invalid relation density " + relationDensity);
+    }
+    this.decisionPoints = decisionPoints;
+    this.decisionsPerPoint = decisionsPerPoint;
+    this.outcomesPerDecision = outcomesPerDecision;
+    this.seed = seed;
+    int decisions = getDecisionCount();
+    decisionRelations = new byte[decisions][decisions];
+    requiringRelations = new boolean[decisions][decisions];
+    taskRelations = new byte[TASKS][decisions];
+    Random random = new Random(seed);
+    for (int i = 0; i < decisions; i++) {
+      for (int j = i + 1; j < decisions; j++) {
+        if (random.nextDouble() < relationDensity) {
+          switch (random.nextInt(5)) {
+            case 0:
+              decisionRelations[i][j] = INFLUENCING;
+              break;
+            case 1:
+              decisionRelations[j][i] = INFLUENCING;
+              break;
+            case 2:
+              decisionRelations[i][j] = INFLUENCING;
+              decisionRelations[j][i] = INFLUENCING;
+              break;
+            case 3:
+              decisionRelations[i][j] = AFFECTING;
+              decisionRelations[j][i] = BINDING;
+              break;
+            default:
+              decisionRelations[i][j] = BINDING;
+              decisionRelations[j][i] = AFFECTING;
+          }
+        }
+        // requiring relations may be combined with all other relations
+        requiringRelations[i][j] = random.nextDouble() < relationDensity / 4;
+        requiringRelations[j][i] = random.nextDouble() < relationDensity / 4;
+      }
+    }
+    for (int t = 0; t < TASKS; t++) {
+      for (int i = 0; i < decisions; i++) {
+        if (random.nextDouble() < relationDensity) {
+          taskRelations[t][i] = (byte) (1 + random.nextInt(3));
+        }
+      }
+    }
+  }
+
+  public int getDecisionCount() {
+    return decisionPoints * decisionsPerPoint;
+  }
+
+  public int getOutcomeCount() {
+    return getDecisionCount() * outcomesPerDecision;
+  }
+
+  /**
+   * Gets the number of generated outcome relations.
+   * 
+   * @return number of outcome relations
+   */
+  public long getOutcomeRelationCount() {
+    long count = 0;
+    for (byte[] relations : decisionRelations) {
+      for (byte relation : relations) {
+        if (relation != NONE) {
+          count += outcomesPerDecision * outcomesPerDecision;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Creates the cloudDSFPlus of the generated knowledge base.
+   * 
+   * @return cloudDSFPlus object
+   */
+  public CloudDSF createCloudDSFPlus() {
+    return new CloudDSFPlusParser(this).readExcel();
+  }
+
+  /**
+   * Creates the legacy cloudDSF of the generated knowledge base.
+   * 
+   * @return cloudDSF object
+   */
+  public CloudDSF createCloudDSF() {
+    return new CloudDSFParser(this).readExcel();
+  }
+
+  /**
+   * Writes the generated knowledge base as excel file. Rows are streamed into the file, thus large
+   * knowledge bases can be written with little memory.
+   * 
+   * @param out stream the workbook is written to
+   * @throws IOException Writing of the workbook fails
+   */
+  public void write(OutputStream out) throws IOException {
+    final SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+    try {
+      for (final String sheetName : SHEETS) {
+        final Sheet sheet = workbook.createSheet(sheetName);
+        final Drawing drawing = sheet.createDrawingPatriarch();
+        readSheet(sheetName, new RowHandler() {
+          @Override
+          public void handleRow(SheetRow row) {
+            Row excelRow = sheet.createRow(row.getRowIndex());
+            for (int i = 0; i < row.getSize(); i++) {
+              String value = row.getString(i);
+              if (value.isEmpty()) {
+                continue;
+              }
+              Cell cell = excelRow.createCell(i);
+              cell.setCellValue(value);
+              String abbrev = getComment(sheetName, row.getRowIndex(), i);
+              if (abbrev != null) {
+                cell.setCellComment(createComment(workbook, drawing, cell, abbrev));
+              }
+            }
+          }
+        });
+      }
+      workbook.write(out);
+    } finally {
+      workbook.dispose();
+    }
+  }
+
+  /**
+   * Creates a comment for a cell.
+   */
+  private static Comment createComment(SXSSFWorkbook workbook, Drawing drawing, Cell cell,
+      String text) {
+    CreationHelper factory = workbook.getCreationHelper();
+    ClientAnchor anchor = factory.createClientAnchor();
+    anchor.setCol1(cell.getColumnIndex());
+    anchor.setCol2(cell.getColumnIndex() + 2);
+    anchor.setRow1(cell.getRowIndex());
+    anchor.setRow2(cell.getRowIndex() + 3);
+    Comment comment = drawing.createCellComment(anchor);
+    comment.setString(factory.createRichTextString(text));
+    return comment;
+  }
+
+  @Override
+  public void readSheet(String sheetName, RowHandler handler) {
+    SheetRow row = new SheetRow();
+    switch (sheetName) {
+      case "Knowledge Base":
+        readKnowledgeBase(row, handler);
+        break;
+      case "Decision Level":
+        readDecisionLevel(row, handler, false);
+        break;
+      case "Required Level":
+        readDecisionLevel(row, handler, true);
+        break;
+      case "Outcome Level":
+        readOutcomeLevel(row, handler);
+        break;
+      case "Task Level":
+        readTaskLevel(row, handler);
+        break;
+      default:
+        throw new IllegalArgumentException("Sheet " + sheetName + " does not exist");
+    }
+  }
+
+  /**
+   * Gets the abbreviation of the entities in the knowledge base sheet.
+   */
+  @Override
+  public String getComment(String sheetName, int rowIndex, int columnIndex) {
+    if (sheetName.equals("Knowledge Base") == false || rowIndex < 1
+        || rowIndex > getOutcomeCount()) {
+      return null;
+    }
+    // one row per outcome below the headline
+    int outcome = rowIndex - 1;
+    int decision = outcome / outcomesPerDecision;
+    switch (columnIndex) {
+      case 0:
+        return isFirstOutcome(outcome) && isFirstDecision(decision) ? "DP"
+            + (decision / decisionsPerPoint + 1) : null;
+      case 1:
+        return isFirstOutcome(outcome) ? "D" + getDecisionNumber(decision) : null;
+      case 2:
+        return "O" + getOutcomeNumber(outcome);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Provides the rows of the knowledge base sheet with one row per outcome.
+   */
+  private void readKnowledgeBase(SheetRow row, RowHandler handler) {
+    row.reset(0);
+    row.setString(0, "Decision Point");
+    row.setString(1, "Decision");
+    row.setString(2, "Outcome");
+    row.setString(3, "Decision Point Description");
+    row.setString(4, "Decision Description");
+    row.setString(5, "Outcome Description");
+    row.setString(6, "Decision Point Classification");
+    row.setString(7, "Decision Classification");
+    handler.handleRow(row);
+    for (int o = 0; o < getOutcomeCount(); o++) {
+      int decision = o / outcomesPerDecision;
+      row.reset(o + 1);
+      if (isFirstOutcome(o)) {
+        if (isFirstDecision(decision)) {
+          String label = getDecisionPointLabel(decision / decisionsPerPoint);
+          row.setString(0, label);
+          row.setString(3, "Description of " + label);
+          row.setString(6, "Classification " + (decision / decisionsPerPoint % 3 + 1));
+        }
+        String label = getDecisionLabel(decision);
+        row.setString(1, label);
+        row.setString(4, "Description of " + label);
+        row.setString(7, "Classification " + (decision % 3 + 1));
+      }
+      String label = getOutcomeLabel(o);
+      row.setString(2, label);
+      row.setString(5, "Description of " + label);
+      handler.handleRow(row);
+    }
+  }
+
+  /**
+   * Provides the rows of the decision relation matrix.
+   * 
+   * @param requiring true for the requiring relations otherwise the other decision relations
+   */
+  private void readDecisionLevel(SheetRow row, RowHandler handler, boolean requiring) {
+    int decisions = getDecisionCount();
+    row.reset(0);
+    row.setString(0, requiring ? "Required Level" : "Decision Level");
+    handler.handleRow(row);
+    // Row 1 has names of endDecision
+    row.reset(1);
+    row.setString(0, "Decision Point");
+    row.setString(1, "Decision");
+    for (int j = 0; j < decisions; j++) {
+      row.setString(2 + j, getDecisionLabel(j));
+    }
+    handler.handleRow(row);
+    for (int i = 0; i < decisions; i++) {
+      row.reset(2 + i);
+      if (isFirstDecision(i)) {
+        row.setString(0, getDecisionPointLabel(i / decisionsPerPoint));
+      }
+      // Column B has name of start Decision
+      row.setString(1, getDecisionLabel(i));
+      for (int j = 0; j < decisions; j++) {
+        if (requiring) {
+          if (requiringRelations[i][j]) {
+            row.setString(2 + j, "Requiring");
+          }
+        } else if (decisionRelations[i][j] == INFLUENCING) {
+          row.setString(2 + j, "Influencing");
+        } else if (decisionRelations[i][j] == AFFECTING) {
+          row.setString(2 + j, "Affecting");
+        } else if (decisionRelations[i][j] == BINDING) {
+          row.setString(2 + j, "Binding");
+        }
+      }
+      handler.handleRow(row);
+    }
+  }
+
+  /**
+   * Provides the rows of the outcome relation matrix.
+   */
+  private void readOutcomeLevel(SheetRow row, RowHandler handler) {
+    int decisions = getDecisionCount();
+    // Row 0 has names of endOutcome
+    row.reset(0);
+    row.setString(0, "Decision");
+    row.setString(1, "Outcome");
+    for (int b = 0; b < getOutcomeCount(); b++) {
+      row.setString(2 + b, getOutcomeLabel(b));
+    }
+    handler.handleRow(row);
+    for (int a = 0; a < getOutcomeCount(); a++) {
+      int i = a / outcomesPerDecision;
+      row.reset(1 + a);
+      if (isFirstOutcome(a)) {
+        row.setString(0, getDecisionLabel(i));
+      }
+      // Column B has name of start Outcome
+      row.setString(1, getOutcomeLabel(a));
+      for (int j = 0; j < decisions; j++) {
+        if (decisionRelations[i][j] != NONE) {
+          for (int b = j * outcomesPerDecision; b < (j + 1) * outcomesPerDecision; b++) {
+            row.setString(2 + b, getOutcomeRelationType(decisionRelations[i][j], a, b));
+          }
+        }
+      }
+      handler.handleRow(row);
+    }
+  }
+
+  /**
+   * Provides the rows of the task relation matrix.
+   */
+  private void readTaskLevel(SheetRow row, RowHandler handler) {
+    int decisions = getDecisionCount();
+    row.reset(0);
+    row.setString(0, "Task Level");
+    handler.handleRow(row);
+    // Row 1 has names of endDecision
+    row.reset(1);
+    row.setString(0, "Task");
+    for (int j = 0; j < decisions; j++) {
+      row.setString(1 + j, getDecisionLabel(j));
+    }
+    handler.handleRow(row);
+    for (int t = 0; t < TASKS; t++) {
+      row.reset(2 + t);
+      // Column A has name of start Task
+      row.setString(0, "Task " + (t + 1));
+      for (int j = 0; j < decisions; j++) {
+        if (taskRelations[t][j] != NONE) {
+          row.setString(1 + j, TASK_RELATIONS[taskRelations[t][j]]);
+        }
+      }
+      handler.handleRow(row);
+    }
+  }
+
+  /**
+   * Gets the type of the outcome relation between two outcomes of related decisions. Outcome
+   * relations of influencing decisions are excluding in both directions or including/allowing in
+   * both directions.
+   * 
+   * @param decisionRelation type of the decision relation
+   * @param start index of start outcome
+   * @param end index of end outcome
+   * @return outcome relation type
+   */
+  private String getOutcomeRelationType(byte decisionRelation, int start, int end) {
+    switch (decisionRelation) {
+      case AFFECTING:
+        return "aff";
+      case BINDING:
+        return "eb";
+      default:
+        // same decision for both directions between two outcomes
+        if (hash(Math.min(start, end), Math.max(start, end), 0) % 3 == 0) {
+          return "ex";
+        }
+        return hash(start, end, 1) % 2 == 0 ? "in" : "a";
+    }
+  }
+
+  /**
+   * Hashes two outcome indexes together with the seed.
+   * 
+   * @return non negative hash
+   */
+  private int hash(int a, int b, int salt) {
+    long z = seed + a * 0x9E3779B97F4A7C15L + b * 0xC2B2AE3D27D4EB4FL + salt;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return (int) ((z ^ (z >>> 31)) >>> 33);
+  }
+
+  private boolean isFirstDecision(int decision) {
+    return decision % decisionsPerPoint == 0;
+  }
+
+  private boolean isFirstOutcome(int outcome) {
+    return outcome % outcomesPerDecision == 0;
+  }
+
+  private String getDecisionNumber(int decision) {
+    return (decision / decisionsPerPoint + 1) + "." + (decision % decisionsPerPoint + 1);
+  }
+
+  private String getOutcomeNumber(int outcome) {
+    return getDecisionNumber(outcome / outcomesPerDecision) + "."
+        + (outcome % outcomesPerDecision + 1);
+  }
+
+  private String getDecisionPointLabel(int decisionPoint) {
+    return "Decision Point " + (decisionPoint + 1);
+  }
+
+  private String getDecisionLabel(int decision) {
+    return "Decision " + getDecisionNumber(decision);
+  }
+
+  private String getOutcomeLabel(int outcome) {
+    return "Outcome " + getOutcomeNumber(outcome);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.CloudDSF;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Parses knowledge bases (excel files) into the cloudDSF and the cloudDSFPlus. The parser keeps no
+ * state of a parse, every call works on its own knowledge base and parsers of the two models, thus
+ * one instance can be reused and called concurrently by any number of threads. The xml readers of
+ * the sheets are pooled per thread by the sheet source.
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBaseParser {
+  /**
+   * Version of the parsing, increased whenever a change of the parsing or of the sheet sources
+   * changes the parsed models, thus models cached by an earlier version are parsed again.
+   */
+  public static final int VERSION = 1;
+
+  // reads the sheets of a knowledge base concurrently, null to read them one after another
+  private final ExecutorService executor;
+
+  /**
+   * Default constructor for a parser reading the sheets on the calling thread.
+   */
+  public KnowledgeBaseParser() {
+    this(null);
+  }
+
+  /**
+   * Constructor for a parser reading the sheets of every knowledge base concurrently. The parse
+   * methods wait for the sheets, thus they must not be called by the threads of a bounded executor
+   * unless it is a ForkJoinPool.
+   * 
+   * @param executor executor reading the sheets or null to read them on the calling thread
+   */
+  public KnowledgeBaseParser(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Parses a knowledge base file.
+   * 
+   * @param file excel file containing the knowledge base
+   * @return cloudDSF and cloudDSFPlus of the knowledge base, not validated
+   * @throws IOException Reading of the excel file fails
+   */
+  public ModelCache.Models parse(File file) throws IOException {
+    StreamingSheetSource source = StreamingSheetSource.open(file);
+    try {
+      return parse(source);
+    } finally {
+      source.close();
+    }
+  }
+
+  /**
+   * Parses a knowledge base from a stream e.g. from the classpath.
+   * 
+   * @param in stream of the excel file containing the knowledge base
+   * @return cloudDSF and cloudDSFPlus of the knowledge base, not validated
+   * @throws IOException Reading of the stream fails
+   */
+  public ModelCache.Models parse(InputStream in) throws IOException {
+    StreamingSheetSource source = StreamingSheetSource.open(in);
+    try {
+      return parse(source);
+    } finally {
+      source.close();
+    }
+  }
+
+  /**
+   * Parses the sheets of a knowledge base. The source is read completely before this method
+   * returns, thus it can be closed afterwards.
+   * 
+   * @param source sheets of the excel file containing the knowledge base
+   * @return cloudDSF and cloudDSFPlus of the knowledge base, not validated
+   * @throws IOException Reading of the sheets is interrupted
+   */
+  public ModelCache.Models parse(SheetSource source) throws IOException {
+    // sheets are read once and shared by both parsers
+    KnowledgeBase knowledgeBase = new KnowledgeBase(source);
+    if (executor != null) {
+      try {
+        knowledgeBase.readSheets(executor);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Reading of the sheets was interrupted", e);
+      }
+    }
+    CloudDSF cdsf = new CloudDSFParser(knowledgeBase).readExcel();
+    CloudDSF cdsfPlus = new CloudDSFPlusParser(knowledgeBase).readExcel();
+    return new ModelCache.Models(cdsf, cdsfPlus);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+/**
+ * Row handler for the relation matrices of the knowledge base. The names of the end entities are
+ * taken from the header row and every non empty cell below the header row is passed to
+ * handleCell.
+ * 
+ * @author Metz
+ *
+ */
+abstract class MatrixRowHandler implements RowHandler {
+  // row containing the names of the end entities
+  private final int headerRowIndex;
+  // names of the end entities by column index
+  private String[] header = new String[0];
+
+  /**
+   * Default constructor.
+   * 
+   * @param headerRowIndex zero based index of the row containing the names of the end entities
+   */
+  MatrixRowHandler(int headerRowIndex) {
+    this.headerRowIndex = headerRowIndex;
+  }
+
+  @Override
+  public void handleRow(SheetRow row) {
+    if (row.getRowIndex() == headerRowIndex) {
+      header = new String[row.getSize()];
+      for (int i = 0; i < header.length; i++) {
+        header[i] = row.getString(i);
+      }
+    } else if (row.getRowIndex() > headerRowIndex) {
+      for (int i = 0; i < row.getSize(); i++) {
+        String value = row.getString(i);
+        if (value.isEmpty() == false) {
+          handleCell(row, i, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the names of the end entities of all columns.
+   * 
+   * @return names by column index, empty if the header row has not been read yet
+   */
+  String[] getHeaders() {
+    return header.clone();
+  }
+
+  /**
+   * Handles a non empty cell of the matrix.
+   * 
+   * @param row current row
+   * @param columnIndex column index of the cell
+   * @param value value of the cell
+   */
+  abstract void handleCell(SheetRow row, int columnIndex, String value);
+}
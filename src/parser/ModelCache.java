@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.CloudDSFCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File cache of the parsed and validated cloudDSF and cloudDSFPlus of a knowledge base. The cache
+ * holds the models of one knowledge base identified by the SHA-256 hash of the content of the
+ * excel file, thus a changed knowledge base is parsed again. The models are only taken from a cache
+ * written with the same versions of the cache layout, the parsing and the binary format of the
+ * models. Changes of the parsing that change the parsed models have to increase
+ * {@link KnowledgeBaseParser#VERSION}. Next to the models the cache holds the digests of the files
+ * written from them, thus the files are only written again if they have been changed or deleted.
+ * 
+ * @author Metz
+ *
+ */
+public class ModelCache {
+  // identifies cache files
+  private static final int MAGIC = 0x43445346;
+  // version of the layout of the cache file, increased whenever the layout changes
+  private static final int VERSION = 2;
+
+  private final File file;
+
+  /**
+   * Default constructor.
+   * 
+   * @param file cache file, created on first store
+   */
+  public ModelCache(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Calculates the key of a knowledge base.
+   * 
+   * @param content content of the excel file
+   * @return SHA-256 hash of the content
+   */
+  public static byte[] hash(byte[] content) {
+    return createDigest().digest(content);
+  }
+
+  /**
+   * Calculates the digest of a written file without reading it into memory.
+   * 
+   * @param file written file
+   * @return SHA-256 hash of the content of the file
+   * @throws IOException Reading of the file fails
+   */
+  public static byte[] hash(File file) throws IOException {
+    MessageDigest digest = createDigest();
+    InputStream in = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8192];
+      int length;
+      while ((length = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, length);
+      }
+    } finally {
+      in.close();
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Creates the digest used for the hashes of knowledge bases and written files.
+   * 
+   * @return SHA-256 digest
+   */
+  static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Loads the models of a knowledge base and the digests of the files written from them.
+   * 
+   * @param hash hash of the knowledge base
+   * @return cached entry or null if the cache does not exist, belongs to another knowledge base or
+   *         version or cannot be read
+   */
+  public Entry load(byte[] hash) {
+    return read(hash, true);
+  }
+
+  /**
+   * Loads the digests of the files written from the cached models without reading the models.
+   * 
+   * @param hash hash of the knowledge base
+   * @return digests by file name or null if the cache does not exist, belongs to another knowledge
+   *         base or version or cannot be read
+   */
+  public Map<String, byte[]> loadOutputs(byte[] hash) {
+    Entry entry = read(hash, false);
+    return entry == null ? null : entry.getOutputs();
+  }
+
+  /**
+   * Reads the cache file, the digests precede the models, thus the models are only read if needed.
+   */
+  private Entry read(byte[] hash, boolean readModels) {
+    if (file.isFile() == false) {
+      return null;
+    }
+    try {
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION
+            || in.readInt() != KnowledgeBaseParser.VERSION
+            || in.readInt() != CloudDSFCodec.VERSION || matches(in, hash) == false) {
+          return null;
+        }
+        Map<String, byte[]> outputs = new LinkedHashMap<String, byte[]>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          String name = in.readUTF();
+          byte[] digest = new byte[in.readInt()];
+          in.readFully(digest);
+          outputs.put(name, digest);
+        }
+        Models models = null;
+        if (readModels) {
+          models = new Models(CloudDSFCodec.read(in), CloudDSFCodec.read(in));
+        }
+        return new Entry(models, outputs);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      // outdated or damaged cache is replaced on next store
+      return null;
+    }
+  }
+
+  /**
+   * Reads a hash and compares it with the expected one.
+   */
+  private static boolean matches(DataInputStream in, byte[] expected) throws IOException {
+    if (in.readInt() != expected.length) {
+      return false;
+    }
+    byte[] cached = new byte[expected.length];
+    in.readFully(cached);
+    return Arrays.equals(expected, cached);
+  }
+
+  /**
+   * Stores the models of a knowledge base and the digests of the files written from them replacing
+   * the cached entry.
+   * 
+   * @param hash hash of the knowledge base
+   * @param entry parsed and validated models and the digests of their files
+   * @throws IOException Writing of the cache file fails
+   */
+  public void store(byte[] hash, Entry entry) throws IOException {
+    // write into a temporary file first, thus a failed write does not leave a damaged cache
+    File tmp = new File(file.getPath() + ".tmp");
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(KnowledgeBaseParser.VERSION);
+      out.writeInt(CloudDSFCodec.VERSION);
+      out.writeInt(hash.length);
+      out.write(hash);
+      out.writeInt(entry.getOutputs().size());
+      for (Map.Entry<String, byte[]> output : entry.getOutputs().entrySet()) {
+        out.writeUTF(output.getKey());
+        out.writeInt(output.getValue().length);
+        out.write(output.getValue());
+      }
+      CloudDSFCodec.write(entry.getModels().getCloudDSF(), out);
+      CloudDSFCodec.write(entry.getModels().getCloudDSFPlus(), out);
+    } finally {
+      out.close();
+    }
+    if (file.exists() && file.delete() == false || tmp.renameTo(file) == false) {
+      throw new IOException("Cache " + file + " could not be replaced");
+    }
+  }
+
+  /**
+   * Cached models of one knowledge base and the digests of the files written from them.
+   */
+  public static class Entry {
+    private final Models models;
+    private final Map<String, byte[]> outputs;
+
+    /**
+     * Constructor for an entry.
+     * 
+     * @param models parsed and validated models
+     * @param outputs digests of the written files by file name
+     */
+    public Entry(Models models, Map<String, byte[]> outputs) {
+      this.models = models;
+      this.outputs = Collections.unmodifiableMap(new LinkedHashMap<String, byte[]>(outputs));
+    }
+
+    public Models getModels() {
+      return models;
+    }
+
+    public Map<String, byte[]> getOutputs() {
+      return outputs;
+    }
+  }
+
+  /**
+   * Parsed cloudDSF and cloudDSFPlus of one knowledge base.
+   */
+  public static class Models {
+    private final CloudDSF cloudDSF;
+    private final CloudDSF cloudDSFPlus;
+
+    public Models(CloudDSF cloudDSF, CloudDSF cloudDSFPlus) {
+      this.cloudDSF = cloudDSF;
+      this.cloudDSFPlus = cloudDSFPlus;
+    }
+
+    public CloudDSF getCloudDSF() {
+      return cloudDSF;
+    }
+
+    public CloudDSF getCloudDSFPlus() {
+      return cloudDSFPlus;
+    }
+  }
+}
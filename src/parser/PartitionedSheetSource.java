@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Sheet source able to split the rows of a large sheet into consecutive row ranges which are
+ * parsed concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public interface PartitionedSheetSource extends SheetSource {
+  /**
+   * Reads all rows of a sheet split into at most one row range per handler. The handler with index
+   * i receives the rows of the i-th range in sheet order, thus handlers following the last range
+   * receive no rows e.g. if the sheet is too small to be split.
+   * 
+   * @param sheetName name of the sheet e.g. Outcome Level
+   * @param handlers handlers receiving the rows of one range each
+   * @param executor executor parsing the ranges e.g. a ForkJoinPool
+   * @throws InterruptedException Waiting for the ranges is interrupted
+   * @throws IllegalArgumentException if sheet does not exist
+   * @throws IllegalStateException if reading of the sheet fails
+   */
+  void readSheet(String sheetName, List<? extends RowHandler> handlers, ExecutorService executor)
+      throws InterruptedException;
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Relations of one relation matrix sheet of the knowledge base. The names of the start entities
+ * (one per row with relations) and of the end entities (one per column) are kept once, every
+ * relation only refers to them by position together with the code of its type. Thus parsers
+ * resolve every name once into an id table and map the relations by array access.
+ * 
+ * @author Metz
+ *
+ */
+public class RelationMatrix {
+  // names of the start entities by row position
+  private final List<String> rowLabels = new ArrayList<String>();
+  // names of the end entities by column index
+  private final List<String> columnLabels;
+  // type labels by type code
+  private final List<String> types;
+
+  private int[] rows = new int[16];
+  private int[] columns = new int[16];
+  private byte[] typeCodes = new byte[16];
+  private int size;
+
+  /**
+   * Default constructor.
+   * 
+   * @param columnLabels names of the end entities by column index
+   * @param types labels of the relation types by type code
+   */
+  RelationMatrix(String[] columnLabels, String[] types) {
+    this.columnLabels = new ArrayList<String>(Arrays.asList(columnLabels));
+    this.types = Collections.unmodifiableList(Arrays.asList(types.clone()));
+  }
+
+  /**
+   * Adds the start entity of a row.
+   * 
+   * @param label name of the start entity
+   * @return position of the row
+   */
+  int addRow(String label) {
+    rowLabels.add(label);
+    return rowLabels.size() - 1;
+  }
+
+  /**
+   * Adds a relation.
+   * 
+   * @param row position of the row of the start entity
+   * @param column column index of the end entity
+   * @param typeCode index of the relation type
+   */
+  void addRelation(int row, int column, int typeCode) {
+    // cells right of the header row have no name
+    while (column >= columnLabels.size()) {
+      columnLabels.add("");
+    }
+    if (size == rows.length) {
+      int capacity = rows.length * 2;
+      rows = Arrays.copyOf(rows, capacity);
+      columns = Arrays.copyOf(columns, capacity);
+      typeCodes = Arrays.copyOf(typeCodes, capacity);
+    }
+    rows[size] = row;
+    columns[size] = column;
+    typeCodes[size] = (byte) typeCode;
+    size++;
+  }
+
+  /**
+   * Appends the rows and relations of a matrix read from the following rows of the same sheet.
+   * 
+   * @param following matrix with the same relation types
+   */
+  void append(RelationMatrix following) {
+    int rowOffset = rowLabels.size();
+    rowLabels.addAll(following.rowLabels);
+    for (int i = 0; i < following.size; i++) {
+      addRelation(rowOffset + following.rows[i], following.columns[i], following.typeCodes[i]);
+    }
+  }
+
+  /**
+   * Gets the names of the start entities.
+   * 
+   * @return names by row position
+   */
+  public List<String> getRowLabels() {
+    return Collections.unmodifiableList(rowLabels);
+  }
+
+  /**
+   * Gets the names of the end entities taken from the header row.
+   * 
+   * @return names by column index, empty strings for columns without name
+   */
+  public List<String> getColumnLabels() {
+    return Collections.unmodifiableList(columnLabels);
+  }
+
+  /**
+   * Gets the labels of the relation types.
+   * 
+   * @return labels by type code
+   */
+  public List<String> getTypes() {
+    return types;
+  }
+
+  /**
+   * Number of relations in the sheet.
+   * 
+   * @return number of relations
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the row of the start entity of a relation.
+   * 
+   * @param index index of the relation in sheet order
+   * @return position in the row labels
+   */
+  public int getRow(int index) {
+    checkIndex(index);
+    return rows[index];
+  }
+
+  /**
+   * Gets the column of the end entity of a relation.
+   * 
+   * @param index index of the relation in sheet order
+   * @return position in the column labels
+   */
+  public int getColumn(int index) {
+    checkIndex(index);
+    return columns[index];
+  }
+
+  /**
+   * Gets the type of a relation.
+   * 
+   * @param index index of the relation in sheet order
+   * @return position in the type labels
+   */
+  public int getTypeCode(int index) {
+    checkIndex(index);
+    return typeCodes[index];
+  }
+
+  /**
+   * Gets the id of the start entity of a relation.
+   * 
+   * @param index index of the relation in sheet order
+   * @param rowToId ids of the start entities by row position, negative for unknown entities
+   * @return id of the start entity
+   * @throws IllegalArgumentException if the start entity is unknown
+   */
+  int getSourceId(int index, int[] rowToId) {
+    return getId(rowToId, rowLabels, getRow(index));
+  }
+
+  /**
+   * Gets the id of the end entity of a relation.
+   * 
+   * @param index index of the relation in sheet order
+   * @param columnToId ids of the end entities by column index, negative for unknown entities
+   * @return id of the end entity
+   * @throws IllegalArgumentException if the end entity is unknown
+   */
+  int getTargetId(int index, int[] columnToId) {
+    return getId(columnToId, columnLabels, getColumn(index));
+  }
+
+  private static int getId(int[] ids, List<String> labels, int position) {
+    if (ids[position] < 0) {
+      throw new IllegalArgumentException("Entity " + labels.get(position) + " does not exist");
+    }
+    return ids[position];
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+/**
+ * Callback receiving the rows of a sheet from a {@link SheetSource}.
+ * 
+ * @author Metz
+ *
+ */
+public interface RowHandler {
+  /**
+   * Handles one row of the sheet. Rows are passed in ascending order, missing rows are skipped.
+   * 
+   * @param row current row, only valid for the duration of the call
+   */
+  void handleRow(SheetRow row);
+}
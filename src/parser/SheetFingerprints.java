@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Fingerprints of the sheets of an excel file calculated from the CRCs stored in the zip
+ * directory, thus the sheets do not need to be read. The fingerprint of a sheet covers the sheet
+ * xml and all parts related to the sheet e.g. its comments. Values referenced from the shared
+ * strings are not covered.
+ * 
+ * @author Metz
+ *
+ */
+final class SheetFingerprints {
+  private static final String WORKBOOK = "xl/workbook.xml";
+  private static final String RELATIONSHIPS_NS =
+      "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+  private SheetFingerprints() {
+  }
+
+  /**
+   * Calculates the fingerprints of all sheets of an excel file.
+   * 
+   * @param file excel file
+   * @return fingerprints by sheet name in workbook order
+   * @throws IOException Reading of the zip directory or the workbook parts fails
+   */
+  static Map<String, Long> read(File file) throws IOException {
+    ZipFile zip = new ZipFile(file);
+    try {
+      // sheet names by relationship id of the workbook
+      final Map<String, String> sheets = new LinkedHashMap<String, String>();
+      parse(zip, WORKBOOK, new DefaultHandler() {
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+          if (localName.equals("sheet")) {
+            sheets.put(atts.getValue(RELATIONSHIPS_NS, "id"), atts.getValue("name"));
+          }
+        }
+      });
+      Map<String, String> targets = readRelationships(zip, WORKBOOK);
+      Map<String, Long> fingerprints = new LinkedHashMap<String, Long>();
+      for (Map.Entry<String, String> sheet : sheets.entrySet()) {
+        String part = targets.get(sheet.getKey());
+        if (part == null) {
+          continue;
+        }
+        CRC32 crc = new CRC32();
+        update(crc, zip, part);
+        for (String related : readRelationships(zip, part).values()) {
+          update(crc, zip, related);
+        }
+        fingerprints.put(sheet.getValue(), crc.getValue());
+      }
+      return fingerprints;
+    } finally {
+      zip.close();
+    }
+  }
+
+  /**
+   * Reads the relationships of a part.
+   * 
+   * @param zip excel file
+   * @param part name of the zip entry of the part
+   * @return zip entry names of the targets by relationship id, empty if the part has no
+   *         relationships
+   */
+  private static Map<String, String> readRelationships(ZipFile zip, String part)
+      throws IOException {
+    int slash = part.lastIndexOf('/');
+    final String folder = part.substring(0, slash + 1);
+    String relsPart = folder + "_rels/" + part.substring(slash + 1) + ".rels";
+    final Map<String, String> targets = new HashMap<String, String>();
+    if (zip.getEntry(relsPart) == null) {
+      return targets;
+    }
+    parse(zip, relsPart, new DefaultHandler() {
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes atts) {
+        // external targets e.g. hyperlinks are not part of the file
+        if (localName.equals("Relationship")
+            && "External".equals(atts.getValue("TargetMode")) == false) {
+          targets.put(atts.getValue("Id"), resolve(folder, atts.getValue("Target")));
+        }
+      }
+    });
+    return targets;
+  }
+
+  /**
+   * Resolves the target of a relationship to a zip entry name.
+   * 
+   * @param folder folder of the source part
+   * @param target absolute or relative target
+   * @return zip entry name
+   */
+  private static String resolve(String folder, String target) {
+    if (target.startsWith("/")) {
+      return target.substring(1);
+    }
+    List<String> path = new ArrayList<String>();
+    for (String segment : (folder + target).split("/")) {
+      if (segment.equals("..")) {
+        if (path.isEmpty() == false) {
+          path.remove(path.size() - 1);
+        }
+      } else if (segment.isEmpty() == false && segment.equals(".") == false) {
+        path.add(segment);
+      }
+    }
+    StringBuilder name = new StringBuilder();
+    for (String segment : path) {
+      if (name.length() > 0) {
+        name.append('/');
+      }
+      name.append(segment);
+    }
+    return name.toString();
+  }
+
+  /**
+   * Adds the CRC of a zip entry to the fingerprint.
+   */
+  private static void update(CRC32 crc, ZipFile zip, String part) {
+    ZipEntry entry = zip.getEntry(part);
+    long value = entry == null ? -1 : entry.getCrc();
+    for (int shift = 0; shift < 64; shift += 8) {
+      crc.update((int) (value >>> shift));
+    }
+  }
+
+  /**
+   * Parses xml of a zip entry.
+   */
+  private static void parse(ZipFile zip, String part, DefaultHandler handler) throws IOException {
+    ZipEntry entry = zip.getEntry(part);
+    if (entry == null) {
+      throw new IOException("Part " + part + " does not exist");
+    }
+    InputStream in = zip.getInputStream(entry);
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.newSAXParser().parse(new InputSource(in), handler);
+    } catch (SAXException | ParserConfigurationException e) {
+      throw new IOException("Part " + part + " could not be parsed", e);
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import java.util.Arrays;
+
+/**
+ * Values of one row of a sheet. The object is reused by the sheet sources for all rows of a sheet,
+ * thus handlers must copy values they want to keep beyond the current row.
+ * 
+ * @author Metz
+ *
+ */
+public class SheetRow {
+  // zero based index of the row in the sheet
+  private int rowIndex;
+  // cell values by column index, null for cells that are not present
+  private String[] cells = new String[16];
+  // index in the shared strings table by column index, -1 for cells with other values
+  private int[] sharedStrings = newSharedStrings(16);
+  // index of last present cell + 1
+  private int size;
+
+  /**
+   * Resets the row to an empty row with the given index.
+   * 
+   * @param rowIndex zero based index of the row
+   */
+  void reset(int rowIndex) {
+    Arrays.fill(cells, 0, size, null);
+    Arrays.fill(sharedStrings, 0, size, -1);
+    this.rowIndex = rowIndex;
+    this.size = 0;
+  }
+
+  /**
+   * Sets the value of a cell of the row.
+   * 
+   * @param columnIndex zero based column index
+   * @param value string value of the cell
+   */
+  void setString(int columnIndex, String value) {
+    setSharedString(columnIndex, -1, value);
+  }
+
+  /**
+   * Sets the value of a cell referring to the shared strings table of the workbook.
+   * 
+   * @param columnIndex zero based column index
+   * @param sharedString index of the value in the shared strings table, -1 if the value is not
+   *        shared
+   * @param value string value of the cell
+   */
+  void setSharedString(int columnIndex, int sharedString, String value) {
+    if (columnIndex >= cells.length) {
+      int capacity = Math.max(cells.length * 2, columnIndex + 1);
+      cells = Arrays.copyOf(cells, capacity);
+      int[] grown = newSharedStrings(capacity);
+      System.arraycopy(sharedStrings, 0, grown, 0, sharedStrings.length);
+      sharedStrings = grown;
+    }
+    cells[columnIndex] = value;
+    sharedStrings[columnIndex] = sharedString;
+    if (columnIndex >= size) {
+      size = columnIndex + 1;
+    }
+  }
+
+  private static int[] newSharedStrings(int capacity) {
+    int[] sharedStrings = new int[capacity];
+    Arrays.fill(sharedStrings, -1);
+    return sharedStrings;
+  }
+
+  public int getRowIndex() {
+    return rowIndex;
+  }
+
+  /**
+   * Number of columns up to the last present cell of the row.
+   * 
+   * @return index of last present cell + 1
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the string value of a cell.
+   * 
+   * @param columnIndex zero based column index
+   * @return value of the cell or an empty string if the cell is not present
+   */
+  public String getString(int columnIndex) {
+    if (columnIndex >= size || cells[columnIndex] == null) {
+      return "";
+    }
+    return cells[columnIndex];
+  }
+
+  /**
+   * Gets the index of the value of a cell in the shared strings table. Cells with the same index
+   * have the same value, thus values can be decoded once per index.
+   * 
+   * @param columnIndex zero based column index
+   * @return index in the shared strings table or -1 if the value is not shared or the cell is not
+   *         present
+   */
+  public int getSharedString(int columnIndex) {
+    if (columnIndex >= size) {
+      return -1;
+    }
+    return sharedStrings[columnIndex];
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+/**
+ * Provides the rows and cell comments of the sheets of the knowledge base (excel file) to the
+ * parsers independent of how the file is read. Sheets may be read concurrently by several threads.
+ * 
+ * @author Metz
+ *
+ */
+public interface SheetSource {
+  /**
+   * Reads all rows of a sheet and passes them to the handler.
+   * 
+   * @param sheetName name of the sheet e.g. Knowledge Base
+   * @param handler handler receiving the rows
+   * @throws IllegalArgumentException if sheet does not exist
+   * @throws IllegalStateException if reading of the sheet fails
+   */
+  void readSheet(String sheetName, RowHandler handler);
+
+  /**
+   * Gets the text of the comment of a cell.
+   * 
+   * @param sheetName name of the sheet
+   * @param rowIndex zero based row index
+   * @param columnIndex zero based column index
+   * @return comment text or null if the cell has no comment
+   */
+  String getComment(String sheetName, int rowIndex, int columnIndex);
+}
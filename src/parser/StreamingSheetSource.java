@@ -0,0 +1,542 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Sheet source reading the sheets of the workbook with the event model of POI. The sheet xml is
+ * parsed with SAX and only the shared strings and the comments are kept in memory, thus large
+ * relation matrices do not need to be loaded completely. Sheets are located one after another but
+ * parsed concurrently if read by several threads. Large sheets can additionally be split into row
+ * ranges parsed concurrently. Splitting needs the complete sheet xml in memory, thus sheets larger
+ * than 64 MB are streamed as a single range.
+ * 
+ * @author Metz
+ *
+ */
+public class StreamingSheetSource implements PartitionedSheetSource, Closeable {
+  // minimum size of the xml of a row range, smaller sheets are not worth splitting
+  private static final int MIN_RANGE_BYTES = 64 * 1024;
+  // maximum size of the xml of a sheet buffered to be split into row ranges
+  private static final int MAX_SPLIT_BYTES = 64 * 1024 * 1024;
+  private static final byte[] SHEET_DATA = bytes("<sheetData");
+  private static final byte[] SHEET_DATA_END = bytes("</sheetData>");
+  private static final byte[] ROW = bytes("<row ");
+  private static final byte[] ROW_REF = bytes(" r=\"");
+  // xml readers are expensive to create, thus every thread reuses one for all sheets it parses
+  private static final ThreadLocal<XMLReader> XML_READERS = new ThreadLocal<XMLReader>();
+  private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+
+  private final OPCPackage pkg;
+  private final XSSFReader reader;
+  private final ReadOnlySharedStringsTable sharedStrings;
+  // comments of already read sheets by sheet name
+  private final Map<String, CellComments> comments = new HashMap<String, CellComments>();
+
+  /**
+   * Default constructor reading the shared strings of the package.
+   * 
+   * @param pkg opened excel file containing knowledge base
+   * @throws IOException Reading of shared strings fails
+   */
+  public StreamingSheetSource(OPCPackage pkg) throws IOException {
+    this.pkg = pkg;
+    try {
+      this.reader = new XSSFReader(pkg);
+      this.sharedStrings = new ReadOnlySharedStringsTable(pkg);
+    } catch (OpenXML4JException | SAXException e) {
+      throw new IOException("Workbook could not be opened", e);
+    }
+  }
+
+  /**
+   * Opens excel file read only.
+   * 
+   * @param file excel file containing knowledge base
+   * @return sheet source for the file
+   * @throws IOException Opening of file fails
+   */
+  public static StreamingSheetSource open(File file) throws IOException {
+    try {
+      return new StreamingSheetSource(OPCPackage.open(file, PackageAccess.READ));
+    } catch (OpenXML4JException e) {
+      throw new IOException("Workbook " + file + " could not be opened", e);
+    }
+  }
+
+  /**
+   * Opens excel file from a stream e.g. from the classpath.
+   * 
+   * @param in stream of excel file containing knowledge base
+   * @return sheet source for the stream
+   * @throws IOException Reading of stream fails
+   */
+  public static StreamingSheetSource open(InputStream in) throws IOException {
+    try {
+      return new StreamingSheetSource(OPCPackage.open(in));
+    } catch (OpenXML4JException e) {
+      throw new IOException("Workbook could not be opened", e);
+    }
+  }
+
+  @Override
+  public void readSheet(String sheetName, RowHandler handler) {
+    try {
+      InputStream in = openSheet(sheetName);
+      try {
+        parseSheet(in, handler);
+      } finally {
+        in.close();
+      }
+    } catch (IOException | SAXException | ParserConfigurationException e) {
+      throw new IllegalStateException("Sheet " + sheetName + " could not be read", e);
+    }
+  }
+
+  @Override
+  public void readSheet(String sheetName, List<? extends RowHandler> handlers,
+      ExecutorService executor) throws InterruptedException {
+    readSheet(sheetName, handlers, executor, MAX_SPLIT_BYTES);
+  }
+
+  /**
+   * Reads all rows of a sheet split into at most one row range per handler. Only sheets up to the
+   * given size are buffered and split, larger sheets are streamed to the first handler.
+   * 
+   * @param sheetName name of the sheet e.g. Outcome Level
+   * @param handlers handlers receiving the rows of one range each
+   * @param executor executor parsing the ranges e.g. a ForkJoinPool
+   * @param maxSplitBytes maximum size of the sheet xml to be split
+   * @throws InterruptedException Waiting for the ranges is interrupted
+   */
+  void readSheet(String sheetName, List<? extends RowHandler> handlers,
+      ExecutorService executor, int maxSplitBytes) throws InterruptedException {
+    final byte[] xml;
+    try {
+      InputStream in = openSheet(sheetName);
+      try {
+        xml = readAtMost(in, maxSplitBytes);
+        if (xml.length > maxSplitBytes) {
+          // the buffered start of the xml is parsed together with the rest of the stream
+          parseSheet(new SequenceInputStream(new ByteArrayInputStream(xml), in), handlers.get(0));
+          return;
+        }
+      } finally {
+        in.close();
+      }
+    } catch (IOException | SAXException | ParserConfigurationException e) {
+      throw new IllegalStateException("Sheet " + sheetName + " could not be read", e);
+    }
+    final int[] bounds = splitRows(xml, handlers.size(), MIN_RANGE_BYTES);
+    List<Callable<Void>> ranges = new ArrayList<Callable<Void>>();
+    for (int i = 0; i < bounds.length - 1; i++) {
+      final int start = bounds[i];
+      final int end = bounds[i + 1];
+      final RowHandler handler = handlers.get(i);
+      ranges.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          // every range is parsed as sheet containing only its rows
+          InputStream in = new SequenceInputStream(
+              new SequenceInputStream(new ByteArrayInputStream(xml, 0, bounds[0]),
+                  new ByteArrayInputStream(xml, start, end - start)),
+              new ByteArrayInputStream(xml, bounds[bounds.length - 1],
+                  xml.length - bounds[bounds.length - 1]));
+          parseSheet(in, handler);
+          return null;
+        }
+      });
+    }
+    for (Future<Void> range : executor.invokeAll(ranges)) {
+      try {
+        range.get();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Sheet " + sheetName + " could not be read", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Reads a stream up to a maximum number of bytes.
+   * 
+   * @param in stream to read
+   * @param limit maximum number of bytes
+   * @return complete content or the first limit + 1 bytes if the stream is longer
+   * @throws IOException Reading of the stream fails
+   */
+  private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read = 0;
+    while (out.size() <= limit && read != -1) {
+      read = in.read(buffer, 0, Math.min(buffer.length, limit + 1 - out.size()));
+      if (read > 0) {
+        out.write(buffer, 0, read);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Splits the rows of a sheet xml into consecutive ranges of similar size. Ranges only start at
+   * rows with a row reference, since the index of a row without reference depends on the preceding
+   * row.
+   * 
+   * @param xml sheet xml
+   * @param maxRanges maximum number of ranges
+   * @param minRangeBytes minimum size of the xml of a range
+   * @return start of the xml of every range followed by the end of the last range, the xml before
+   *         the first and after the last range is part of every range
+   */
+  static int[] splitRows(byte[] xml, int maxRanges, int minRangeBytes) {
+    int sheetData = indexOf(xml, SHEET_DATA, 0, xml.length);
+    int end = lastIndexOf(xml, SHEET_DATA_END);
+    if (sheetData < 0 || end < 0) {
+      // no rows or an unexpected xml, e.g. with prefixed elements, is parsed completely
+      return new int[] {0, xml.length};
+    }
+    int start = indexOf(xml, new byte[] {'>'}, sheetData, end) + 1;
+    int count = Math.max(1, Math.min(maxRanges, (end - start) / minRangeBytes));
+    int[] bounds = new int[count + 1];
+    bounds[0] = start;
+    int size = 1;
+    for (int i = 1; i < count; i++) {
+      int row = findRow(xml, Math.max(start + (int) ((long) (end - start) * i / count),
+          bounds[size - 1] + 1), end);
+      if (row < 0) {
+        break;
+      }
+      bounds[size++] = row;
+    }
+    bounds[size++] = end;
+    return Arrays.copyOf(bounds, size);
+  }
+
+  /**
+   * Finds the start of the next row element with a row reference.
+   * 
+   * @return position of the row element or -1 if there is none
+   */
+  private static int findRow(byte[] xml, int from, int end) {
+    int row = indexOf(xml, ROW, from, end);
+    while (row >= 0) {
+      int tagEnd = indexOf(xml, new byte[] {'>'}, row, end);
+      if (tagEnd < 0) {
+        return -1;
+      }
+      if (indexOf(xml, ROW_REF, row, tagEnd) >= 0) {
+        return row;
+      }
+      row = indexOf(xml, ROW, tagEnd, end);
+    }
+    return -1;
+  }
+
+  private static int indexOf(byte[] data, byte[] pattern, int from, int to) {
+    for (int i = from; i <= to - pattern.length; i++) {
+      if (matches(data, pattern, i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int lastIndexOf(byte[] data, byte[] pattern) {
+    for (int i = data.length - pattern.length; i >= 0; i--) {
+      if (matches(data, pattern, i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean matches(byte[] data, byte[] pattern, int position) {
+    for (int j = 0; j < pattern.length; j++) {
+      if (data[position + j] != pattern[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Locates the xml of a sheet and reads its comments on first access. The package is not thread
+   * safe, thus sheets are located one after another.
+   * 
+   * @param sheetName name of the sheet
+   * @return stream of the sheet xml
+   * @throws IllegalArgumentException if sheet does not exist
+   */
+  private synchronized InputStream openSheet(String sheetName) throws IOException {
+    try {
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (sheets.hasNext()) {
+        InputStream in = sheets.next();
+        if (sheets.getSheetName().equals(sheetName)) {
+          if (comments.containsKey(sheetName) == false) {
+            comments.put(sheetName, CellComments.read(sheets.getSheetPart()));
+          }
+          return in;
+        }
+        in.close();
+      }
+    } catch (OpenXML4JException e) {
+      throw new IOException("Sheet " + sheetName + " could not be located", e);
+    }
+    throw new IllegalArgumentException("Sheet " + sheetName + " does not exist");
+  }
+
+  /**
+   * Gets all entries of the shared strings table referenced by the cells of the sheets.
+   * 
+   * @return shared strings by index
+   */
+  public List<String> getSharedStrings() {
+    List<String> items = sharedStrings.getItems();
+    if (items == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(items);
+  }
+
+  @Override
+  public String getComment(String sheetName, int rowIndex, int columnIndex) {
+    CellComments sheetComments;
+    synchronized (this) {
+      sheetComments = comments.get(sheetName);
+      if (sheetComments == null) {
+        // comments are read together with the sheet
+        try {
+          openSheet(sheetName).close();
+        } catch (IOException e) {
+          throw new IllegalStateException("Sheet " + sheetName + " could not be read", e);
+        }
+        sheetComments = comments.get(sheetName);
+      }
+    }
+    return sheetComments.get(rowIndex, columnIndex);
+  }
+
+  /**
+   * Closes the underlying package without saving.
+   */
+  @Override
+  public void close() {
+    pkg.revert();
+  }
+
+  /**
+   * Parses sheet xml and passes the rows to the handler.
+   * 
+   * @param in stream of the sheet xml
+   * @param handler handler receiving the rows
+   */
+  private void parseSheet(InputStream in, RowHandler handler) throws IOException, SAXException,
+      ParserConfigurationException {
+    // the reader of the thread is taken out of the pool while in use
+    XMLReader xmlReader = XML_READERS.get();
+    if (xmlReader == null) {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      xmlReader = factory.newSAXParser().getXMLReader();
+    } else {
+      XML_READERS.remove();
+    }
+    try {
+      xmlReader.setContentHandler(new SheetXmlHandler(sharedStrings, handler));
+      xmlReader.parse(new InputSource(in));
+    } finally {
+      // release the handler before the reader is returned
+      xmlReader.setContentHandler(NO_HANDLER);
+      XML_READERS.set(xmlReader);
+    }
+  }
+
+  /**
+   * SAX handler collecting the cell values of each row of a sheet xml.
+   */
+  private static class SheetXmlHandler extends DefaultHandler {
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final RowHandler handler;
+    private final SheetRow row = new SheetRow();
+    // text of current value element
+    private final StringBuilder value = new StringBuilder();
+    // row index of the last row
+    private int rowIndex = -1;
+    // column index of the current cell
+    private int columnIndex;
+    // type attribute of the current cell
+    private String cellType;
+    // true while inside a value element or text element of an inline string
+    private boolean inValue;
+    // true if current cell has a value
+    private boolean hasValue;
+
+    SheetXmlHandler(ReadOnlySharedStringsTable sharedStrings, RowHandler handler) {
+      this.sharedStrings = sharedStrings;
+      this.handler = handler;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      switch (localName) {
+        case "row":
+          String r = attributes.getValue("r");
+          rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+          row.reset(rowIndex);
+          columnIndex = -1;
+          break;
+        case "c":
+          String ref = attributes.getValue("r");
+          columnIndex = ref == null ? columnIndex + 1 : columnIndex(ref);
+          cellType = attributes.getValue("t");
+          value.setLength(0);
+          hasValue = false;
+          break;
+        case "v":
+        case "t":
+          inValue = true;
+          hasValue = true;
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      switch (localName) {
+        case "row":
+          handler.handleRow(row);
+          break;
+        case "c":
+          if (hasValue && "s".equals(cellType)) {
+            // shared strings are looked up without creating a string for the index
+            int index = sharedStringIndex();
+            row.setSharedString(columnIndex, index, sharedStrings.getEntryAt(index));
+          } else {
+            row.setString(columnIndex, hasValue ? cellValue() : "");
+          }
+          break;
+        case "v":
+        case "t":
+          inValue = false;
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      if (inValue) {
+        value.append(ch, start, length);
+      }
+    }
+
+    /**
+     * Converts value of current cell according to its type.
+     * 
+     * @return string value of the cell
+     */
+    private String cellValue() {
+      if (cellType == null) {
+        // numeric cell
+        return value.toString();
+      }
+      switch (cellType) {
+        case "s":
+          return sharedStrings.getEntryAt(sharedStringIndex());
+        case "b":
+          return value.length() > 0 && value.charAt(0) == '1' ? "TRUE" : "FALSE";
+        default:
+          // inline strings, formula strings and errors
+          return value.toString();
+      }
+    }
+
+    /**
+     * Parses the index of a shared string cell from the value element.
+     * 
+     * @return index in the shared strings table
+     */
+    private int sharedStringIndex() {
+      int index = 0;
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c < '0' || c > '9') {
+          // not a plain index e.g. surrounded by whitespace
+          return Integer.parseInt(value.toString().trim());
+        }
+        index = index * 10 + (c - '0');
+      }
+      return index;
+    }
+
+    /**
+     * Calculates the zero based column index from a cell reference e.g. AB12.
+     * 
+     * @param ref cell reference
+     * @return column index
+     */
+    private static int columnIndex(String ref) {
+      int column = 0;
+      for (int i = 0; i < ref.length(); i++) {
+        char c = ref.charAt(i);
+        if (c < 'A' || c > 'Z') {
+          break;
+        }
+        column = column * 26 + (c - 'A' + 1);
+      }
+      return column - 1;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import org.apache.poi.POIXMLDocumentPart;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Sheet source reading from a fully loaded workbook. The workbook is not thread safe, thus
+ * concurrent reads are executed one after another.
+ * 
+ * @author Metz
+ *
+ */
+public class WorkbookSheetSource implements SheetSource {
+  private final XSSFWorkbook workbook;
+  // formats numeric and boolean cells like they are displayed
+  private final DataFormatter formatter = new DataFormatter();
+  // comments of already accessed sheets by sheet name
+  private final Map<String, CellComments> comments = new HashMap<String, CellComments>();
+
+  /**
+   * Default constructor.
+   * 
+   * @param workbook excel workbook containing knowledge base
+   */
+  public WorkbookSheetSource(XSSFWorkbook workbook) {
+    this.workbook = workbook;
+  }
+
+  @Override
+  public synchronized void readSheet(String sheetName, RowHandler handler) {
+    XSSFSheet sheet = getSheet(sheetName);
+    SheetRow sheetRow = new SheetRow();
+    Iterator<Row> rows = sheet.rowIterator();
+    while (rows.hasNext()) {
+      Row row = rows.next();
+      sheetRow.reset(row.getRowNum());
+      Iterator<Cell> cells = row.cellIterator();
+      while (cells.hasNext()) {
+        Cell cell = cells.next();
+        sheetRow.setString(cell.getColumnIndex(), getString(cell));
+      }
+      handler.handleRow(sheetRow);
+    }
+  }
+
+  @Override
+  public synchronized String getComment(String sheetName, int rowIndex, int columnIndex) {
+    CellComments sheetComments = comments.get(sheetName);
+    if (sheetComments == null) {
+      // all comments of the sheet are read on first access
+      try {
+        sheetComments = CellComments.read(getCommentsTable(getSheet(sheetName)));
+      } catch (IOException e) {
+        throw new IllegalStateException("Comments of sheet " + sheetName + " could not be read",
+            e);
+      }
+      comments.put(sheetName, sheetComments);
+    }
+    return sheetComments.get(rowIndex, columnIndex);
+  }
+
+  /**
+   * Gets the comments part of a sheet.
+   * 
+   * @param sheet sheet of the workbook
+   * @return comments or null if sheet has no comments
+   */
+  private static CommentsTable getCommentsTable(XSSFSheet sheet) {
+    for (POIXMLDocumentPart part : sheet.getRelations()) {
+      if (part instanceof CommentsTable) {
+        return (CommentsTable) part;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets sheet by name.
+   * 
+   * @param sheetName name of the sheet
+   * @return sheet
+   */
+  private XSSFSheet getSheet(String sheetName) {
+    XSSFSheet sheet = workbook.getSheet(sheetName);
+    if (sheet == null) {
+      throw new IllegalArgumentException("Sheet " + sheetName + " does not exist");
+    }
+    return sheet;
+  }
+
+  /**
+   * Gets the string value of a cell.
+   * 
+   * @param cell cell of the sheet
+   * @return string value or formatted value for non string cells
+   */
+  private String getString(Cell cell) {
+    int cellType = cell.getCellType();
+    if (cellType == Cell.CELL_TYPE_FORMULA) {
+      // use cached result e.g. names of entities referenced from the knowledge base sheet
+      cellType = cell.getCachedFormulaResultType();
+    }
+    switch (cellType) {
+      case Cell.CELL_TYPE_STRING:
+      case Cell.CELL_TYPE_BLANK:
+        return cell.getStringCellValue();
+      case Cell.CELL_TYPE_NUMERIC:
+        return formatter.formatRawCellContents(cell.getNumericCellValue(), cell.getCellStyle()
+            .getDataFormat(), cell.getCellStyle().getDataFormatString());
+      default:
+        return formatter.formatCellValue(cell);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Checks the evaluation of logged configurations.
+ * 
+ * @author Metz
+ *
+ */
+public class ConfigurationEvaluatorTest {
+  private OutcomeConstraints constraints;
+
+  /**
+   * Uses the shared fixture, thus 111 includes 121 and 112 excludes 122.
+   */
+  @Before
+  public void setUp() {
+    constraints = new OutcomeConstraints(OutcomeFixture.create());
+  }
+
+  @Test
+  public void testEvaluateConfigurations() throws Exception {
+    StringBuilder in = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    // several batches to check the order of the results
+    for (int i = 1; i <= 10000; i++) {
+      switch (i % 4) {
+        case 0:
+          in.append("111\n");
+          expected.append(i).append("\tok\n");
+          break;
+        case 1:
+          in.append("111, 122\n");
+          expected.append(i).append("\tconflict\t121,122\n");
+          break;
+        case 2:
+          in.append("112 999\n");
+          expected.append(i).append("\tinvalid\tOutcome 999 does not exist\n");
+          break;
+        default:
+          // empty lines have no result
+          in.append(" \n");
+      }
+    }
+    StringWriter out = new StringWriter();
+    ConfigurationEvaluator.Summary summary = new ConfigurationEvaluator(constraints, 3)
+        .evaluate(new StringReader(in.toString()), out);
+    assertEquals(expected.toString(), out.toString());
+    assertEquals(7500, summary.getConfigurations());
+    assertEquals(2500, summary.getConflicts());
+    assertEquals(2500, summary.getInvalid());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.DecisionRelation;
+import cloudDSF.RelationType;
+import parser.KnowledgeBaseGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks the components, the topological order and the closure of decision graphs.
+ * 
+ * @author Metz
+ *
+ */
+public class DecisionGraphTest {
+  private static final Set<RelationType> REQUIRING = EnumSet.of(RelationType.REQUIRING);
+
+  private CloudDSF cdsf;
+
+  /**
+   * Creates six decisions. 15 requires 11 which requires 12, 12 and 13 require each other, 13
+   * requires 14 which influences 16.
+   */
+  @Before
+  public void setUp() {
+    cdsf = new CloudDSF(0, "root", "CloudDSFPlus");
+    DecisionPoint dp = new DecisionPoint("Decision Point", 1, "");
+    cdsf.addDecisionPoint(dp);
+    for (int d = 11; d <= 16; d++) {
+      dp.addDecision(new Decision("Decision " + d, "", d, 1));
+    }
+    cdsf.setDecisionRelation(11, 12, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(12, 13, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(13, 12, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(13, 14, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(15, 11, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(14, 16, RelationType.INFLUENCING);
+  }
+
+  @Test
+  public void testRequiringGraph() {
+    DecisionGraph graph = new DecisionGraph(cdsf, REQUIRING);
+    assertArrayEquals(new int[] {12, 13, 14}, graph.getReachable(11));
+    // decisions of a cycle reach themselves
+    assertArrayEquals(new int[] {12, 13, 14}, graph.getReachable(12));
+    assertArrayEquals(new int[0], graph.getReachable(14));
+    assertTrue(graph.isReachable(15, 14));
+    assertFalse(graph.isReachable(14, 16));
+    assertTrue(graph.hasCycles());
+    assertEquals(1, graph.getCycles().size());
+    assertArrayEquals(new int[] {12, 13}, graph.getCycles().get(0));
+    assertEquals(5, graph.getComponents().size());
+    assertTopologicalOrder(graph.getTopologicalOrder(), 15, 11, 12, 14);
+    assertTopologicalOrder(graph.getTopologicalOrder(), 15, 11, 13, 14);
+  }
+
+  @Test
+  public void testInfluencingGraph() {
+    DecisionGraph graph = new DecisionGraph(cdsf,
+        EnumSet.of(RelationType.REQUIRING, RelationType.INFLUENCING));
+    assertArrayEquals(new int[] {12, 13, 14, 16}, graph.getReachable(11));
+    assertTrue(graph.isReachable(14, 16));
+  }
+
+  @Test
+  public void testCachedGraphOfFrozenCloudDSF() {
+    CloudDSF frozen = cdsf.freeze();
+    DecisionGraph graph = DecisionGraph.of(frozen, REQUIRING);
+    assertSame(graph, DecisionGraph.of(frozen, EnumSet.of(RelationType.REQUIRING)));
+    assertArrayEquals(new int[] {12, 13, 14}, graph.getReachable(11));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGraphOfModifiableCloudDSF() {
+    DecisionGraph.of(cdsf, REQUIRING);
+  }
+
+  @Test
+  public void testConcurrentClosure() throws Exception {
+    CloudDSF generated = new KnowledgeBaseGenerator(8, 10, 2, 0.5, 5).createCloudDSFPlus();
+    Set<RelationType> types = EnumSet.of(RelationType.REQUIRING, RelationType.INFLUENCING);
+    ExecutorService executor = new ForkJoinPool(4);
+    DecisionGraph graph;
+    try {
+      graph = new DecisionGraph(generated, types, executor);
+    } finally {
+      executor.shutdown();
+    }
+    // compare with a breadth first search of every decision
+    List<DecisionRelation> relations = new ArrayList<DecisionRelation>();
+    for (DecisionRelation relation : generated.getInfluencingDecisions()) {
+      if (types.contains(RelationType.fromLabel(relation.getType()))) {
+        relations.add(relation);
+      }
+    }
+    int[] order = graph.getTopologicalOrder();
+    assertEquals(80, order.length);
+    for (int source : order) {
+      Set<Integer> reached = new TreeSet<Integer>();
+      ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+      queue.add(source);
+      while (queue.isEmpty() == false) {
+        int current = queue.poll();
+        for (DecisionRelation relation : relations) {
+          if (relation.getSource() == current && reached.add(relation.getTarget())) {
+            queue.add(relation.getTarget());
+          }
+        }
+      }
+      int[] reachable = graph.getReachable(source);
+      assertEquals(reached.size(), reachable.length);
+      for (int target : reachable) {
+        assertTrue(reached.contains(target));
+      }
+    }
+  }
+
+  /**
+   * Checks that the decisions appear in the given order.
+   */
+  private static void assertTopologicalOrder(int[] order, int... decisions) {
+    int position = -1;
+    for (int decision : decisions) {
+      int next = position + 1;
+      while (order[next] != decision) {
+        next++;
+      }
+      position = next;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.Outcome;
+import cloudDSF.Relation;
+import cloudDSF.RelationType;
+import cloudDSF.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Checks the impact queries over the relations of a small cloudDSF.
+ * 
+ * @author Metz
+ *
+ */
+public class ImpactIndexTest {
+  private ImpactIndex index;
+
+  /**
+   * Creates two decision points with the decisions 101, 102 and 201 of two outcomes each. Outcome
+   * 10101 includes 10201 which binds 20101 and 20102 excludes 10102. Task 901 points to 101.
+   */
+  @Before
+  public void setUp() {
+    CloudDSF cdsf = new CloudDSF(0, "root", "CloudDSFPlus");
+    for (int p = 1; p <= 2; p++) {
+      DecisionPoint dp = new DecisionPoint("Decision Point " + p, p, "");
+      cdsf.addDecisionPoint(dp);
+      for (int d = p * 100 + 1; d <= p * 100 + 3 - p; d++) {
+        Decision decision = new Decision("Decision " + d, "", d, p);
+        dp.addDecision(decision);
+        for (int o = 1; o <= 2; o++) {
+          decision.addOutcome(new Outcome("Outcome " + (d * 100 + o), d * 100 + o, d));
+        }
+      }
+    }
+    cdsf.addTask(new Task(901, "Task"));
+    cdsf.setDecisionRelation(101, 102, RelationType.REQUIRING);
+    cdsf.setDecisionRelation(102, 201, RelationType.INFLUENCING);
+    cdsf.setOutcomeRelation(10101, 10201, "in");
+    cdsf.setOutcomeRelation(10201, 20101, "eb");
+    cdsf.setOutcomeRelation(20102, 10102, "ex");
+    cdsf.setTaskRelation(901, 101, "oneWay");
+    index = new ImpactIndex(cdsf.freeze());
+  }
+
+  @Test
+  public void testRelations() {
+    List<Relation> relations = index.getRelations(101);
+    assertEquals(2, relations.size());
+    assertEquals(102, relations.get(0).getTarget());
+    assertEquals(901, relations.get(1).getSource());
+    relations = index.getRelations(10201);
+    assertEquals(2, relations.size());
+    assertEquals(20101, relations.get(0).getTarget());
+    assertEquals(10101, relations.get(1).getSource());
+    assertEquals(0, index.getRelations(10202).size());
+  }
+
+  @Test
+  public void testAffectedOutcomes() {
+    assertArrayEquals(new int[] {10101, 10102, 10201, 20102}, index.getAffectedOutcomes(101));
+    assertArrayEquals(new int[] {10102, 10201, 20101, 20102}, index.getAffectedOutcomes(201));
+  }
+
+  @Test
+  public void testReachableDecisionPoints() {
+    assertArrayEquals(new int[] {1, 2}, index.getReachableDecisionPoints(10101));
+    assertArrayEquals(new int[] {2}, index.getReachableDecisionPoints(10201));
+    assertArrayEquals(new int[0], index.getReachableDecisionPoints(20101));
+  }
+
+  @Test
+  public void testTaskIdEqualToDecisionId() {
+    CloudDSF cdsf = new CloudDSF(0, "root", "CloudDSF");
+    DecisionPoint dp = new DecisionPoint("Decision Point", 1, "");
+    cdsf.addDecisionPoint(dp);
+    dp.addDecision(new Decision("Decision 101", "", 101, 1));
+    dp.addDecision(new Decision("Decision 102", "", 102, 1));
+    cdsf.addTask(new Task(102, "Task 102"));
+    cdsf.addTask(new Task(901, "Task 901"));
+    // the source of the backwards relation is decision 102 and not task 102
+    cdsf.setTaskRelation(901, 102, "backwards");
+    cdsf.setTaskRelation(102, 101, "oneWay");
+    ImpactIndex overlapping = new ImpactIndex(cdsf.freeze());
+    List<Relation> relations = overlapping.getRelations(901);
+    assertEquals(1, relations.size());
+    assertEquals(102, relations.get(0).getSource());
+    assertEquals(1, overlapping.getRelations(101).size());
+    // decision 102 and task 102 are the source of one relation each
+    assertEquals(2, overlapping.getRelations(102).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownDecision() {
+    index.getAffectedOutcomes(10101);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.CloudDSF;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the propagation of selected outcomes over the outcome relations.
+ * 
+ * @author Metz
+ *
+ */
+public class OutcomeConstraintsTest {
+  private OutcomeConstraints constraints;
+
+  /**
+   * Extends the shared fixture, thus 111 includes 121 which binds 131 and 112 excludes 122 but
+   * allows 131.
+   */
+  @Before
+  public void setUp() {
+    CloudDSF cdsf = OutcomeFixture.create();
+    cdsf.setOutcomeRelation(121, 131, "eb");
+    cdsf.setOutcomeRelation(112, 131, "a");
+    constraints = new OutcomeConstraints(cdsf);
+  }
+
+  @Test
+  public void testTransitiveEnforcement() {
+    OutcomeConstraints.Selection selection = constraints.select(111);
+    assertArrayEquals(new int[] {111}, selection.getChosen());
+    assertArrayEquals(new int[] {121, 131}, selection.getEnforced());
+    assertArrayEquals(new int[] {112, 122, 132}, selection.getExcluded());
+    assertArrayEquals(new int[0], selection.getAllowed());
+    assertTrue(selection.isConsistent());
+  }
+
+  @Test
+  public void testExclusion() {
+    OutcomeConstraints.Selection selection = constraints.select(112);
+    assertArrayEquals(new int[0], selection.getEnforced());
+    assertArrayEquals(new int[] {111, 122}, selection.getExcluded());
+    // allowing relations do not restrict the selection
+    assertArrayEquals(new int[] {121, 131, 132}, selection.getAllowed());
+    assertTrue(selection.isExcluded(122));
+    assertFalse(selection.isSelected(131));
+  }
+
+  @Test
+  public void testConflict() {
+    // 111 enforces 121 which is excluded by the other outcome of its decision
+    OutcomeConstraints.Selection selection = constraints.select(111, 122);
+    assertFalse(selection.isConsistent());
+    assertArrayEquals(new int[] {121, 122}, selection.getConflicts());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownOutcome() {
+    constraints.select(999);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package analysis;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.Decision;
+import cloudDSF.DecisionPoint;
+import cloudDSF.Outcome;
+
+/**
+ * Small cloudDSF shared by the tests of the outcome constraints.
+ * 
+ * @author Metz
+ *
+ */
+final class OutcomeFixture {
+  private OutcomeFixture() {
+  }
+
+  /**
+   * Creates three decisions 11, 12 and 13 with two outcomes each. 111 includes 121 and 112 and 122
+   * exclude each other.
+   * 
+   * @return cloudDSF to add further relations to
+   */
+  static CloudDSF create() {
+    CloudDSF cdsf = new CloudDSF(0, "root", "CloudDSFPlus");
+    DecisionPoint dp = new DecisionPoint("Decision Point", 1, "");
+    cdsf.addDecisionPoint(dp);
+    for (int d = 11; d <= 13; d++) {
+      Decision decision = new Decision("Decision " + d, "", d, 1);
+      dp.addDecision(decision);
+      for (int o = 1; o <= 2; o++) {
+        decision.addOutcome(new Outcome("Outcome " + (d * 10 + o), d * 10 + o, d));
+      }
+    }
+    cdsf.setOutcomeRelation(111, 121, "in");
+    cdsf.setOutcomeRelation(112, 122, "ex");
+    cdsf.setOutcomeRelation(122, 112, "ex");
+    return cdsf;
+  }
+}
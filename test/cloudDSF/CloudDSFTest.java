@@ -14,8 +14,12 @@
 
 package cloudDSF;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Before;
@@ -24,8 +28,9 @@ import org.junit.Test;
 import parser.CloudDSFPlusParser;
 import parser.JsonWriter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Testing and development purposes to check the knowledge base. Is not necessary anymore.
@@ -45,14 +50,9 @@ public class CloudDSFTest {
   @Before
   public void setUp() throws Exception {
     String filePath = "KnowledgeBase.xlsx";
-    XSSFWorkbook workbook = null;
     // Create Workbook instance holding reference to .xlsx file
     InputStream in = JsonWriter.class.getClassLoader().getResourceAsStream(filePath);
-    try {
-      workbook = new XSSFWorkbook(in);
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
+    XSSFWorkbook workbook = new XSSFWorkbook(in);
     CloudDSFPlusParser cloudDSFPlusParser = new CloudDSFPlusParser(workbook);
     cdsf = cloudDSFPlusParser.readExcel();
   }
@@ -216,4 +216,74 @@ public class CloudDSFTest {
     cdsf.setOutcomeRelation("Application Component", "Public Cloud", "ex", "", "");
     assertFalse(cdsf.checkSingleOutcomeRel());
   }
+
+  @Test
+  public void testFreeze() throws Exception {
+    CloudDSF frozen = cdsf.freeze();
+    assertTrue(frozen.isFrozen());
+    assertSame(frozen, frozen.freeze());
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    StreamingJsonWriter.writeCloudDSFPlus(cdsf, expected);
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    StreamingJsonWriter.writeCloudDSFPlus(frozen, actual);
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    // snapshot uses the prebuilt index for concurrent checks
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      assertTrue(frozen.checkSanity(pool));
+    } finally {
+      pool.shutdown();
+    }
+    try {
+      frozen.setOutcomeRelation("Application Component", "Public Cloud", "a", "", "");
+      fail("Relations of a frozen cloudDSF must not be modified");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      frozen.getDecisionPoints().get(0).getDecisions().get(0).setLabel("test");
+      fail("Entities of a frozen cloudDSF must not be modified");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      frozen.getInfluencingOutcomes().get(0).setType("ex");
+      fail("Relations of a frozen cloudDSF must not be modified");
+    } catch (UnsupportedOperationException e) {
+      assertEquals("Relation is frozen", e.getMessage());
+    }
+    // original stays modifiable and independent of the snapshot
+    cdsf.setOutcomeRelation("Application Component", "Public Cloud", "a", "", "");
+    cdsf.setOutcomeRelation("Application Component", "Public Cloud", "ex", "", "");
+    assertFalse(cdsf.checkSingleOutcomeRel());
+    assertTrue(frozen.checkSingleOutcomeRel());
+  }
+
+  @Test
+  public void testFreezeAttributes() {
+    CloudDSF legacy = new CloudDSF(0, "root", "cloudDSF");
+    DecisionPoint dp = new DecisionPoint("Decision Point", 1, "dp");
+    dp.setDescription("description of the decision point");
+    Decision decision = new Decision("Decision", "dec", 101, 1);
+    decision.addOutcome(new Outcome("Outcome", 10101, 101));
+    dp.addDecision(decision);
+    legacy.addDecisionPoint(dp);
+    legacy.addTask(new Task(201, "Task"));
+    TaskRelation taskRel = new TaskRelation(101, 201, "backwards", false);
+    taskRel.setExplanation("explanation of the task relation");
+    legacy.getInfluencingTasks().add(taskRel);
+    CloudDSF frozen = legacy.freeze();
+    // all attributes are copied, including the explanation which is not written to json
+    DecisionPoint frozenDp = frozen.getDecisionPoints().get(0);
+    assertEquals("description of the decision point", frozenDp.getDescription());
+    assertEquals(10101, frozenDp.getDecisions().get(0).getOutcomes().get(0).getId());
+    assertEquals(201, frozen.getTasks().get(0).getId());
+    TaskRelation frozenTaskRel = frozen.getInfluencingTasks().get(0);
+    assertEquals("explanation of the task relation", frozenTaskRel.getExplanation());
+    assertEquals("backwards", frozenTaskRel.getDir());
+    assertFalse(frozenTaskRel.isFromTask());
+    // the original relation stays modifiable
+    taskRel.setExplanation("changed");
+    assertEquals("explanation of the task relation", frozenTaskRel.getExplanation());
+  }
 }
@@ -14,7 +14,9 @@
 
 package cloudDSF;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -26,6 +28,7 @@ import parser.JsonWriter;
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Validates the verification methods of the cloudDSF class with a mock-up knowledge base.
@@ -215,4 +218,76 @@ public class CloudDSFTestMockKB {
     cdsf.setOutcomeRelation("Application Component", "Public Cloud", "ex", "", "");
     assertFalse(cdsf.checkSingleOutcomeRel());
   }
+
+  @Test
+  public void testRelationTypeOverloads() {
+    int source = cdsf.getDecisionId("Select Application Layer");
+    int target = cdsf.getDecisionId("Select Cloud Deployment Model");
+    int size = cdsf.getInfluencingDecisions().size();
+    // labels are converted to lower case, enum types are taken as they are
+    cdsf.setDecisionRelation(source, target, "Binding");
+    cdsf.setDecisionRelation(source, target, RelationType.BINDING);
+    assertEquals(size + 2, cdsf.getInfluencingDecisions().size());
+    assertEquals("binding", cdsf.getInfluencingDecisions().get(size).getType());
+    assertEquals("binding", cdsf.getInfluencingDecisions().get(size + 1).getType());
+    assertEquals(target, cdsf.getInfluencingDecisions().get(size + 1).getTarget());
+    assertTrue(cdsf.checkRelTypesDecisions());
+
+    source = cdsf.getOutcomeId("Presentation Layer");
+    target = cdsf.getOutcomeId("Public Cloud");
+    size = cdsf.getInfluencingOutcomes().size();
+    cdsf.setOutcomeRelation(source, target, "eb");
+    cdsf.setOutcomeRelation(source, target, RelationType.BINDING_OUTCOME);
+    assertEquals(size + 2, cdsf.getInfluencingOutcomes().size());
+    assertEquals("eb", cdsf.getInfluencingOutcomes().get(size).getType());
+    assertEquals("eb", cdsf.getInfluencingOutcomes().get(size + 1).getType());
+    assertEquals(source, cdsf.getInfluencingOutcomes().get(size + 1).getSource());
+    assertTrue(cdsf.checkRelTypesOutcomes());
+  }
+
+  @Test
+  public void testCheckSanityConcurrent() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      assertTrue(cdsf.checkSanity());
+      // small chunks to split every check into several tasks
+      assertTrue(cdsf.checkSanity(pool, 7));
+      // add relation between two outcomes of same decision
+      cdsf.setOutcomeRelation("Application Component", "Middleware Component", "a", "", "");
+      assertFalse(cdsf.checkSanity());
+      assertFalse(cdsf.checkSanity(pool, 7));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCheckSanityChunkSize() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      // chunks without relations would never end
+      cdsf.checkSanity(pool, 0);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testValidate() {
+    ValidationReport report = cdsf.validate();
+    assertTrue(report.isValid());
+    assertEquals(14, report.getCheckResults().size());
+    // add two relations between outcomes of same decision
+    cdsf.setOutcomeRelation("Application Component", "Middleware Component", "a", "", "");
+    cdsf.setOutcomeRelation("Middleware Component", "Application Component", "a", "", "");
+    report = cdsf.validate();
+    assertFalse(report.isValid());
+    // all violations are collected instead of stopping at the first one
+    assertEquals(2, report.getCheckResult("checkXOROutcomes").getViolations().size());
+    assertEquals(cdsf.getInfluencingOutcomes().size(), report.getCheckResult("checkXOROutcomes")
+        .getCheckedRelations());
+    // reading the report does not add results for unknown checks
+    assertNull(report.getCheckResult("unknownCheck"));
+    assertEquals(14, report.getCheckResults().size());
+  }
 }
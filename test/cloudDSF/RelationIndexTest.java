@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the relations between two entities are found in the order of their relation store.
+ * 
+ * @author Metz
+ *
+ */
+public class RelationIndexTest {
+  @Test
+  public void testFind() {
+    RelationStore<OutcomeRelation> outcomes = new RelationStore.OutcomeRelations();
+    outcomes.add(10102, 10201, "in");
+    outcomes.add(10101, 10202, "ex");
+    outcomes.add(10102, 10201, "a");
+    outcomes.add(10101, 10201, "in");
+    outcomes.add(10102, 10201, "ex");
+    RelationIndex.Adjacency index =
+        new RelationIndex(new RelationStore.DecisionRelations(), outcomes).getOutcomeRelations();
+    assertEquals(Arrays.asList(0, 2, 4), findPositions(index, 10102, 10201));
+    assertEquals(Arrays.asList(3), findPositions(index, 10101, 10201));
+    assertEquals(3, index.count(10102, 10201));
+    assertEquals(1, index.count(10101, 10202));
+    // unknown source, unknown target and the reverse direction
+    assertEquals(0, index.count(10103, 10201));
+    assertEquals(0, index.count(10101, 10203));
+    assertEquals(0, index.count(10201, 10102));
+    assertFalse(index.matches(index.find(10103, 10201), 10103, 10201));
+  }
+
+  @Test
+  public void testEmpty() {
+    RelationIndex index = new RelationIndex(new RelationStore.DecisionRelations(),
+        new RelationStore.OutcomeRelations());
+    assertEquals(0, index.getDecisionRelations().count(101, 102));
+    assertEquals(0, index.getOutcomeRelations().count(10101, 10201));
+  }
+
+  private static List<Integer> findPositions(RelationIndex.Adjacency index, int source,
+      int target) {
+    List<Integer> positions = new ArrayList<Integer>();
+    for (int k = index.find(source, target); index.matches(k, source, target); k++) {
+      positions.add(index.getPosition(k));
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package cloudDSF;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the column oriented relation lists and the mapping of their type labels.
+ * 
+ * @author Metz
+ *
+ */
+public class RelationStoreTest {
+  private RelationStore<OutcomeRelation> relations;
+
+  @Before
+  public void setUp() {
+    relations = new RelationStore.OutcomeRelations();
+    relations.add(10103, 10201, "in");
+    relations.add(10101, 10202, RelationType.EXCLUDING);
+    relations.add(new OutcomeRelation(10102, 10203, "a"));
+  }
+
+  @Test
+  public void testAddSetRemove() {
+    assertEquals(3, relations.size());
+    assertRelation(10103, 10201, "in", 0);
+    assertRelation(10101, 10202, "ex", 1);
+    assertRelation(10102, 10203, "a", 2);
+    relations.add(1, new OutcomeRelation(10104, 10204, "aff"));
+    assertRelation(10104, 10204, "aff", 1);
+    assertRelation(10101, 10202, "ex", 2);
+    OutcomeRelation old = relations.set(2, new OutcomeRelation(10105, 10205, "eb"));
+    assertEquals(10101, old.getSource());
+    assertRelation(10105, 10205, "eb", 2);
+    old = relations.remove(0);
+    assertEquals(10103, old.getSource());
+    assertEquals(3, relations.size());
+    assertRelation(10104, 10204, "aff", 0);
+    assertRelation(10105, 10205, "eb", 1);
+    assertRelation(10102, 10203, "a", 2);
+    relations.clear();
+    assertEquals(0, relations.size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testElementSetter() {
+    // changes to elements would be lost, they have to be replaced by set
+    relations.get(0).setType("ex");
+  }
+
+  @Test
+  public void testSortBySource() {
+    relations.add(10101, 10204, "aff");
+    relations.add(10102, 10205, "in");
+    relations.sortBySource();
+    assertRelation(10101, 10202, "ex", 0);
+    assertRelation(10101, 10204, "aff", 1);
+    assertRelation(10102, 10203, "a", 2);
+    assertRelation(10102, 10205, "in", 3);
+    assertRelation(10103, 10201, "in", 4);
+  }
+
+  @Test
+  public void testUnknownTypes() {
+    relations.add(10104, 10204, "test");
+    relations.add(10105, 10205, "other");
+    relations.add(10106, 10206, "test");
+    assertNull(relations.getType(3));
+    assertEquals("test", relations.getTypeLabel(3));
+    assertEquals("test", relations.get(3).getType());
+    assertEquals("other", relations.getTypeLabel(4));
+    // equal labels share a code which differs from the codes of all other labels
+    assertEquals(relations.getTypeCode(3), relations.getTypeCode(5));
+    assertEquals(relations.getTypeCode(3), relations.findTypeCode("test"));
+    assertEquals(RelationType.values().length, relations.getTypeCode(3));
+    assertEquals(RelationType.values().length + 1, relations.getTypeCode(4));
+    assertEquals(RelationType.INCLUDING.ordinal(), relations.findTypeCode("in"));
+    assertEquals(-1, relations.findTypeCode("unknown"));
+    assertSame(RelationType.EXCLUDING, relations.getType(1));
+  }
+
+  @Test
+  public void testTypeLimit() {
+    // codes are stored in one byte next to the known types
+    int unknownTypes = 256 - RelationType.values().length;
+    for (int i = 0; i < unknownTypes; i++) {
+      relations.add(10101, 10201, "type" + i);
+    }
+    assertEquals(255, relations.getTypeCode(relations.size() - 1));
+    assertEquals("type" + (unknownTypes - 1), relations.get(relations.size() - 1).getType());
+    // known and already added labels still fit
+    relations.add(10101, 10201, "type0");
+    relations.add(10101, 10201, "in");
+    try {
+      relations.add(10101, 10201, "type" + unknownTypes);
+      fail("Type code exceeds one byte");
+    } catch (IllegalStateException e) {
+      assertEquals(3 + unknownTypes + 2, relations.size());
+    }
+  }
+
+  @Test
+  public void testFrozen() {
+    relations.freeze();
+    try {
+      relations.add(new OutcomeRelation(10104, 10204, "new"));
+      fail("Frozen relations must not change");
+    } catch (UnsupportedOperationException e) {
+      // the label is only assigned a code when the relation is added
+      assertEquals(-1, relations.findTypeCode("new"));
+    }
+    try {
+      relations.add(10104, 10204, "new");
+      fail("Frozen relations must not change");
+    } catch (UnsupportedOperationException e) {
+      assertEquals(-1, relations.findTypeCode("new"));
+    }
+    assertEquals(3, relations.size());
+  }
+
+  @Test
+  public void testDecisionRelations() {
+    RelationStore<DecisionRelation> decisions = new RelationStore.DecisionRelations();
+    decisions.add(101, 102, "aff");
+    decisions.add(101, 103, RelationType.LEGACY_DECISION.getLabel());
+    DecisionRelation relation = decisions.get(0);
+    // the label of the store is used as it is
+    assertSame(decisions.getTypeLabel(0), relation.getType());
+    assertEquals("decRel", relation.getRelationGroup());
+    relation = decisions.get(1);
+    assertEquals("DecRel", relation.getType());
+    assertEquals("auto", relation.getDir());
+  }
+
+  @Test
+  public void testFromLabel() {
+    for (RelationType type : RelationType.values()) {
+      assertSame(type, RelationType.fromLabel(type.getLabel()));
+    }
+    assertNull(RelationType.fromLabel("test"));
+    assertNull(RelationType.fromLabel(null));
+  }
+
+  private void assertRelation(int source, int target, String type, int index) {
+    OutcomeRelation relation = relations.get(index);
+    assertEquals(source, relation.getSource());
+    assertEquals(target, relation.getTarget());
+    assertEquals(type, relation.getType());
+    assertEquals(source, relations.getSource(index));
+    assertEquals(target, relations.getTarget(index));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.StreamingJsonWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the knowledge bases of a folder are converted and that a broken file only fails its
+ * own conversion.
+ * 
+ * @author Metz
+ *
+ */
+public class BatchConverterTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testConvertFolder() throws Exception {
+    File input = folder.newFolder("input");
+    File output = folder.newFolder("output");
+    List<byte[]> expected = new ArrayList<byte[]>();
+    for (int i = 0; i < 3; i++) {
+      KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 3, 3, 0.5, i);
+      OutputStream out = new FileOutputStream(new File(input, "kb" + i + ".xlsx"));
+      try {
+        generator.write(out);
+      } finally {
+        out.close();
+      }
+      ByteArrayOutputStream json = new ByteArrayOutputStream();
+      StreamingJsonWriter.writeCloudDSFPlus(generator.createCloudDSFPlus(), json);
+      expected.add(json.toByteArray());
+    }
+    Files.write(new File(input, "broken.xlsx").toPath(), new byte[] {1, 2, 3});
+    Files.write(new File(input, "notes.txt").toPath(), new byte[] {1});
+
+    List<File> files = BatchConverter.listKnowledgeBases(input);
+    assertEquals(4, files.size());
+    List<BatchConverter.Result> results = new BatchConverter(2).convert(files, output);
+    // results are sorted like the files
+    assertEquals(files.get(0), results.get(0).getFile());
+    assertFalse(results.get(0).isExported());
+    assertNotNull(results.get(0).getFailure());
+    for (int i = 0; i < 3; i++) {
+      assertTrue(results.get(i + 1).isExported());
+      File json = new File(new File(output, "kb" + i), JsonWriter.CLOUDDSF_PLUS_FILE);
+      assertArrayEquals(expected.get(i), Files.readAllBytes(json.toPath()));
+      assertTrue(new File(new File(output, "kb" + i), JsonWriter.CLOUDDSF_FILE).isFile());
+    }
+  }
+
+  @Test
+  public void testSameFileName() throws Exception {
+    File output = folder.newFolder("output");
+    List<File> files = Arrays.asList(new File(folder.newFolder("a"), "kb.xlsx"),
+        new File(folder.newFolder("b"), "kb.xlsx"), new File(folder.getRoot(), "other.xlsx"));
+    for (File file : files) {
+      OutputStream out = new FileOutputStream(file);
+      try {
+        new KnowledgeBaseGenerator(2, 2, 2, 0.5, 1).write(out);
+      } finally {
+        out.close();
+      }
+    }
+    List<BatchConverter.Result> results = new BatchConverter(2).convert(files, output);
+    // both knowledge bases would be written into the folder kb
+    for (int i = 0; i < 2; i++) {
+      assertSame(files.get(i), results.get(i).getFile());
+      assertFalse(results.get(i).isExported());
+      assertTrue(results.get(i).getFailure() instanceof IllegalArgumentException);
+    }
+    assertFalse(new File(output, "kb").exists());
+    assertTrue(results.get(2).isExported());
+    assertTrue(new File(new File(output, "other"), JsonWriter.CLOUDDSF_PLUS_FILE).isFile());
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Checks that the comments read per sheet equal the comments of the single cells.
+ * 
+ * @author Metz
+ *
+ */
+public class CellCommentsTest {
+  @Test
+  public void testKnowledgeBase() throws Exception {
+    assertComments("KnowledgeBase.xlsx");
+  }
+
+  @Test
+  public void testMockupKnowledgeBase() throws Exception {
+    assertComments("MockupKnowledgeBase.xlsx");
+  }
+
+  @Test
+  public void testCommentsReadOncePerSheet() throws Exception {
+    XSSFWorkbook workbook = readWorkbook("KnowledgeBase.xlsx");
+    Cell cell = findCommentedCell(workbook);
+    String sheetName = cell.getSheet().getSheetName();
+    String text = cell.getCellComment().getString().getString();
+    WorkbookSheetSource source = new WorkbookSheetSource(workbook);
+    assertEquals(text, source.getComment(sheetName, cell.getRowIndex(), cell.getColumnIndex()));
+    // later changes of the workbook are not seen since the comments of the sheet are kept
+    cell.getCellComment().setString(new XSSFRichTextString("changed"));
+    assertEquals(text, source.getComment(sheetName, cell.getRowIndex(), cell.getColumnIndex()));
+    assertEquals("changed", new WorkbookSheetSource(workbook).getComment(sheetName,
+        cell.getRowIndex(), cell.getColumnIndex()));
+  }
+
+  /**
+   * Compares the comments of all cells of a workbook with the comments of both sheet sources.
+   */
+  private static void assertComments(String fileName) throws Exception {
+    XSSFWorkbook workbook = readWorkbook(fileName);
+    WorkbookSheetSource workbookSource = new WorkbookSheetSource(workbook);
+    InputStream in = JsonWriter.class.getClassLoader().getResourceAsStream(fileName);
+    StreamingSheetSource streamingSource = StreamingSheetSource.open(in);
+    int comments = 0;
+    try {
+      for (Sheet sheet : workbook) {
+        for (Row row : sheet) {
+          for (Cell cell : row) {
+            Comment comment = cell.getCellComment();
+            String expected = comment == null ? null : comment.getString().getString();
+            String sheetName = sheet.getSheetName();
+            assertEquals(expected, workbookSource.getComment(sheetName, row.getRowNum(),
+                cell.getColumnIndex()));
+            assertEquals(expected, streamingSource.getComment(sheetName, row.getRowNum(),
+                cell.getColumnIndex()));
+            if (comment != null) {
+              comments++;
+            }
+          }
+        }
+        // cell outside of the used range
+        assertNull(workbookSource.getComment(sheet.getSheetName(), 60000, 200));
+      }
+    } finally {
+      streamingSource.close();
+    }
+    assertTrue(comments > 0);
+  }
+
+  private static Cell findCommentedCell(XSSFWorkbook workbook) {
+    for (Sheet sheet : workbook) {
+      for (Row row : sheet) {
+        for (Cell cell : row) {
+          if (cell.getCellComment() != null) {
+            return cell;
+          }
+        }
+      }
+    }
+    throw new AssertionError("Workbook has no comments");
+  }
+
+  private static XSSFWorkbook readWorkbook(String fileName) throws IOException {
+    InputStream in = JsonWriter.class.getClassLoader().getResourceAsStream(fileName);
+    assertNotNull(in);
+    try {
+      return new XSSFWorkbook(in);
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -14,6 +14,8 @@
 
 package parser;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import cloudDSF.CloudDSF;
@@ -21,13 +23,24 @@ import cloudDSF.DecisionPoint;
 import cloudDSF.DecisionRelation;
 import cloudDSF.Outcome;
 import cloudDSF.OutcomeRelation;
+import cloudDSF.StreamingJsonWriter;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 
 /**
@@ -193,4 +206,92 @@ public class CloudDSFPlusParserTest {
       }
     }
   }
+
+  /**
+   * Checks that the streaming reader results in exactly the same object as the workbook.
+   * 
+   * @throws Exception Reading of Excel file fails
+   */
+  @Test
+  public void testReadExcelStreaming() throws Exception {
+    cdsf = cloudDSFPlusParser.readExcel();
+    InputStream in =
+        JsonWriter.class.getClassLoader().getResourceAsStream("MockupKnowledgeBase.xlsx");
+    StreamingSheetSource source = StreamingSheetSource.open(in);
+    CloudDSF streamed;
+    try {
+      streamed = new CloudDSFPlusParser(source).readExcel();
+    } finally {
+      source.close();
+    }
+    // compare all serialized attributes of the knowledge base and the relations
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+        .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
+        .withGetterVisibility(JsonAutoDetect.Visibility.NONE));
+    assertEquals(mapper.writeValueAsString(cdsf), mapper.writeValueAsString(streamed));
+    assertEquals(mapper.writeValueAsString(cdsf.getInfluencingDecisions()),
+        mapper.writeValueAsString(streamed.getInfluencingDecisions()));
+    assertEquals(mapper.writeValueAsString(cdsf.getInfluencingOutcomes()),
+        mapper.writeValueAsString(streamed.getInfluencingOutcomes()));
+  }
+
+  /**
+   * Checks that parsers can share one knowledge base and that every sheet is only read once.
+   * 
+   * @throws Exception Reading of Excel file fails
+   */
+  @Test
+  public void testReadExcelSharedKnowledgeBase() throws Exception {
+    cdsf = cloudDSFPlusParser.readExcel();
+    InputStream in =
+        JsonWriter.class.getClassLoader().getResourceAsStream("MockupKnowledgeBase.xlsx");
+    final SheetSource workbookSource = new WorkbookSheetSource(new XSSFWorkbook(in));
+    final List<String> readSheets = new ArrayList<String>();
+    KnowledgeBase knowledgeBase = new KnowledgeBase(new SheetSource() {
+      @Override
+      public void readSheet(String sheetName, RowHandler handler) {
+        readSheets.add(sheetName);
+        workbookSource.readSheet(sheetName, handler);
+      }
+
+      @Override
+      public String getComment(String sheetName, int rowIndex, int columnIndex) {
+        return workbookSource.getComment(sheetName, rowIndex, columnIndex);
+      }
+    });
+    new CloudDSFPlusParser(knowledgeBase).readExcel();
+    CloudDSF shared = new CloudDSFPlusParser(knowledgeBase).readExcel();
+    assertEquals(new HashSet<String>(readSheets).size(), readSheets.size());
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+        .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
+        .withGetterVisibility(JsonAutoDetect.Visibility.NONE));
+    assertEquals(mapper.writeValueAsString(cdsf), mapper.writeValueAsString(shared));
+    assertEquals(mapper.writeValueAsString(cdsf.getInfluencingOutcomes()),
+        mapper.writeValueAsString(shared.getInfluencingOutcomes()));
+  }
+
+  /**
+   * Checks that the streaming json writer produces the same output as the object mapper.
+   * 
+   * @throws Exception Serialization fails
+   */
+  @Test
+  public void testStreamingJsonWriter() throws Exception {
+    cdsf = cloudDSFPlusParser.readExcel();
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+        .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
+        .withGetterVisibility(JsonAutoDetect.Visibility.NONE));
+    mapper.setSerializationInclusion(Include.NON_NULL);
+    ObjectNode rootNode = mapper.createObjectNode();
+    rootNode.putPOJO("cdsfPlus", cdsf);
+    rootNode.putPOJO("links", cdsf.getInfluencingDecisions());
+    rootNode.putPOJO("outcomeLinks", cdsf.getInfluencingOutcomes());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StreamingJsonWriter.writeCloudDSFPlus(cdsf, out);
+    assertArrayEquals(mapper.writeValueAsBytes(rootNode), out.toByteArray());
+  }
 }
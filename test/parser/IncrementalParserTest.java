@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.CloudDSF;
+import cloudDSF.ValidationReport;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+
+/**
+ * Checks that updating the models with the changed sheets results in the same models as a full
+ * parse of the changed knowledge base.
+ * 
+ * @author Metz
+ *
+ */
+public class IncrementalParserTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testUpdateChangedSheets() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 3, 3, 0.5, 11);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    generator.write(out);
+    XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    File file = folder.newFile("KnowledgeBase.xlsx");
+    write(workbook, file);
+
+    IncrementalParser parser = new IncrementalParser();
+    assertTrue(parser.update(file).isValid());
+    assertEquals(5, parser.getChangedSheets().size());
+    // same content
+    write(workbook, file);
+    parser.update(file);
+    assertEquals(Collections.<String>emptySet(), parser.getChangedSheets());
+    assertParsed(file, parser);
+
+    // change the type of an outcome relation
+    Sheet sheet = workbook.getSheet(KnowledgeBase.OUTCOME_SHEET);
+    Cell cell = findRelation(sheet);
+    cell.setCellValue(cell.getStringCellValue().equals("ex") ? "in" : "ex");
+    write(workbook, file);
+    parser.update(file);
+    assertEquals(Collections.singleton(KnowledgeBase.OUTCOME_SHEET), parser.getChangedSheets());
+    assertParsed(file, parser);
+
+    // remove a decision relation
+    findRelation(workbook.getSheet(KnowledgeBase.DECISION_SHEET)).setCellValue("");
+    write(workbook, file);
+    parser.update(file);
+    assertEquals(Collections.singleton(KnowledgeBase.DECISION_SHEET), parser.getChangedSheets());
+    assertParsed(file, parser);
+  }
+
+  /**
+   * Compares the models and the violations of the parser with a full parse of the file.
+   */
+  private static void assertParsed(File file, IncrementalParser parser) throws IOException {
+    StreamingSheetSource source = StreamingSheetSource.open(file);
+    try {
+      KnowledgeBase knowledgeBase = new KnowledgeBase(source);
+      CloudDSF cdsf = new CloudDSFParser(knowledgeBase).readExcel();
+      CloudDSF cdsfPlus = new CloudDSFPlusParser(knowledgeBase).readExcel();
+      ValidationReport report = cdsfPlus.validate();
+      assertArrayEquals(JsonWriter.serializeCloudDSF(cdsf),
+          JsonWriter.serializeCloudDSF(parser.getCloudDSF()));
+      assertArrayEquals(JsonWriter.serializeCloudDSFPlus(cdsfPlus),
+          JsonWriter.serializeCloudDSFPlus(parser.getCloudDSFPlus()));
+      assertEquals(report.isValid(), parser.getValidationReport().isValid());
+      assertEquals(report.getViolations().size(),
+          parser.getValidationReport().getViolations().size());
+    } finally {
+      source.close();
+    }
+  }
+
+  /**
+   * Finds the first cell right of the start entity column containing a relation.
+   */
+  private static Cell findRelation(Sheet sheet) {
+    for (Row row : sheet) {
+      if (row.getRowNum() < 2) {
+        continue;
+      }
+      for (Cell cell : row) {
+        if (cell.getColumnIndex() > 1 && cell.getStringCellValue().isEmpty() == false) {
+          return cell;
+        }
+      }
+    }
+    throw new IllegalStateException("Sheet " + sheet.getSheetName() + " has no relation");
+  }
+
+  private static void write(XSSFWorkbook workbook, File file) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      workbook.write(out);
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.StreamingJsonWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Checks the responses of the server before and after a reload of the knowledge base.
+ * 
+ * @author Metz
+ *
+ */
+public class JsonServerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testServeAndReload() throws Exception {
+    File file = folder.newFile("KnowledgeBase.xlsx");
+    byte[] expected = write(new KnowledgeBaseGenerator(3, 3, 3, 0.5, 1), file);
+    JsonServer server = new JsonServer(file);
+    assertTrue(server.reload().isValid());
+    assertFalse(server.isModified());
+    server.start(0);
+    try {
+      URL url = new URL("http://localhost:" + server.getPort() + "/cloudDSFPlus.json");
+      HttpURLConnection connection = open(url, null, false);
+      assertEquals(200, connection.getResponseCode());
+      String etag = connection.getHeaderField("ETag");
+      assertArrayEquals(expected, read(connection.getInputStream()));
+
+      connection = open(url, null, true);
+      assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+      assertArrayEquals(expected, read(new GZIPInputStream(connection.getInputStream())));
+      // both encodings revalidate the same version
+      assertEquals(304, open(url, etag, false).getResponseCode());
+      assertEquals(304, open(url, connection.getHeaderField("ETag"), false).getResponseCode());
+
+      assertEquals(404, open(new URL(url, "/other.json"), null, false).getResponseCode());
+
+      // reload a changed knowledge base
+      expected = write(new KnowledgeBaseGenerator(3, 3, 4, 0.5, 2), file);
+      assertTrue(server.reload().isValid());
+      connection = open(url, etag, false);
+      assertEquals(200, connection.getResponseCode());
+      assertFalse(etag.equals(connection.getHeaderField("ETag")));
+      assertArrayEquals(expected, read(connection.getInputStream()));
+    } finally {
+      server.stop();
+    }
+  }
+
+  /**
+   * Writes the knowledge base into the file.
+   * 
+   * @return expected json of the cloudDSFPlus
+   */
+  private static byte[] write(KnowledgeBaseGenerator generator, File file) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      generator.write(out);
+    } finally {
+      out.close();
+    }
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    StreamingJsonWriter.writeCloudDSFPlus(generator.createCloudDSFPlus(), json);
+    return json.toByteArray();
+  }
+
+  private static HttpURLConnection open(URL url, String etag, boolean gzip) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    if (etag != null) {
+      connection.setRequestProperty("If-None-Match", etag);
+    }
+    if (gzip) {
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+    }
+    return connection;
+  }
+
+  private static byte[] read(InputStream in) throws IOException {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cloudDSF.CloudDSF;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Validates that generated knowledge bases are valid and that written workbooks result in the same
+ * models.
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBaseGeneratorTest {
+
+  @Test
+  public void testGeneratedKnowledgeBaseIsValid() {
+    for (long seed = 0; seed < 5; seed++) {
+      KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 4, 3, 0.8, seed);
+      CloudDSF cdsf = generator.createCloudDSFPlus();
+      assertTrue(cdsf.validate().toString(), cdsf.validate().isValid());
+      assertEquals(generator.getOutcomeRelationCount(), cdsf.getInfluencingOutcomes().size());
+      assertEquals(3, cdsf.getDecisionPoints().size());
+      // legacy model needs the tasks
+      assertEquals(10, generator.createCloudDSF().getTasks().size());
+    }
+  }
+
+  @Test
+  public void testWrittenWorkbook() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(2, 3, 4, 0.5, 42);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    generator.write(out);
+    byte[] content = out.toByteArray();
+    CloudDSF generated = generator.createCloudDSFPlus();
+    CloudDSF workbook =
+        new CloudDSFPlusParser(new XSSFWorkbook(new ByteArrayInputStream(content))).readExcel();
+    StreamingSheetSource source = StreamingSheetSource.open(new ByteArrayInputStream(content));
+    CloudDSF streamed;
+    try {
+      streamed = new CloudDSFPlusParser(source).readExcel();
+    } finally {
+      source.close();
+    }
+    // compare all serialized attributes of the knowledge base and the relations
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+        .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
+        .withGetterVisibility(JsonAutoDetect.Visibility.NONE));
+    for (CloudDSF cdsf : new CloudDSF[] {workbook, streamed}) {
+      assertEquals(mapper.writeValueAsString(generated), mapper.writeValueAsString(cdsf));
+      assertEquals(mapper.writeValueAsString(generated.getInfluencingDecisions()),
+          mapper.writeValueAsString(cdsf.getInfluencingDecisions()));
+      assertEquals(mapper.writeValueAsString(generated.getInfluencingOutcomes()),
+          mapper.writeValueAsString(cdsf.getInfluencingOutcomes()));
+    }
+  }
+}
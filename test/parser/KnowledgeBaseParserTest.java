@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that one parser instance parses different knowledge bases concurrently.
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBaseParserTest {
+
+  @Test
+  public void testParseConcurrently() throws Exception {
+    final List<byte[]> contents = new ArrayList<byte[]>();
+    List<byte[]> expected = new ArrayList<byte[]>();
+    for (long seed = 0; seed < 4; seed++) {
+      KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 3, 3, 0.5, seed);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      generator.write(out);
+      contents.add(out.toByteArray());
+      expected.add(JsonWriter.serializeCloudDSFPlus(generator.createCloudDSFPlus()));
+    }
+    ExecutorService sheets = new ForkJoinPool(2);
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+    try {
+      final KnowledgeBaseParser parser = new KnowledgeBaseParser(sheets);
+      List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+      // every knowledge base is parsed several times by different threads
+      for (int i = 0; i < 3 * contents.size(); i++) {
+        final byte[] content = contents.get(i % contents.size());
+        results.add(callers.submit(new Callable<byte[]>() {
+          @Override
+          public byte[] call() throws IOException {
+            return JsonWriter.serializeCloudDSFPlus(
+                parser.parse(new ByteArrayInputStream(content)).getCloudDSFPlus());
+          }
+        }));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        assertArrayEquals(expected.get(i % contents.size()), results.get(i).get());
+      }
+    } finally {
+      callers.shutdown();
+      sheets.shutdown();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+
+import cloudDSF.CloudDSF;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks the relation matrices read from the sheets of a knowledge base and that sheets read
+ * concurrently result in the same models.
+ * 
+ * @author Metz
+ *
+ */
+public class KnowledgeBaseTest {
+  @Test
+  public void testReadSheetsConcurrently() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 3, 4, 0.5, 3);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    generator.write(out);
+    StreamingSheetSource source =
+        StreamingSheetSource.open(new ByteArrayInputStream(out.toByteArray()));
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    CloudDSF cdsf;
+    CloudDSF cdsfPlus;
+    try {
+      KnowledgeBase knowledgeBase = new KnowledgeBase(source);
+      knowledgeBase.readSheets(executor);
+      cdsf = new CloudDSFParser(knowledgeBase).readExcel();
+      cdsfPlus = new CloudDSFPlusParser(knowledgeBase).readExcel();
+    } finally {
+      executor.shutdown();
+      source.close();
+    }
+    // relations are in the same order as if the sheets were read one after another
+    ObjectMapper mapper = new ObjectMapper();
+    CloudDSF generated = generator.createCloudDSFPlus();
+    assertEquals(mapper.writeValueAsString(generated.getInfluencingDecisions()),
+        mapper.writeValueAsString(cdsfPlus.getInfluencingDecisions()));
+    assertEquals(mapper.writeValueAsString(generated.getInfluencingOutcomes()),
+        mapper.writeValueAsString(cdsfPlus.getInfluencingOutcomes()));
+    assertEquals(mapper.writeValueAsString(generator.createCloudDSF().getInfluencingTasks()),
+        mapper.writeValueAsString(cdsf.getInfluencingTasks()));
+  }
+
+  @Test
+  public void testDecodeSharedStrings() {
+    KnowledgeBase knowledgeBase = new KnowledgeBase(new SheetSource() {
+      @Override
+      public void readSheet(String sheetName, RowHandler handler) {
+        SheetRow row = new SheetRow();
+        row.reset(0);
+        row.setString(2, "O1");
+        row.setString(3, "O2");
+        row.setString(4, "O3");
+        handler.handleRow(row);
+        row.reset(1);
+        row.setString(1, "O1");
+        // repeated shared strings, an inline string and a shared string of no relation type
+        row.setSharedString(2, 0, "in");
+        row.setSharedString(3, 0, "in");
+        row.setString(4, "ex");
+        row.setSharedString(5, 1, "Outcome");
+        handler.handleRow(row);
+        row.reset(2);
+        row.setString(1, "O2");
+        // the type of a shared string is decoded once, thus its value is not compared again
+        row.setSharedString(2, 0, "ex");
+        row.setSharedString(3, 1, "in");
+        row.setString(4, "a");
+        handler.handleRow(row);
+      }
+
+      @Override
+      public String getComment(String sheetName, int rowIndex, int columnIndex) {
+        return null;
+      }
+    });
+    RelationMatrix matrix = knowledgeBase.getOutcomeRelations();
+    assertEquals(Arrays.asList("O1", "O2"), matrix.getRowLabels());
+    assertEquals(5, matrix.size());
+    int[] columns = {2, 3, 4, 2, 4};
+    String[] types = {"in", "in", "ex", "in", "a"};
+    for (int i = 0; i < matrix.size(); i++) {
+      assertEquals(columns[i], matrix.getColumn(i));
+      assertEquals(types[i], matrix.getTypes().get(matrix.getTypeCode(i)));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import cloudDSF.CloudDSF;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks that cached models result in the same json files as the parsed models.
+ * 
+ * @author Metz
+ *
+ */
+public class ModelCacheTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(3, 3, 3, 0.5, 7);
+    ModelCache.Models models =
+        new ModelCache.Models(generator.createCloudDSF(), generator.createCloudDSFPlus());
+    byte[] hash = ModelCache.hash(new byte[] {1, 2, 3});
+    ModelCache cache = new ModelCache(new File(folder.getRoot(), "test.cache"));
+    assertNull(cache.load(hash));
+    Map<String, byte[]> outputs = new LinkedHashMap<String, byte[]>();
+    outputs.put(JsonWriter.CLOUDDSF_FILE, new byte[] {4, 5});
+    outputs.put(JsonWriter.CLOUDDSF_PLUS_FILE, new byte[] {6});
+    cache.store(hash, new ModelCache.Entry(models, outputs));
+
+    ModelCache.Entry entry = cache.load(hash);
+    assertNotNull(entry);
+    assertEquals(outputs.keySet(), entry.getOutputs().keySet());
+    assertArrayEquals(new byte[] {4, 5}, entry.getOutputs().get(JsonWriter.CLOUDDSF_FILE));
+    assertArrayEquals(new byte[] {6}, entry.getOutputs().get(JsonWriter.CLOUDDSF_PLUS_FILE));
+    // digests are read without the models
+    assertArrayEquals(new byte[] {4, 5},
+        cache.loadOutputs(hash).get(JsonWriter.CLOUDDSF_FILE));
+    assertNull(cache.loadOutputs(ModelCache.hash(new byte[] {1, 2, 4})));
+    ModelCache.Models cached = entry.getModels();
+    assertArrayEquals(JsonWriter.serializeCloudDSF(models.getCloudDSF()),
+        JsonWriter.serializeCloudDSF(cached.getCloudDSF()));
+    assertArrayEquals(JsonWriter.serializeCloudDSFPlus(models.getCloudDSFPlus()),
+        JsonWriter.serializeCloudDSFPlus(cached.getCloudDSFPlus()));
+    // cache of another knowledge base
+    assertNull(cache.load(ModelCache.hash(new byte[] {1, 2, 4})));
+  }
+
+  @Test
+  public void testOtherVersion() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(2, 2, 2, 0.5, 7);
+    ModelCache.Models models =
+        new ModelCache.Models(generator.createCloudDSF(), generator.createCloudDSFPlus());
+    byte[] hash = ModelCache.hash(new byte[] {1, 2, 3});
+    File file = new File(folder.getRoot(), "test.cache");
+    ModelCache cache = new ModelCache(file);
+    cache.store(hash, new ModelCache.Entry(models, new HashMap<String, byte[]>()));
+    assertNotNull(cache.load(hash));
+    // increase the parser version following magic and version of the layout
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.seek(8);
+      raf.writeInt(KnowledgeBaseParser.VERSION + 1);
+    } finally {
+      raf.close();
+    }
+    assertNull(cache.load(hash));
+  }
+
+  @Test
+  public void testWrittenDigest() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(2, 2, 2, 0.5, 7);
+    File file = folder.newFile(JsonWriter.CLOUDDSF_PLUS_FILE);
+    CloudDSF cdsfPlus = generator.createCloudDSFPlus();
+    // digest of the streamed json equals the digest of the file and of the serialized json
+    byte[] digest = JsonWriter.writeCloudDSFPlusJson(cdsfPlus, file);
+    assertArrayEquals(digest, ModelCache.hash(file));
+    assertArrayEquals(digest, ModelCache.hash(JsonWriter.serializeCloudDSFPlus(cdsfPlus)));
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Checks the relations of a matrix sheet and the resolution of their entity names into ids.
+ * 
+ * @author Metz
+ *
+ */
+public class RelationMatrixTest {
+  @Test
+  public void testRelations() {
+    RelationMatrix matrix = new RelationMatrix(new String[] {"", "", "D1", "D2"},
+        new String[] {"Influencing", "Affecting"});
+    int row = matrix.addRow("D1");
+    matrix.addRelation(row, 3, 0);
+    row = matrix.addRow("D2");
+    matrix.addRelation(row, 2, 1);
+    // relation in a column right of the header row
+    matrix.addRelation(row, 5, 0);
+    RelationMatrix following = new RelationMatrix(new String[] {"", "", "D1", "D2"},
+        new String[] {"Influencing", "Affecting"});
+    row = following.addRow("D3");
+    following.addRelation(row, 2, 1);
+    matrix.append(following);
+
+    assertEquals(4, matrix.size());
+    assertEquals(Arrays.asList("D1", "D2", "D3"), matrix.getRowLabels());
+    assertEquals(Arrays.asList("", "", "D1", "D2", "", ""), matrix.getColumnLabels());
+    assertEquals(2, matrix.getRow(3));
+    assertEquals(2, matrix.getColumn(3));
+    assertEquals(1, matrix.getTypeCode(3));
+
+    int[] rowToId = {101, 102, 103};
+    int[] columnToId = {-1, -1, 101, 102, -1, -1};
+    assertEquals(101, matrix.getSourceId(0, rowToId));
+    assertEquals(102, matrix.getTargetId(0, columnToId));
+    assertEquals(103, matrix.getSourceId(3, rowToId));
+    assertEquals(101, matrix.getTargetId(3, columnToId));
+    try {
+      matrix.getTargetId(2, columnToId);
+      fail("Column without name has no id");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Entity  does not exist", e.getMessage());
+    }
+    rowToId[1] = -1;
+    try {
+      matrix.getSourceId(1, rowToId);
+      fail("Unknown decision has no id");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Entity D2 does not exist", e.getMessage());
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndex() {
+    RelationMatrix matrix = new RelationMatrix(new String[] {"D1"}, new String[] {"Requiring"});
+    matrix.addRelation(matrix.addRow("D1"), 0, 0);
+    matrix.getRow(1);
+  }
+
+  @Test
+  public void testUnknownRowLabel() throws Exception {
+    XSSFWorkbook workbook = readMockupKnowledgeBase();
+    // start decision of a row with an influencing relation
+    rename(workbook, "Decision Level", 3, 1, "Unknown Decision");
+    try {
+      new CloudDSFPlusParser(workbook).readExcel();
+      fail("Relation of an unknown decision was parsed");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Entity Unknown Decision does not exist", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testUnknownColumnLabel() throws Exception {
+    XSSFWorkbook workbook = readMockupKnowledgeBase();
+    // end decision of a column with an influencing relation
+    rename(workbook, "Decision Level", 1, 3, "Unknown Decision");
+    try {
+      new CloudDSFParser(workbook).readExcel();
+      fail("Relation of an unknown decision was parsed");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Entity Unknown Decision does not exist", e.getMessage());
+    }
+  }
+
+  private static XSSFWorkbook readMockupKnowledgeBase() throws Exception {
+    InputStream in =
+        JsonWriter.class.getClassLoader().getResourceAsStream("MockupKnowledgeBase.xlsx");
+    try {
+      return new XSSFWorkbook(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  private static void rename(XSSFWorkbook workbook, String sheetName, int rowIndex,
+      int columnIndex, String name) {
+    Cell cell = workbook.getSheet(sheetName).getRow(rowIndex).getCell(columnIndex);
+    // names are formulas referencing the knowledge base sheet
+    cell.setCellType(Cell.CELL_TYPE_STRING);
+    cell.setCellValue(name);
+  }
+}
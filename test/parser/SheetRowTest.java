@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Checks the cell values of rows and their indexes in the shared strings table.
+ * 
+ * @author Metz
+ *
+ */
+public class SheetRowTest {
+  @Test
+  public void testSharedStrings() {
+    SheetRow row = new SheetRow();
+    row.reset(3);
+    row.setSharedString(1, 7, "in");
+    row.setString(2, "ex");
+    // beyond the initial capacity
+    row.setSharedString(40, 7, "in");
+    assertEquals(3, row.getRowIndex());
+    assertEquals(41, row.getSize());
+    assertEquals("in", row.getString(1));
+    assertEquals(7, row.getSharedString(1));
+    assertEquals("ex", row.getString(2));
+    assertEquals(-1, row.getSharedString(2));
+    assertEquals(7, row.getSharedString(40));
+    // cells that are not present
+    assertEquals("", row.getString(20));
+    assertEquals(-1, row.getSharedString(20));
+    assertEquals(-1, row.getSharedString(41));
+
+    row.reset(4);
+    assertEquals(0, row.getSize());
+    row.setString(40, "a");
+    assertEquals(-1, row.getSharedString(1));
+    assertEquals(-1, row.getSharedString(40));
+    assertEquals("", row.getString(1));
+  }
+
+  @Test
+  public void testStreamedSharedStrings() throws Exception {
+    InputStream in =
+        JsonWriter.class.getClassLoader().getResourceAsStream("MockupKnowledgeBase.xlsx");
+    final StreamingSheetSource source = StreamingSheetSource.open(in);
+    final List<String> sharedStrings = source.getSharedStrings();
+    final int[] cells = new int[2];
+    try {
+      source.readSheet(KnowledgeBase.OUTCOME_SHEET, new RowHandler() {
+        @Override
+        public void handleRow(SheetRow row) {
+          for (int i = 0; i < row.getSize(); i++) {
+            int index = row.getSharedString(i);
+            if (index >= 0) {
+              // the index refers to the value of the cell
+              assertEquals(sharedStrings.get(index), row.getString(i));
+              cells[0]++;
+            } else if (row.getString(i).isEmpty() == false) {
+              cells[1]++;
+            }
+          }
+        }
+      });
+    } finally {
+      source.close();
+    }
+    // relation types are shared strings, names are cached formula results
+    assertTrue(cells[0] > 0);
+    assertTrue(cells[1] > 0);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Balduin Metz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that the row ranges of a split sheet contain the same rows as the sheet read at once.
+ * 
+ * @author Metz
+ *
+ */
+public class StreamingSheetSourceTest {
+  private StreamingSheetSource source;
+  private ExecutorService executor;
+  private List<RowCollector> ranges;
+  private RowCollector sequential;
+
+  /**
+   * Writes a knowledge base with an Outcome Level sheet large enough to be split.
+   * 
+   * @throws Exception Writing or opening of the workbook fails
+   */
+  @Before
+  public void setUp() throws Exception {
+    KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(6, 5, 5, 0.5, 1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    generator.write(out);
+    source = StreamingSheetSource.open(new ByteArrayInputStream(out.toByteArray()));
+    executor = new ForkJoinPool(4);
+    ranges = new ArrayList<RowCollector>();
+    for (int i = 0; i < 4; i++) {
+      ranges.add(new RowCollector());
+    }
+    sequential = new RowCollector();
+    source.readSheet(KnowledgeBase.OUTCOME_SHEET, sequential);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+    source.close();
+  }
+
+  @Test
+  public void testReadOutcomeLevelRanges() throws Exception {
+    source.readSheet(KnowledgeBase.OUTCOME_SHEET, ranges, executor);
+    // the sheet is large enough to be split and the ranges contain all rows in order
+    assertTrue(ranges.get(1).rows.isEmpty() == false);
+    List<String> rows = new ArrayList<String>();
+    for (RowCollector range : ranges) {
+      rows.addAll(range.rows);
+    }
+    assertEquals(sequential.rows, rows);
+  }
+
+  @Test
+  public void testSheetTooLargeToSplit() throws Exception {
+    // only the start of the sheet is buffered and the rest is streamed
+    source.readSheet(KnowledgeBase.OUTCOME_SHEET, ranges, executor, 4096);
+    assertEquals(sequential.rows, ranges.get(0).rows);
+    for (int i = 1; i < ranges.size(); i++) {
+      assertTrue(ranges.get(i).rows.isEmpty());
+    }
+  }
+
+  /**
+   * Collects the index and the values of every row.
+   */
+  private static class RowCollector implements RowHandler {
+    private final List<String> rows = new ArrayList<String>();
+
+    @Override
+    public void handleRow(SheetRow row) {
+      StringBuilder sb = new StringBuilder().append(row.getRowIndex());
+      for (int i = 0; i < row.getSize(); i++) {
+        sb.append('|').append(row.getString(i));
+      }
+      rows.add(sb.toString());
+    }
+  }
+}